@@ -6,3 +6,15 @@ CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 
 -- Tables will be created automatically by Hibernate
 -- Indexes will also be created by Hibernate for better performance
+
+-- Shared webhook dedupe claims (signalroot.idempotency.backend=postgres)
+-- state: 1 = in flight (expires_at is the lease expiry), 2 = done (expires_at closes the dedupe window)
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    source VARCHAR(32) NOT NULL,
+    external_id VARCHAR(255) NOT NULL,
+    state SMALLINT NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (source, external_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
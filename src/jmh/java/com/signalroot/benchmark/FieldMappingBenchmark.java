@@ -0,0 +1,50 @@
+package com.signalroot.benchmark;
+
+import com.signalroot.service.WebhookFieldMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-webhook field mapping: severity and status enums and the service name
+ * taken from repository, job and alarm names. Inputs rotate through the values
+ * senders actually use, in the casing they use, so the switch sees a realistic mix.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldMappingBenchmark {
+
+    private static final String[] PAGERDUTY_SEVERITIES = {"critical", "high", "warning", "info", "error"};
+    private static final String[] PAGERDUTY_STATUSES = {"triggered", "acknowledged", "resolved"};
+    private static final String[] CLOUDWATCH_STATES = {"ALARM", "OK", "INSUFFICIENT_DATA"};
+    private static final String[] GITHUB_STATES = {"success", "failure", "error", "pending", "in_progress"};
+    private static final String[] JENKINS_STATUSES = {"SUCCESS", "FAILURE", "UNSTABLE", "ABORTED"};
+    private static final String[] NAMES = {"payment-service-api", "checkout-deploy", "PaymentService-HighCPU", "monolith"};
+
+    private int next;
+
+    @Benchmark
+    public void alertMapping(Blackhole blackhole) {
+        int i = next++;
+        blackhole.consume(WebhookFieldMapper.pagerDutySeverity(PAGERDUTY_SEVERITIES[i % PAGERDUTY_SEVERITIES.length]));
+        blackhole.consume(WebhookFieldMapper.pagerDutyStatus(PAGERDUTY_STATUSES[i % PAGERDUTY_STATUSES.length]));
+        blackhole.consume(WebhookFieldMapper.cloudWatchSeverity(CLOUDWATCH_STATES[i % CLOUDWATCH_STATES.length]));
+    }
+
+    @Benchmark
+    public void deployMapping(Blackhole blackhole) {
+        int i = next++;
+        blackhole.consume(WebhookFieldMapper.gitHubStatus(GITHUB_STATES[i % GITHUB_STATES.length]));
+        blackhole.consume(WebhookFieldMapper.jenkinsStatus(JENKINS_STATUSES[i % JENKINS_STATUSES.length]));
+    }
+
+    @Benchmark
+    public String serviceName() {
+        return WebhookFieldMapper.serviceName(NAMES[next++ % NAMES.length]);
+    }
+}
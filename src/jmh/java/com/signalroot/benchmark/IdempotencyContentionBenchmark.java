@@ -0,0 +1,100 @@
+package com.signalroot.benchmark;
+
+import com.signalroot.service.AcquireResult;
+import com.signalroot.service.IdempotencyStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Several threads deliver every event id a few times, the way retrying senders
+ * do. The check-then-put baseline mirrors the old IdempotencyService call
+ * sequence (shouldProcessWebhook, markWebhookProcessed, shouldCreateIncident,
+ * associateAlertWithIncident); the lease variant is tryAcquire plus complete.
+ * The aux counters report deliveries and accepted events per thread, so
+ * processed/events shows how many duplicates slipped through.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class IdempotencyContentionBenchmark {
+
+    private static final int DELIVERIES_PER_EVENT = 4;
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long LEASE_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    private static final String SOURCE = "pagerduty";
+
+    private final AtomicLong deliveries = new AtomicLong();
+
+    private Map<String, LocalDateTime> processedWebhooks;
+    private Map<String, String> alertToIncident;
+    private IdempotencyStore store;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        processedWebhooks = new ConcurrentHashMap<>();
+        alertToIncident = new ConcurrentHashMap<>();
+        store = new IdempotencyStore(1 << 22, WINDOW_MILLIS);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long processed;
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            processed = 0;
+            events = 0;
+        }
+    }
+
+    @Benchmark
+    public boolean checkThenPut(Counters counters) {
+        String externalId = nextExternalId(counters);
+        String key = SOURCE + ":" + externalId;
+
+        LocalDateTime existing = processedWebhooks.get(key);
+        if (existing != null && existing.plusMinutes(30).isAfter(LocalDateTime.now())) {
+            return false;
+        }
+
+        processedWebhooks.put(key, LocalDateTime.now());
+
+        if (alertToIncident.get(key) != null) {
+            return false;
+        }
+
+        alertToIncident.put(key, externalId);
+        counters.processed++;
+        return true;
+    }
+
+    @Benchmark
+    public boolean leaseAcquire(Counters counters) {
+        String externalId = nextExternalId(counters);
+        long now = System.currentTimeMillis();
+
+        if (store.tryAcquire(SOURCE, externalId, now, LEASE_MILLIS) != AcquireResult.ACQUIRED) {
+            return false;
+        }
+
+        store.complete(SOURCE, externalId, now, WINDOW_MILLIS);
+        counters.processed++;
+        return true;
+    }
+
+    private String nextExternalId(Counters counters) {
+        counters.events++;
+        return "PD-" + (deliveries.getAndIncrement() / DELIVERIES_PER_EVENT);
+    }
+}
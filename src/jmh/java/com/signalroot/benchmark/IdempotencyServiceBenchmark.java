@@ -0,0 +1,73 @@
+package com.signalroot.benchmark;
+
+import com.signalroot.service.AcquireResult;
+import com.signalroot.service.IdempotencyService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IdempotencyService check-and-mark (tryAcquire, then complete) as the tenant
+ * services call it, from 1 to 64 threads. Each event id is delivered a few
+ * times, so most calls after the first are duplicates, as with retrying senders.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdempotencyServiceBenchmark {
+
+    private static final int DELIVERIES_PER_EVENT = 4;
+    private static final String SOURCE = "pagerduty";
+
+    private final AtomicLong deliveries = new AtomicLong();
+
+    private IdempotencyService idempotencyService;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        idempotencyService = new IdempotencyService();
+        idempotencyService.init();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        idempotencyService.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean checkAndMark1() {
+        return checkAndMark();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean checkAndMark4() {
+        return checkAndMark();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean checkAndMark16() {
+        return checkAndMark();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean checkAndMark64() {
+        return checkAndMark();
+    }
+
+    private boolean checkAndMark() {
+        String externalId = "PD-" + (deliveries.getAndIncrement() / DELIVERIES_PER_EVENT);
+        if (idempotencyService.tryAcquire(SOURCE, externalId) != AcquireResult.ACQUIRED) {
+            return false;
+        }
+        idempotencyService.complete(SOURCE, externalId);
+        return true;
+    }
+}
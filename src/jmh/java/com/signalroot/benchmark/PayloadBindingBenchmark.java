@@ -0,0 +1,119 @@
+package com.signalroot.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.signalroot.dto.GitHubDeploymentEvent;
+import com.signalroot.dto.PagerDutyAlertEvent;
+import com.signalroot.service.WebhookPayloadExtractor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares binding the whole webhook body into a Map tree (what the inbound
+ * controller used to do) against the streaming extractor. Run with -prof gc
+ * to see the allocation difference per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadBindingBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WebhookPayloadExtractor extractor = new WebhookPayloadExtractor();
+
+    private byte[] gitHubBody;
+    private byte[] pagerDutyBody;
+
+    @Setup
+    public void setUp() throws Exception {
+        gitHubBody = objectMapper.writeValueAsBytes(gitHubDeployment());
+        pagerDutyBody = objectMapper.writeValueAsBytes(pagerDutyIncident());
+    }
+
+    @Benchmark
+    public GitHubDeploymentEvent gitHubMapBinding() throws Exception {
+        return GitHubDeploymentEvent.fromMap(objectMapper.readValue(gitHubBody, MAP_TYPE));
+    }
+
+    @Benchmark
+    public GitHubDeploymentEvent gitHubStreaming() throws Exception {
+        return extractor.readGitHub(gitHubBody);
+    }
+
+    @Benchmark
+    public PagerDutyAlertEvent pagerDutyMapBinding() throws Exception {
+        return PagerDutyAlertEvent.fromMap(objectMapper.readValue(pagerDutyBody, MAP_TYPE));
+    }
+
+    @Benchmark
+    public PagerDutyAlertEvent pagerDutyStreaming() throws Exception {
+        return extractor.readPagerDuty(pagerDutyBody);
+    }
+
+    // Shaped like a real deployment_status delivery: the fields we need plus large repository/sender objects
+    private static Map<String, Object> gitHubDeployment() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("state", "success");
+        status.put("description", "Deployment finished successfully.");
+
+        Map<String, Object> deployment = new LinkedHashMap<>();
+        deployment.put("url", "https://api.github.com/repos/acme/payment-service/deployments/1");
+        deployment.put("id", "1234567890");
+        deployment.put("sha", "a84d88e7554fc1fa21bcbc4efae3c782a70d2b9d");
+        deployment.put("ref", "main");
+        deployment.put("environment", "production");
+        deployment.put("created_at", "2024-01-20T10:15:30Z");
+        deployment.put("status", status);
+        deployment.put("payload", filler("payload", 20));
+
+        Map<String, Object> repository = filler("repo", 90);
+        repository.put("name", "payment-service-api");
+        repository.put("owner", filler("owner", 18));
+        repository.put("topics", List.of("payments", "api", "java", "spring"));
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("action", "created");
+        body.put("deployment", deployment);
+        body.put("repository", repository);
+        body.put("organization", filler("org", 12));
+        body.put("sender", filler("sender", 18));
+        return body;
+    }
+
+    private static Map<String, Object> pagerDutyIncident() {
+        Map<String, Object> service = filler("service", 10);
+        service.put("name", "payment-service");
+
+        Map<String, Object> incident = new LinkedHashMap<>();
+        incident.put("id", "PT4KHLK");
+        incident.put("title", "High latency on /checkout");
+        incident.put("severity", "critical");
+        incident.put("status", "triggered");
+        incident.put("service", service);
+        incident.put("assignments", List.of(filler("assignee", 8), filler("assignee", 8)));
+        incident.put("body", filler("detail", 30));
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("webhookId", "01DEN7TQ5GRHHIBX9GUXXPBX5H");
+        body.put("incident", incident);
+        return body;
+    }
+
+    private static Map<String, Object> filler(String prefix, int fields) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < fields; i++) {
+            map.put(prefix + "_field_" + i, "https://api.github.com/" + prefix + "/" + i + "/value");
+        }
+        return map;
+    }
+}
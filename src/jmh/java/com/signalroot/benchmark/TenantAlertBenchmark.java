@@ -0,0 +1,74 @@
+package com.signalroot.benchmark;
+
+import com.signalroot.dto.PagerDutyAlertEvent;
+import com.signalroot.entity.Organization;
+import com.signalroot.service.IdempotencyService;
+import com.signalroot.service.MockLatencyModel;
+import com.signalroot.service.MockTenantAlertService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.lang.reflect.Field;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The whole in-memory MockTenantAlertService.processPagerDutyAlert call: lease,
+ * field mapping, alert construction, store and complete. Mock latency is left
+ * at its default of none so only our own code is measured; logging is cut to
+ * WARN by the jmh logback-test.xml.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TenantAlertBenchmark {
+
+    private final AtomicLong incidents = new AtomicLong();
+
+    private IdempotencyService idempotencyService;
+    private MockTenantAlertService alertService;
+    private Organization organization;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        idempotencyService = new IdempotencyService();
+        idempotencyService.init();
+
+        MockLatencyModel latencyModel = new MockLatencyModel();
+        inject(latencyModel, "environment", new StandardEnvironment());
+        inject(latencyModel, "meterRegistry", new SimpleMeterRegistry());
+
+        alertService = new MockTenantAlertService();
+        inject(alertService, "idempotencyService", idempotencyService);
+        inject(alertService, "latencyModel", latencyModel);
+
+        organization = new Organization();
+        organization.setId(UUID.fromString("550e8400-e29b-41d4-a716-446655440000"));
+        organization.setOrganizationKey("acme-corp");
+        organization.setName("Acme Corp");
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        idempotencyService.shutdown();
+    }
+
+    @Benchmark
+    public void processPagerDutyAlert() {
+        PagerDutyAlertEvent event = new PagerDutyAlertEvent("01DEN7TQ5GRHHIBX9GUXXPBX5H", "PT" + incidents.getAndIncrement(),
+            "High latency on /checkout", "critical", "triggered", "payment-service", "2024-01-20T10:15:30Z");
+        alertService.processPagerDutyAlert(event, organization);
+    }
+
+    // The services use field injection, so wire them the way Spring would
+    private static void inject(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
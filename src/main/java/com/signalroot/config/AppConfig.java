@@ -1,14 +1,93 @@
 package com.signalroot.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class AppConfig {
-    
+
+    @Value("${signalroot.http.client.max-total:50}")
+    private int maxTotal = 50;
+
+    @Value("${signalroot.http.client.max-per-route:20}")
+    private int maxPerRoute = 20;
+
+    @Value("${signalroot.http.client.connect-timeout-millis:2000}")
+    private long connectTimeoutMillis = 2000;
+
+    @Value("${signalroot.http.client.read-timeout-millis:5000}")
+    private long readTimeoutMillis = 5000;
+
+    @Value("${signalroot.http.client.pool-timeout-millis:1000}")
+    private long poolTimeoutMillis = 1000;
+
+    @Value("${signalroot.http.client.idle-evict-seconds:60}")
+    private long idleEvictSeconds = 60;
+
+    @Value("${signalroot.http.client.time-to-live-seconds:300}")
+    private long timeToLiveSeconds = 300;
+
+    /**
+     * Keep-alive connection pool for outbound calls (Slack), so a burst of
+     * notifications reuses open TLS connections instead of handshaking per post.
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager outboundConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxTotal)
+            .setMaxConnPerRoute(maxPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                // Recycle long-lived connections so DNS changes are eventually picked up
+                .setTimeToLive(TimeValue.ofSeconds(timeToLiveSeconds))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+
+        Gauge.builder("signalroot.http.client.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+            .description("Outbound connections in use")
+            .register(meterRegistry);
+        Gauge.builder("signalroot.http.client.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+            .description("Requests waiting for a pooled connection")
+            .register(meterRegistry);
+        Gauge.builder("signalroot.http.client.pool.idle", connectionManager, cm -> cm.getTotalStats().getAvailable())
+            .description("Open outbound connections kept alive for reuse")
+            .register(meterRegistry);
+        Gauge.builder("signalroot.http.client.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+            .register(meterRegistry);
+
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient outboundHttpClient(PoolingHttpClientConnectionManager outboundConnectionManager) {
+        return HttpClients.custom()
+            .setConnectionManager(outboundConnectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMillis))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+            .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient outboundHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(outboundHttpClient));
     }
 }
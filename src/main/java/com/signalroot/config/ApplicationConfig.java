@@ -17,10 +17,12 @@ public class ApplicationConfig {
         return new MockOrganizationService();
     }
     
+    // Webhook org-key lookups are served from a cache in front of the database
     @Bean
+    @Primary
     @ConditionalOnProperty(name = "signalroot.service.mode", havingValue = "real")
-    public OrganizationServiceInterface realOrganizationService() {
-        return new DatabaseOrganizationService();
+    public OrganizationServiceInterface realOrganizationService(DatabaseOrganizationService databaseOrganizationService) {
+        return new CachingOrganizationService(databaseOrganizationService);
     }
     
     @Bean
@@ -1,17 +1,42 @@
 package com.signalroot.controller;
 
+import com.signalroot.dto.BatchItemResult;
+import com.signalroot.dto.BatchRecord;
+import com.signalroot.dto.CloudWatchAlarmEvent;
+import com.signalroot.dto.GitHubDeploymentEvent;
+import com.signalroot.dto.JenkinsBuildEvent;
+import com.signalroot.dto.PagerDutyAlertEvent;
 import com.signalroot.entity.Organization;
+import com.signalroot.service.InboundJournal;
+import com.signalroot.service.InboundWebhookQueue;
+import com.signalroot.service.IngestRateLimiter;
+import com.signalroot.service.KeyedLaneExecutor;
 import com.signalroot.service.OrganizationServiceInterface;
+import com.signalroot.service.PipelineMetrics;
 import com.signalroot.service.TenantAlertServiceInterface;
 import com.signalroot.service.TenantDeployServiceInterface;
+import com.signalroot.service.WebhookPayloadExtractor;
+import com.signalroot.service.WebhookSignatureVerifier;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/inbound")
@@ -28,24 +53,68 @@ public class InboundWebhookController {
     @Autowired
     private TenantDeployServiceInterface deployService;
     
+    @Autowired
+    private InboundWebhookQueue inboundQueue;
+    
+    @Autowired
+    private KeyedLaneExecutor lanes;
+    
+    @Autowired
+    private InboundJournal journal;
+    
+    @Autowired
+    private WebhookPayloadExtractor payloadExtractor;
+    
+    @Autowired
+    private WebhookSignatureVerifier signatureVerifier;
+    
+    @Autowired
+    private IngestRateLimiter rateLimiter;
+    
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+    
+    @Value("${signalroot.inbound.batch.max-records:5000}")
+    private int batchMaxRecords;
+    
     // PagerDuty webhook endpoint
     @PostMapping("/pagerduty/{orgKey}")
     public ResponseEntity<Map<String, String>> handlePagerDutyWebhook(
             @PathVariable String orgKey,
-            @RequestBody Map<String, Object> payload,
+            @RequestBody byte[] body,
             @RequestHeader(value = "X-PagerDuty-Webhook-Signature", required = false) String signature) {
         
         logger.info("🚨 PagerDuty webhook received for organization: {}", orgKey);
         
         try {
-            Organization org = organizationService.findByOrganizationKey(orgKey);
+            Organization org = lookupOrganization(orgKey, "pagerduty");
             if (org == null) {
                 logger.warn("Organization not found: {}", orgKey);
                 return ResponseEntity.notFound().build();
             }
             
-            // Process PagerDuty alert
-            alertService.processPagerDutyAlert(payload, org);
+            if (!signatureVerifier.verify(WebhookSignatureVerifier.Scheme.PAGERDUTY, org, signature, body)) {
+                logger.warn("Rejected PagerDuty webhook with a bad or missing signature for org: {}", orgKey);
+                return unauthorized();
+            }
+            
+            if (!rateLimiter.tryAcquire(org)) {
+                return rateLimited("pagerduty", org);
+            }
+            
+            PagerDutyAlertEvent event = payloadExtractor.readPagerDuty(body);
+            
+            // Durable before any ack; a crash from here on is replayed on startup
+            InboundJournal.Entry task = journal.journaled(org, "pagerduty", event.incidentId(), body, () -> alertService.processPagerDutyAlert(event, org));
+            
+            if (inboundQueue.isEnabled()) {
+                return enqueue("pagerduty", org, event.incidentId(), task);
+            }
+            
+            // Process PagerDuty alert on this thread, after any earlier event for the same incident
+            if (!lanes.run(org, "pagerduty", event.incidentId(), task::runOrDiscard)) {
+                return keyBusy("pagerduty", org, task);
+            }
             
             Map<String, String> response = new HashMap<>();
             response.put("status", "processed");
@@ -54,6 +123,10 @@ public class InboundWebhookController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected malformed PagerDuty webhook for org: {}: {}", orgKey, e.getMessage());
+            return badRequest(e.getMessage());
+            
         } catch (Exception e) {
             logger.error("Failed to process PagerDuty webhook for org: {}", orgKey, e);
             
@@ -69,19 +142,39 @@ public class InboundWebhookController {
     @PostMapping("/cloudwatch/{orgKey}")
     public ResponseEntity<Map<String, String>> handleCloudWatchWebhook(
             @PathVariable String orgKey,
-            @RequestBody Map<String, Object> payload) {
+            @RequestBody byte[] body,
+            @RequestHeader(value = "X-SignalRoot-Signature", required = false) String signature) {
         
         logger.info("☁️ CloudWatch webhook received for organization: {}", orgKey);
         
         try {
-            Organization org = organizationService.findByOrganizationKey(orgKey);
+            Organization org = lookupOrganization(orgKey, "cloudwatch");
             if (org == null) {
                 logger.warn("Organization not found: {}", orgKey);
                 return ResponseEntity.notFound().build();
             }
             
+            if (!signatureVerifier.verify(WebhookSignatureVerifier.Scheme.GENERIC, org, signature, body)) {
+                logger.warn("Rejected CloudWatch webhook with a bad or missing signature for org: {}", orgKey);
+                return unauthorized();
+            }
+            
+            if (!rateLimiter.tryAcquire(org)) {
+                return rateLimited("cloudwatch", org);
+            }
+            
+            CloudWatchAlarmEvent event = payloadExtractor.readCloudWatch(body);
+            
+            InboundJournal.Entry task = journal.journaled(org, "cloudwatch", event.alarmName(), body, () -> alertService.processCloudWatchAlert(event, org));
+            
+            if (inboundQueue.isEnabled()) {
+                return enqueue("cloudwatch", org, event.alarmName(), task);
+            }
+            
             // Process CloudWatch alert
-            alertService.processCloudWatchAlert(payload, org);
+            if (!lanes.run(org, "cloudwatch", event.alarmName(), task::runOrDiscard)) {
+                return keyBusy("cloudwatch", org, task);
+            }
             
             Map<String, String> response = new HashMap<>();
             response.put("status", "processed");
@@ -90,6 +183,10 @@ public class InboundWebhookController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected malformed CloudWatch webhook for org: {}: {}", orgKey, e.getMessage());
+            return badRequest(e.getMessage());
+            
         } catch (Exception e) {
             logger.error("Failed to process CloudWatch webhook for org: {}", orgKey, e);
             
@@ -105,20 +202,39 @@ public class InboundWebhookController {
     @PostMapping("/github/{orgKey}")
     public ResponseEntity<Map<String, String>> handleGitHubWebhook(
             @PathVariable String orgKey,
-            @RequestBody Map<String, Object> payload,
+            @RequestBody byte[] body,
             @RequestHeader(value = "X-Hub-Signature-256", required = false) String signature) {
         
         logger.info("🐙 GitHub webhook received for organization: {}", orgKey);
         
         try {
-            Organization org = organizationService.findByOrganizationKey(orgKey);
+            Organization org = lookupOrganization(orgKey, "github");
             if (org == null) {
                 logger.warn("Organization not found: {}", orgKey);
                 return ResponseEntity.notFound().build();
             }
             
+            if (!signatureVerifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, org, signature, body)) {
+                logger.warn("Rejected GitHub webhook with a bad or missing signature for org: {}", orgKey);
+                return unauthorized();
+            }
+            
+            if (!rateLimiter.tryAcquire(org)) {
+                return rateLimited("github", org);
+            }
+            
+            GitHubDeploymentEvent event = payloadExtractor.readGitHub(body);
+            
+            InboundJournal.Entry task = journal.journaled(org, "github", event.deploymentId(), body, () -> deployService.processGitHubDeploy(event, org));
+            
+            if (inboundQueue.isEnabled()) {
+                return enqueue("github", org, event.deploymentId(), task);
+            }
+            
             // Process GitHub deploy event
-            deployService.processGitHubDeploy(payload, org);
+            if (!lanes.run(org, "github", event.deploymentId(), task::runOrDiscard)) {
+                return keyBusy("github", org, task);
+            }
             
             Map<String, String> response = new HashMap<>();
             response.put("status", "processed");
@@ -127,6 +243,10 @@ public class InboundWebhookController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected malformed GitHub webhook for org: {}: {}", orgKey, e.getMessage());
+            return badRequest(e.getMessage());
+            
         } catch (Exception e) {
             logger.error("Failed to process GitHub webhook for org: {}", orgKey, e);
             
@@ -142,19 +262,39 @@ public class InboundWebhookController {
     @PostMapping("/jenkins/{orgKey}")
     public ResponseEntity<Map<String, String>> handleJenkinsWebhook(
             @PathVariable String orgKey,
-            @RequestBody Map<String, Object> payload) {
+            @RequestBody byte[] body,
+            @RequestHeader(value = "X-SignalRoot-Signature", required = false) String signature) {
         
         logger.info("🔧 Jenkins webhook received for organization: {}", orgKey);
         
         try {
-            Organization org = organizationService.findByOrganizationKey(orgKey);
+            Organization org = lookupOrganization(orgKey, "jenkins");
             if (org == null) {
                 logger.warn("Organization not found: {}", orgKey);
                 return ResponseEntity.notFound().build();
             }
             
+            if (!signatureVerifier.verify(WebhookSignatureVerifier.Scheme.GENERIC, org, signature, body)) {
+                logger.warn("Rejected Jenkins webhook with a bad or missing signature for org: {}", orgKey);
+                return unauthorized();
+            }
+            
+            if (!rateLimiter.tryAcquire(org)) {
+                return rateLimited("jenkins", org);
+            }
+            
+            JenkinsBuildEvent event = payloadExtractor.readJenkins(body);
+            
+            InboundJournal.Entry task = journal.journaled(org, "jenkins", event.externalId(), body, () -> deployService.processJenkinsDeploy(event, org));
+            
+            if (inboundQueue.isEnabled()) {
+                return enqueue("jenkins", org, event.externalId(), task);
+            }
+            
             // Process Jenkins deploy event
-            deployService.processJenkinsDeploy(payload, org);
+            if (!lanes.run(org, "jenkins", event.externalId(), task::runOrDiscard)) {
+                return keyBusy("jenkins", org, task);
+            }
             
             Map<String, String> response = new HashMap<>();
             response.put("status", "processed");
@@ -163,6 +303,10 @@ public class InboundWebhookController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected malformed Jenkins webhook for org: {}: {}", orgKey, e.getMessage());
+            return badRequest(e.getMessage());
+            
         } catch (Exception e) {
             logger.error("Failed to process Jenkins webhook for org: {}", orgKey, e);
             
@@ -173,4 +317,229 @@ public class InboundWebhookController {
             return ResponseEntity.status(500).body(error);
         }
     }
+    
+    // Batch endpoint for forwarders: body is a JSON array or newline-delimited JSON of source events.
+    // Batches bypass the per-key lanes, so they are not ordered against single webhooks for the same key
+    @PostMapping("/{source}/{orgKey}/batch")
+    public ResponseEntity<Map<String, Object>> handleBatchWebhook(
+            @PathVariable String source,
+            @PathVariable String orgKey,
+            @RequestHeader(value = "X-SignalRoot-Signature", required = false) String signature,
+            HttpServletRequest request) {
+        
+        logger.info("📦 Batch webhook received for source: {} and organization: {}", source, orgKey);
+        
+        try {
+            Organization org = lookupOrganization(orgKey, source);
+            if (org == null) {
+                logger.warn("Organization not found: {}", orgKey);
+                return ResponseEntity.notFound().build();
+            }
+            
+            InputStream body = request.getInputStream();
+            if (signature != null || signatureVerifier.requiresSignature(org)) {
+                // Signed batches are buffered so the signature is checked before any record is parsed
+                byte[] raw = body.readAllBytes();
+                if (!signatureVerifier.verify(WebhookSignatureVerifier.Scheme.GENERIC, org, signature, raw)) {
+                    logger.warn("Rejected {} batch with a bad or missing signature for org: {}", source, orgKey);
+                    Map<String, Object> error = new HashMap<>();
+                    error.put("status", "unauthorized");
+                    error.put("message", "Invalid webhook signature");
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+                }
+                body = new ByteArrayInputStream(raw);
+            }
+            
+            BatchRun batch = switch (source) {
+                case "pagerduty" -> batchRun(payloadExtractor.readBatch(body, payloadExtractor::readPagerDuty, batchMaxRecords),
+                    records -> alertService.processPagerDutyAlerts(records, org));
+                case "cloudwatch" -> batchRun(payloadExtractor.readBatch(body, payloadExtractor::readCloudWatch, batchMaxRecords),
+                    records -> alertService.processCloudWatchAlerts(records, org));
+                case "github" -> batchRun(payloadExtractor.readBatch(body, payloadExtractor::readGitHub, batchMaxRecords),
+                    records -> deployService.processGitHubDeploys(records, org));
+                case "jenkins" -> batchRun(payloadExtractor.readBatch(body, payloadExtractor::readJenkins, batchMaxRecords),
+                    records -> deployService.processJenkinsDeploys(records, org));
+                default -> null;
+            };
+            
+            if (batch == null) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("status", "invalid");
+                error.put("message", "Unsupported webhook source: " + source);
+                return ResponseEntity.badRequest().body(error);
+            }
+            
+            // A batch takes one token per record, all or none, so it cannot carry more events past the limit than single webhooks
+            if (batch.size() > rateLimiter.maxTokens(org)) {
+                logger.warn("Rejecting {} batch of {} records over the burst for org: {}", source, batch.size(), orgKey);
+                Map<String, Object> error = new HashMap<>();
+                error.put("status", "too_large");
+                error.put("message", "Batch exceeds the organization's burst of " + rateLimiter.maxTokens(org) + " records, split it");
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
+            }
+            if (!rateLimiter.tryAcquire(org, batch.size())) {
+                logger.warn("Rate limit exceeded, rejecting {} batch of {} records for org: {}", source, batch.size(), orgKey);
+                Map<String, Object> error = new HashMap<>();
+                error.put("status", "rate_limited");
+                error.put("message", "Organization is over its ingest rate limit, retry later");
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimiter.retryAfterSeconds(org, batch.size())))
+                    .body(error);
+            }
+            
+            List<BatchItemResult> results = batch.process().get();
+            
+            Map<String, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(BatchItemResult::status, Collectors.counting()));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "processed");
+            response.put("organization", org.getName());
+            response.put("total", results.size());
+            response.put("counts", counts);
+            response.put("results", results);
+            
+            logger.info("✅ Batch of {} {} records processed for organization: {} {}", results.size(), source, org.getName(), counts);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected malformed {} batch for org: {}: {}", source, orgKey, e.getMessage());
+            
+            Map<String, Object> error = new HashMap<>();
+            error.put("status", "invalid");
+            error.put("message", e.getMessage());
+            
+            return ResponseEntity.badRequest().body(error);
+            
+        } catch (Exception e) {
+            logger.error("Failed to process {} batch for org: {}", source, orgKey, e);
+            
+            Map<String, Object> error = new HashMap<>();
+            error.put("status", "error");
+            error.put("message", "Failed to process batch");
+            
+            return ResponseEntity.status(500).body(error);
+        }
+    }
+    
+    // A parsed batch, counted before it is charged against the rate limit and processed
+    private record BatchRun(int size, Supplier<List<BatchItemResult>> process) {
+    }
+    
+    private <T> BatchRun batchRun(List<BatchRecord<T>> records,
+                                  Function<List<BatchRecord<T>>, List<BatchItemResult>> processor) {
+        return new BatchRun(records.size(), () -> runBatch(records, processor));
+    }
+    
+    // Reports records that failed extraction as invalid and hands the rest to the tenant service
+    private <T> List<BatchItemResult> runBatch(List<BatchRecord<T>> records,
+                                               Function<List<BatchRecord<T>>, List<BatchItemResult>> processor) {
+        List<BatchItemResult> results = new ArrayList<>(records.size());
+        List<BatchRecord<T>> valid = new ArrayList<>(records.size());
+        
+        for (BatchRecord<T> record : records) {
+            if (record.isValid()) {
+                valid.add(record);
+            } else {
+                results.add(BatchItemResult.invalid(record.index(), record.error()));
+            }
+        }
+        
+        if (!valid.isEmpty()) {
+            results.addAll(processor.apply(valid));
+        }
+        
+        results.sort(Comparator.comparingInt(BatchItemResult::index));
+        return results;
+    }
+    
+    // Hands the webhook to its processing lane and acknowledges with 202, or 429 when the lane is full
+    private ResponseEntity<Map<String, String>> enqueue(String source, Organization org, String externalId,
+                                                        InboundJournal.Entry task) {
+        String trackingId = inboundQueue.submit(source, org, externalId, task);
+        
+        if (trackingId == null) {
+            return lanesFull(source, org, task);
+        }
+        
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "accepted");
+        response.put("organization", org.getName());
+        response.put("trackingId", trackingId);
+        response.put("message", "Webhook queued for processing");
+        
+        return ResponseEntity.accepted().body(response);
+    }
+    
+    // The sender retries after a 429, so the journal entry is dropped rather than replayed
+    private ResponseEntity<Map<String, String>> lanesFull(String source, Organization org, InboundJournal.Entry task) {
+        task.discard();
+        logger.warn("Inbound lane full, rejecting {} webhook for org: {}", source, org.getOrganizationKey());
+        
+        Map<String, String> error = new HashMap<>();
+        error.put("status", "rejected");
+        error.put("message", "Inbound queue is full, retry later");
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(inboundQueue.getRetryAfterSeconds()))
+            .body(error);
+    }
+    
+    // An earlier event for the same key held it past the sync timeout; nothing ran, so the sender retries
+    private ResponseEntity<Map<String, String>> keyBusy(String source, Organization org, InboundJournal.Entry task) {
+        task.discard();
+        logger.warn("Earlier {} event still processing, deferring webhook for org: {}", source, org.getOrganizationKey());
+        
+        Map<String, String> error = new HashMap<>();
+        error.put("status", "busy");
+        error.put("message", "An earlier event for this key is still processing, retry later");
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(inboundQueue.getRetryAfterSeconds()))
+            .body(error);
+    }
+    
+    // Rejects a webhook over the organization's token bucket before any parsing or persistence
+    private ResponseEntity<Map<String, String>> rateLimited(String source, Organization org) {
+        logger.warn("Rate limit exceeded, rejecting {} webhook for org: {}", source, org.getOrganizationKey());
+        
+        Map<String, String> error = new HashMap<>();
+        error.put("status", "rate_limited");
+        error.put("message", "Organization is over its ingest rate limit, retry later");
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimiter.retryAfterSeconds(org)))
+            .body(error);
+    }
+    
+    private ResponseEntity<Map<String, String>> unauthorized() {
+        Map<String, String> error = new HashMap<>();
+        error.put("status", "unauthorized");
+        error.put("message", "Invalid webhook signature");
+        
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    }
+    
+    private Organization lookupOrganization(String orgKey, String source) {
+        long started = System.nanoTime();
+        Organization org;
+        try {
+            org = organizationService.findByOrganizationKey(orgKey);
+        } catch (RuntimeException e) {
+            pipelineMetrics.record(PipelineMetrics.Stage.ORG_LOOKUP, source, PipelineMetrics.Outcome.FAILURE, started);
+            throw e;
+        }
+        pipelineMetrics.record(PipelineMetrics.Stage.ORG_LOOKUP, source,
+                               org != null ? PipelineMetrics.Outcome.SUCCESS : PipelineMetrics.Outcome.REJECTED, started);
+        return org;
+    }
+    
+    private ResponseEntity<Map<String, String>> badRequest(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("status", "invalid");
+        error.put("message", message);
+        
+        return ResponseEntity.badRequest().body(error);
+    }
 }
@@ -0,0 +1,58 @@
+package com.signalroot.controller;
+
+import com.signalroot.service.NotificationDispatcher;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications")
+@Tag(name = "notifications", description = "Notification delivery queues and dead letters")
+public class NotificationController {
+    
+    @Autowired
+    private NotificationDispatcher dispatcher;
+    
+    @Operation(summary = "Queue depth and delivery counts per notification channel")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(dispatcher.getStats());
+    }
+    
+    @Operation(
+            summary = "List dead-lettered notifications",
+            description = "Notifications that used up their retries or found their channel queue full, newest first"
+    )
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<Map<String, Object>>> getDeadLetters() {
+        return ResponseEntity.ok(dispatcher.getDeadLetters());
+    }
+    
+    @Operation(summary = "Queue a dead-lettered notification again with a fresh set of retries")
+    @PostMapping("/dead-letters/{id}/retry")
+    public ResponseEntity<Map<String, Object>> retryDeadLetter(@PathVariable long id) {
+        if (!dispatcher.retryDeadLetter(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "requeued");
+        response.put("id", id);
+        return ResponseEntity.ok(response);
+    }
+    
+    @Operation(summary = "Drop all dead-lettered notifications")
+    @DeleteMapping("/dead-letters")
+    public ResponseEntity<Map<String, Object>> clearDeadLetters() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "cleared");
+        response.put("cleared", dispatcher.clearDeadLetters());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,56 @@
+package com.signalroot.controller;
+
+import com.signalroot.service.WebhookReplayDriver;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/replay")
+@ConditionalOnProperty(name = "signalroot.replay.enabled", havingValue = "true")
+@Tag(name = "replay", description = "Replay recorded webhook traffic for capacity testing")
+public class ReplayController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplayController.class);
+    
+    @Autowired
+    private WebhookReplayDriver replayDriver;
+    
+    @Operation(
+            summary = "Replay a recorded NDJSON webhook stream",
+            description = "Drives the request body through the inbound pipeline at a fixed rate or at the recorded pacing " +
+                          "scaled by speed, and reports throughput and latency percentiles per source"
+    )
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> replay(
+            @RequestParam(defaultValue = "0") double rate,
+            @RequestParam(defaultValue = "1.0") double speed,
+            @RequestParam(defaultValue = "8") int concurrency,
+            @RequestParam(required = false) String orgKey,
+            @RequestParam(defaultValue = "0") int limit,
+            HttpServletRequest request) {
+        
+        try {
+            WebhookReplayDriver.Options options = new WebhookReplayDriver.Options(rate, speed, concurrency, orgKey, limit);
+            return ResponseEntity.ok(replayDriver.replay(request.getInputStream(), options));
+            
+        } catch (Exception e) {
+            logger.error("Webhook replay failed", e);
+            
+            Map<String, Object> error = new HashMap<>();
+            error.put("status", "error");
+            error.put("message", "Replay failed: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(error);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.signalroot.controller;
 
 import com.signalroot.service.IdempotencyService;
+import com.signalroot.service.IngestRateLimiter;
+import com.signalroot.service.KeyedLaneExecutor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -26,6 +28,12 @@ public class SafetyController {
     @Autowired
     private IdempotencyService idempotencyService;
     
+    @Autowired
+    private IngestRateLimiter rateLimiter;
+    
+    @Autowired
+    private KeyedLaneExecutor lanes;
+    
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getSafetyStats() {
         Map<String, Object> stats = new HashMap<>();
@@ -35,9 +43,36 @@ public class SafetyController {
         stats.put("idempotency", Map.of(
             "processedWebhooks", idempotencyStats.processedWebhooks,
             "activeNotifications", idempotencyStats.activeNotifications,
-            "alertToIncidentMappings", idempotencyStats.alertToIncidentMappings
+            "alertToIncidentMappings", idempotencyStats.alertToIncidentMappings,
+            "capacity", idempotencyStats.capacity,
+            "memoryBytes", idempotencyStats.memoryBytes,
+            "webhookCollisionRate", idempotencyStats.webhookCollisionRate,
+            "evictions", idempotencyStats.evictions
+        ));
+        
+        stats.put("backend", Map.of(
+            "type", idempotencyStats.backend,
+            "nearCacheHits", idempotencyStats.nearCacheHits,
+            "sharedClaims", idempotencyStats.sharedClaims
         ));
         
+        stats.put("leases", Map.of(
+            "acquired", idempotencyStats.acquired,
+            "duplicates", idempotencyStats.duplicates,
+            "inFlight", idempotencyStats.inFlight,
+            "failed", idempotencyStats.failedLeases
+        ));
+        
+        stats.put("expiry", Map.of(
+            "expirations", idempotencyStats.expirations,
+            "expirationsPerSecond", idempotencyStats.expirationsPerSecond,
+            "wheelLagMillis", idempotencyStats.wheelLagMillis,
+            "wheelPending", idempotencyStats.wheelPending
+        ));
+        
+        stats.put("rateLimits", rateLimiter.getStats());
+        stats.put("lanes", lanes.getStats());
+        
         stats.put("status", "healthy");
         stats.put("timestamp", System.currentTimeMillis());
         
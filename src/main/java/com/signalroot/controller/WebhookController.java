@@ -20,6 +20,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+import java.util.Objects;
+
 @RestController
 @RequestMapping("/webhooks")
 @Tag(name = "webhooks", description = "Webhook processing and management")
@@ -42,7 +45,9 @@ public class WebhookController {
         
         try {
             alertService.processPagerDutyAlert(webhook);
-            correlationService.processAlert(webhook.getPayload().getIncident().getId(), "pagerduty");
+            PagerDutyWebhookDTO.Payload.Incident incident = webhook.getPayload().getIncident();
+            correlationService.processAlert(incident.getId(), "pagerduty", incident.getService().getName(),
+                incident.getTitle(), incident.getSeverity().name());
             return ResponseEntity.ok("Alert processed successfully");
         } catch (Exception e) {
             logger.error("Error processing PagerDuty alert", e);
@@ -56,7 +61,10 @@ public class WebhookController {
         
         try {
             alertService.processCloudWatchAlert(webhook);
-            correlationService.processAlert(webhook.getId(), "cloudwatch");
+            Map<String, Object> detail = webhook.getDetail() != null ? webhook.getDetail() : Map.of();
+            String alarmName = Objects.toString(detail.get("alarmName"), webhook.getId());
+            correlationService.processAlert(webhook.getId(), "cloudwatch", alarmName.split("-")[0].toLowerCase(),
+                alarmName, "HIGH");
             return ResponseEntity.ok("Alert processed successfully");
         } catch (Exception e) {
             logger.error("Error processing CloudWatch alert", e);
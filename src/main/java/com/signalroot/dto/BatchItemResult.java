@@ -0,0 +1,38 @@
+package com.signalroot.dto;
+
+/**
+ * Per-record outcome returned by the batch ingest endpoints.
+ */
+public record BatchItemResult(int index, String externalId, String status, String message) {
+
+    public static final String PROCESSED = "processed";
+    public static final String DUPLICATE = "duplicate";
+    public static final String COALESCED = "coalesced";
+    public static final String UPDATED = "updated";
+    public static final String INVALID = "invalid";
+    public static final String FAILED = "failed";
+
+    public static BatchItemResult processed(int index, String externalId) {
+        return new BatchItemResult(index, externalId, PROCESSED, null);
+    }
+
+    public static BatchItemResult duplicate(int index, String externalId) {
+        return new BatchItemResult(index, externalId, DUPLICATE, null);
+    }
+
+    public static BatchItemResult coalesced(int index, String externalId) {
+        return new BatchItemResult(index, externalId, COALESCED, null);
+    }
+
+    public static BatchItemResult updated(int index, String externalId) {
+        return new BatchItemResult(index, externalId, UPDATED, null);
+    }
+
+    public static BatchItemResult invalid(int index, String message) {
+        return new BatchItemResult(index, null, INVALID, message);
+    }
+
+    public static BatchItemResult failed(int index, String externalId, String message) {
+        return new BatchItemResult(index, externalId, FAILED, message);
+    }
+}
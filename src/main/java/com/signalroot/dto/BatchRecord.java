@@ -0,0 +1,19 @@
+package com.signalroot.dto;
+
+/**
+ * One record of a batch ingest body: either the extracted event or the reason it was rejected.
+ */
+public record BatchRecord<T>(int index, T event, String error) {
+
+    public static <T> BatchRecord<T> of(int index, T event) {
+        return new BatchRecord<>(index, event, null);
+    }
+
+    public static <T> BatchRecord<T> invalid(int index, String error) {
+        return new BatchRecord<>(index, null, error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
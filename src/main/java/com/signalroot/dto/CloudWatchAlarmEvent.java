@@ -0,0 +1,22 @@
+package com.signalroot.dto;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Fields of a CloudWatch alarm state-change event that the inbound pipeline actually uses.
+ */
+public record CloudWatchAlarmEvent(
+        String id,
+        String alarmName,
+        String state) {
+
+    @SuppressWarnings("unchecked")
+    public static CloudWatchAlarmEvent fromMap(Map<String, Object> payload) {
+        Map<String, Object> detail = (Map<String, Object>) payload.get("detail");
+        return new CloudWatchAlarmEvent(
+            Objects.toString(payload.get("id"), null),
+            Objects.toString(detail.get("alarmName"), null),
+            Objects.toString(detail.get("state"), null));
+    }
+}
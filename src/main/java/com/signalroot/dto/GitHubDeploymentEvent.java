@@ -0,0 +1,28 @@
+package com.signalroot.dto;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Fields of a GitHub deployment webhook that the inbound pipeline actually uses.
+ */
+public record GitHubDeploymentEvent(
+        String deploymentId,
+        String environment,
+        String state,
+        String createdAt,
+        String repositoryName) {
+
+    @SuppressWarnings("unchecked")
+    public static GitHubDeploymentEvent fromMap(Map<String, Object> payload) {
+        Map<String, Object> deployment = (Map<String, Object>) payload.get("deployment");
+        Map<String, Object> status = (Map<String, Object>) deployment.get("status");
+        Map<String, Object> repository = (Map<String, Object>) payload.get("repository");
+        return new GitHubDeploymentEvent(
+            Objects.toString(deployment.get("id"), null),
+            Objects.toString(deployment.get("environment"), null),
+            status == null ? null : Objects.toString(status.get("state"), null),
+            Objects.toString(deployment.get("created_at"), null),
+            repository == null ? null : Objects.toString(repository.get("name"), null));
+    }
+}
@@ -0,0 +1,32 @@
+package com.signalroot.dto;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Fields of a Jenkins build notification that the inbound pipeline actually uses.
+ */
+public record JenkinsBuildEvent(
+        String buildNumber,
+        String timestamp,
+        String status,
+        String artifactVersion,
+        String jobName) {
+
+    public String externalId() {
+        return buildNumber + "-" + timestamp;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static JenkinsBuildEvent fromMap(Map<String, Object> payload) {
+        Map<String, Object> build = (Map<String, Object>) payload.get("build");
+        Map<String, Object> artifact = (Map<String, Object>) build.get("artifact");
+        Map<String, Object> job = (Map<String, Object>) payload.get("job");
+        return new JenkinsBuildEvent(
+            Objects.toString(build.get("number"), null),
+            Objects.toString(build.get("timestamp"), null),
+            Objects.toString(build.get("status"), null),
+            artifact == null ? null : Objects.toString(artifact.get("version"), null),
+            job == null ? null : Objects.toString(job.get("name"), null));
+    }
+}
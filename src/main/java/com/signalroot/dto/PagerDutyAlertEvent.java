@@ -0,0 +1,31 @@
+package com.signalroot.dto;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Fields of a PagerDuty incident webhook that the inbound pipeline actually uses.
+ */
+public record PagerDutyAlertEvent(
+        String webhookId,
+        String incidentId,
+        String title,
+        String severity,
+        String status,
+        String serviceName,
+        String occurredAt) {
+
+    @SuppressWarnings("unchecked")
+    public static PagerDutyAlertEvent fromMap(Map<String, Object> payload) {
+        Map<String, Object> incident = (Map<String, Object>) payload.get("incident");
+        Map<String, Object> service = (Map<String, Object>) incident.get("service");
+        return new PagerDutyAlertEvent(
+            Objects.toString(payload.get("webhookId"), null),
+            Objects.toString(incident.get("id"), null),
+            Objects.toString(incident.get("title"), null),
+            Objects.toString(incident.get("severity"), null),
+            Objects.toString(incident.get("status"), null),
+            service == null ? null : Objects.toString(service.get("name"), null),
+            Objects.toString(payload.getOrDefault("occurredAt", incident.get("last_status_change_at")), null));
+    }
+}
@@ -42,13 +42,24 @@ public class Alert {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    // Firings coalesced into this alert, including the first
+    @Column(name = "occurrence_count", nullable = false, columnDefinition = "INTEGER DEFAULT 1")
+    private int occurrenceCount = 1;
+    
+    @Column(name = "last_seen_at")
+    private LocalDateTime lastSeenAt;
+    
+    // Timestamp of the newest lifecycle event applied; older events are rejected
+    @Column(name = "last_event_at")
+    private LocalDateTime lastEventAt;
+    
     // Enums
     public enum AlertSeverity {
         CRITICAL, HIGH, MEDIUM, LOW
     }
     
     public enum AlertStatus {
-        FIRING, RESOLVED
+        FIRING, ACKNOWLEDGED, RESOLVED
     }
     
     // Constructors
@@ -151,4 +162,28 @@ public class Alert {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+    
+    public int getOccurrenceCount() {
+        return occurrenceCount;
+    }
+    
+    public void setOccurrenceCount(int occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+    
+    public LocalDateTime getLastSeenAt() {
+        return lastSeenAt;
+    }
+    
+    public void setLastSeenAt(LocalDateTime lastSeenAt) {
+        this.lastSeenAt = lastSeenAt;
+    }
+    
+    public LocalDateTime getLastEventAt() {
+        return lastEventAt;
+    }
+    
+    public void setLastEventAt(LocalDateTime lastEventAt) {
+        this.lastEventAt = lastEventAt;
+    }
 }
@@ -45,6 +45,10 @@ public class Incident {
     @Column(name = "started_at", nullable = false)
     private LocalDateTime startedAt;
     
+    // Some enrichment lookups missed the correlation deadline
+    @Column(name = "partial", nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean partial;
+    
     @PrePersist
     protected void onCreate() {
         if (id == null) {
@@ -145,6 +149,14 @@ public class Incident {
         this.startedAt = startedAt;
     }
     
+    public boolean isPartial() {
+        return partial;
+    }
+    
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+    
     public enum IncidentStatus {
         ACTIVE, RESOLVED, ACKNOWLEDGED
     }
@@ -5,7 +5,8 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "services")
+@Table(name = "services", uniqueConstraints = @UniqueConstraint(
+    name = "uk_services_organization_name", columnNames = {"organization_id", "name"}))
 public class Service {
     
     @Id
@@ -46,6 +47,10 @@ public class Service {
         this.id = id;
     }
     
+    public String getName() {
+        return name;
+    }
+    
     public void setName(String name) {
         this.name = name;
     }
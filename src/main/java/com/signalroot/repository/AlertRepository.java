@@ -3,9 +3,11 @@ package com.signalroot.repository;
 import com.signalroot.entity.Alert;
 import com.signalroot.entity.Service;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,7 +18,7 @@ import java.util.UUID;
 public interface AlertRepository extends JpaRepository<Alert, UUID> {
     Optional<Alert> findByExternalIdAndSource(String externalId, String source);
     
-    List<Alert> findByServiceAndStatusOrderByReceivedAtDesc(Service service, Alert.AlertStatus status);
+    List<Alert> findByServiceAndStatusOrderByStartedAtDesc(Service service, Alert.AlertStatus status);
     
     @Query("SELECT a FROM Alert a WHERE a.service = :service AND a.severity = :severity " +
            "AND a.createdAt >= :since ORDER BY a.createdAt DESC")
@@ -24,5 +26,12 @@ public interface AlertRepository extends JpaRepository<Alert, UUID> {
                                  @Param("severity") Alert.AlertSeverity severity,
                                  @Param("since") LocalDateTime since);
     
-    List<Alert> findByServiceOrderByReceivedAtDesc(Service service);
+    List<Alert> findByServiceOrderByStartedAtDesc(Service service);
+    
+    // Coalesced repeat firings of a stored alert (see AlertStormCoalescer)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Alert a SET a.occurrenceCount = a.occurrenceCount + :repeats, a.lastSeenAt = :lastSeen, " +
+           "a.updatedAt = :lastSeen WHERE a.id = :id")
+    int recordRepeats(@Param("id") UUID id, @Param("repeats") int repeats, @Param("lastSeen") LocalDateTime lastSeen);
 }
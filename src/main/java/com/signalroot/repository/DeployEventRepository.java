@@ -27,4 +27,8 @@ public interface DeployEventRepository extends JpaRepository<DeployEvent, UUID>
                                                      @Param("since") LocalDateTime since);
     
     List<DeployEvent> findByServiceOrderByStartedAtDesc(Service service);
+    
+    @Query("SELECT d FROM DeployEvent d JOIN FETCH d.service JOIN FETCH d.organization " +
+           "WHERE d.startedAt >= :since ORDER BY d.startedAt ASC")
+    List<DeployEvent> findAllStartedSince(@Param("since") LocalDateTime since);
 }
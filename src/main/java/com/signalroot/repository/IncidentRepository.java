@@ -23,19 +23,21 @@ public interface IncidentRepository extends JpaRepository<Incident, UUID> {
     
     Optional<Incident> findByAlert(Alert alert);
     
+    List<Incident> findTop20ByServiceAndSeverityOrderByStartedAtDesc(Service service, Alert.AlertSeverity severity);
+    
     @Query("SELECT i FROM Incident i WHERE i.service = :service AND i.severity = :severity " +
            "ORDER BY i.startedAt DESC")
     List<Incident> findByServiceAndSeverityOrderByStartedAtDesc(@Param("service") Service service, 
                                                               @Param("severity") Alert.AlertSeverity severity);
     
     @Query("SELECT i FROM Incident i WHERE i.service = :service AND i.severity = :severity " +
-           "AND i.status != 'RESOLVED' AND i.createdAt >= :since ORDER BY i.createdAt DESC")
+           "AND i.status != 'RESOLVED' AND i.startedAt >= :since ORDER BY i.startedAt DESC")
     List<Incident> findSimilarActiveIncidents(@Param("service") Service service, 
                                             @Param("severity") Alert.AlertSeverity severity,
                                             @Param("since") LocalDateTime since);
     
     @Query("SELECT i FROM Incident i WHERE i.service = :service AND i.severity = :severity " +
-           "AND i.createdAt >= :since ORDER BY i.createdAt DESC")
+           "AND i.startedAt >= :since ORDER BY i.startedAt DESC")
     List<Incident> findSimilarIncidents(@Param("service") Service service, 
                                        @Param("severity") Alert.AlertSeverity severity,
                                        @Param("since") LocalDateTime since);
@@ -0,0 +1,13 @@
+package com.signalroot.service;
+
+/**
+ * Outcome of {@link IdempotencyService#tryAcquire(String, String)}.
+ */
+public enum AcquireResult {
+    /** The caller holds the lease and must complete or fail it */
+    ACQUIRED,
+    /** The event was already processed inside its window */
+    DUPLICATE,
+    /** Another worker holds an unexpired lease for the event */
+    IN_FLIGHT
+}
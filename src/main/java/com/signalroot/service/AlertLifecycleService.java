@@ -0,0 +1,80 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Alert;
+import com.signalroot.entity.Incident;
+import com.signalroot.entity.Organization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Applies lifecycle events (triggered, acknowledged, resolved) to an existing
+ * alert and its incident in place.
+ *
+ * One statement per event: a data-modifying CTE updates the alert keyed by
+ * (organization, source, external id) only if the event is newer than the
+ * last one applied, then updates the incident opened for that alert. Older
+ * events arriving late are rejected by that timestamp check, and a redelivered
+ * event is a no-op for the same reason.
+ */
+@Service
+@ConditionalOnProperty(name = "signalroot.service.mode", havingValue = "real")
+public class AlertLifecycleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertLifecycleService.class);
+
+    private static final String TRANSITION_SQL =
+        "WITH a AS (" +
+        "  UPDATE alerts SET status = ?, last_event_at = ?, updated_at = now() " +
+        "  WHERE organization_id = ? AND source = ? AND external_id = ? " +
+        "    AND (last_event_at IS NULL OR last_event_at < ?) " +
+        "  RETURNING id" +
+        "), i AS (" +
+        "  UPDATE incidents SET status = ? WHERE alert_id IN (SELECT id FROM a) RETURNING id" +
+        ") " +
+        "SELECT (SELECT count(*) FROM a) AS alerts, (SELECT count(*) FROM i) AS incidents, " +
+        "  EXISTS (SELECT 1 FROM alerts WHERE organization_id = ? AND source = ? AND external_id = ?) AS known";
+
+    public enum Transition {
+        APPLIED, STALE, NOT_FOUND
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Transition apply(Organization organization, String source, String externalId,
+                            Alert.AlertStatus status, LocalDateTime occurredAt) {
+        Timestamp eventTime = Timestamp.valueOf(occurredAt);
+
+        return jdbcTemplate.queryForObject(TRANSITION_SQL, (rs, rowNum) -> {
+            long alerts = rs.getLong("alerts");
+            long incidents = rs.getLong("incidents");
+            if (alerts > 0) {
+                logger.info("🔁 {} alert {} moved to {} ({} incident updated)", source, externalId, status, incidents);
+                return Transition.APPLIED;
+            }
+            if (rs.getBoolean("known")) {
+                logger.info("Ignoring out-of-order {} event for {} alert {} at {}", status, source, externalId, occurredAt);
+                return Transition.STALE;
+            }
+            return Transition.NOT_FOUND;
+        },
+            status.name(), eventTime, organization.getId(), source, externalId, eventTime,
+            incidentStatus(status).name(),
+            organization.getId(), source, externalId);
+    }
+
+    static Incident.IncidentStatus incidentStatus(Alert.AlertStatus status) {
+        return switch (status) {
+            case RESOLVED -> Incident.IncidentStatus.RESOLVED;
+            case ACKNOWLEDGED -> Incident.IncidentStatus.ACKNOWLEDGED;
+            default -> Incident.IncidentStatus.ACTIVE;
+        };
+    }
+}
@@ -0,0 +1,215 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Alert;
+import com.signalroot.entity.Organization;
+import com.signalroot.repository.AlertRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces repeat firings of the same alarm into the first alert.
+ *
+ * The first firing for (organization, source, service id, title) stores an alert
+ * as usual and opens a window. Further firings inside the window only bump a
+ * counter; a sweeper thread writes the counter and last-seen time onto the
+ * stored alert every few seconds, and logs a "storm suppressed N events"
+ * summary once the window closes. The next firing after that opens a new alert.
+ * Callers only pass firings (CloudWatch ALARM) through absorb(); state changes
+ * such as OK or INSUFFICIENT_DATA must always be stored.
+ */
+@Service
+@ConditionalOnProperty(name = "signalroot.service.mode", havingValue = "real")
+public class AlertStormCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertStormCoalescer.class);
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${signalroot.alerts.storm.window-seconds:600}")
+    private long windowSeconds = 600;
+
+    @Value("${signalroot.alerts.storm.flush-seconds:5}")
+    private long flushSeconds = 5;
+
+    private final Map<StormKey, Storm> storms = new ConcurrentHashMap<>();
+    // Storms replaced by a new window before the sweeper saw them close
+    private final Queue<Storm> closed = new ConcurrentLinkedQueue<>();
+    private ScheduledExecutorService sweeper;
+    private Counter suppressedCounter;
+    private Counter stormCounter;
+
+    @PostConstruct
+    public void start() {
+        suppressedCounter = Counter.builder("signalroot.alerts.storm.suppressed")
+            .description("Alert firings coalesced into an existing alert")
+            .register(meterRegistry);
+        stormCounter = Counter.builder("signalroot.alerts.storm.closed")
+            .description("Coalescing windows that closed with suppressed firings")
+            .register(meterRegistry);
+        Gauge.builder("signalroot.alerts.storm.open", storms, Map::size).register(meterRegistry);
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alert-storm-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        // Write out pending counts so they are not lost on shutdown
+        sweep();
+    }
+
+    /**
+     * Returns true if the firing was absorbed by an open window. Otherwise the caller
+     * leads a new window and must report the stored alert with opened(), or abandon()
+     * it if storing fails.
+     */
+    public boolean absorb(Organization organization, String source, UUID serviceId, String title) {
+        long now = System.currentTimeMillis();
+        StormKey key = new StormKey(organization.getId(), source, serviceId, title);
+        boolean[] absorbed = {false};
+
+        storms.compute(key, (k, storm) -> {
+            if (storm != null && now < storm.windowEndsAt) {
+                storm.repeat(now);
+                absorbed[0] = true;
+                return storm;
+            }
+            if (storm != null) {
+                closed.add(storm);
+            }
+            return new Storm(k, now, now + TimeUnit.SECONDS.toMillis(windowSeconds));
+        });
+
+        if (absorbed[0]) {
+            suppressedCounter.increment();
+        }
+        return absorbed[0];
+    }
+
+    public void opened(Alert alert) {
+        Storm storm = storms.get(keyOf(alert));
+        if (storm != null && storm.alertId == null) {
+            storm.alertId = alert.getId();
+        }
+    }
+
+    public void abandon(Alert alert) {
+        StormKey key = keyOf(alert);
+        Storm storm = storms.get(key);
+        if (storm != null && storm.alertId == null && storms.remove(key, storm) && storm.suppressed.get() > 0) {
+            logger.warn("Dropped {} coalesced firings of {} because the first alert was not stored",
+                       storm.suppressed.get(), key.title());
+        }
+    }
+
+    void sweep() {
+        long now = System.currentTimeMillis();
+        for (Storm storm : storms.values()) {
+            if (now >= storm.windowEndsAt && storms.remove(storm.key, storm)) {
+                close(storm);
+            } else {
+                flush(storm);
+            }
+        }
+
+        Storm storm;
+        while ((storm = closed.poll()) != null) {
+            close(storm);
+        }
+    }
+
+    private void close(Storm storm) {
+        flush(storm);
+        int suppressed = storm.suppressed.get();
+        if (suppressed > 0) {
+            stormCounter.increment();
+            logger.warn("🌪️ Storm suppressed {} events: {} on service {} ({}) for organization {} over {}s",
+                       suppressed, storm.key.title(), storm.key.serviceId(), storm.key.source(),
+                       storm.key.organizationId(), TimeUnit.MILLISECONDS.toSeconds(storm.lastSeenAt - storm.openedAt));
+        }
+    }
+
+    private void flush(Storm storm) {
+        UUID alertId = storm.alertId;
+        if (alertId == null) {
+            return;
+        }
+        int repeats = storm.unflushed.getAndSet(0);
+        if (repeats == 0) {
+            return;
+        }
+        try {
+            LocalDateTime lastSeen = LocalDateTime.ofInstant(Instant.ofEpochMilli(storm.lastSeenAt), ZoneId.systemDefault());
+            alertRepository.recordRepeats(alertId, repeats, lastSeen);
+        } catch (Exception e) {
+            // Retry on the next sweep
+            storm.unflushed.addAndGet(repeats);
+            logger.warn("Failed to record {} repeat firings on alert {}: {}", repeats, alertId, e.toString());
+        }
+    }
+
+    // Only ids are read, so unloaded service and organization references are fine
+    private static StormKey keyOf(Alert alert) {
+        return new StormKey(alert.getOrganization().getId(), alert.getSource(), alert.getService().getId(), alert.getTitle());
+    }
+
+    private record StormKey(UUID organizationId, String source, UUID serviceId, String title) {
+    }
+
+    private static final class Storm {
+        private final StormKey key;
+        private final long openedAt;
+        private final long windowEndsAt;
+        private final AtomicInteger suppressed = new AtomicInteger();
+        private final AtomicInteger unflushed = new AtomicInteger();
+        private volatile long lastSeenAt;
+        private volatile UUID alertId;
+
+        Storm(StormKey key, long openedAt, long windowEndsAt) {
+            this.key = key;
+            this.openedAt = openedAt;
+            this.windowEndsAt = windowEndsAt;
+            this.lastSeenAt = openedAt;
+        }
+
+        // Called inside ConcurrentHashMap.compute, so repeats for one key are serialized
+        void repeat(long now) {
+            suppressed.incrementAndGet();
+            unflushed.incrementAndGet();
+            lastSeenAt = Math.max(lastSeenAt, now);
+        }
+    }
+}
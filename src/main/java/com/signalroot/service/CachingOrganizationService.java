@@ -0,0 +1,290 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Organization;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches organization lookups in front of another OrganizationServiceInterface
+ * (the database one in real mode), since every inbound webhook starts with one.
+ * Loaded organizations live in a TenantRegistry, so lookups by key, id,
+ * webhook secret and Slack workspace id are all served from memory.
+ *
+ * Entries older than the TTL are still served while a background thread
+ * reloads them. Unknown keys are cached as absent for a shorter TTL so probes
+ * with random keys do not reach the database; those entries are bounded LRU.
+ * Writes through this service invalidate the affected key. Other replicas
+ * only see a change once their TTL runs out.
+ */
+public class CachingOrganizationService implements OrganizationServiceInterface {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingOrganizationService.class);
+
+    private final OrganizationServiceInterface delegate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${signalroot.organizations.cache.ttl-seconds:300}")
+    private long ttlSeconds = 300;
+
+    @Value("${signalroot.organizations.cache.negative-ttl-seconds:30}")
+    private long negativeTtlSeconds = 30;
+
+    @Value("${signalroot.organizations.cache.max-negative-entries:10000}")
+    private int maxNegativeEntries = 10000;
+
+    private final TenantRegistry registry = new TenantRegistry();
+    private final Map<UUID, Long> loadedAt = new ConcurrentHashMap<>();
+    private final Set<UUID> refreshing = ConcurrentHashMap.newKeySet();
+    private Map<String, Long> absentKeys;
+
+    private long ttlNanos;
+    private long negativeTtlNanos;
+    private ThreadPoolExecutor refresher;
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter negativeHitCounter;
+    private Counter refreshCounter;
+
+    public CachingOrganizationService(OrganizationServiceInterface delegate) {
+        this.delegate = delegate;
+    }
+
+    @PostConstruct
+    public void init() {
+        ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        negativeTtlNanos = TimeUnit.SECONDS.toNanos(negativeTtlSeconds);
+        absentKeys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxNegativeEntries;
+            }
+        };
+
+        // One thread is plenty for a handful of reloads per TTL; extra refreshes are dropped, not queued
+        refresher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(64), runnable -> {
+            Thread thread = new Thread(runnable, "organization-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        hitCounter = Counter.builder("signalroot.organizations.cache.hits").register(meterRegistry);
+        missCounter = Counter.builder("signalroot.organizations.cache.misses").register(meterRegistry);
+        negativeHitCounter = Counter.builder("signalroot.organizations.cache.negative-hits")
+            .description("Lookups of unknown organization keys answered from the cache")
+            .register(meterRegistry);
+        refreshCounter = Counter.builder("signalroot.organizations.cache.refreshes").register(meterRegistry);
+        Gauge.builder("signalroot.organizations.cache.size", registry, TenantRegistry::size).register(meterRegistry);
+
+        logger.info("Organization lookups cached for {}s ({}s for unknown keys)", ttlSeconds, negativeTtlSeconds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    public Organization findByOrganizationKey(String organizationKey) {
+        long now = System.nanoTime();
+
+        Organization cached = registry.byKey(organizationKey);
+        if (cached != null) {
+            hitCounter.increment();
+            refreshIfStale(cached, now);
+            return cached;
+        }
+
+        if (isKnownAbsent(organizationKey, now)) {
+            negativeHitCounter.increment();
+            return null;
+        }
+
+        missCounter.increment();
+        Organization organization = delegate.findByOrganizationKey(organizationKey);
+        if (organization == null) {
+            synchronized (absentKeys) {
+                absentKeys.put(organizationKey, System.nanoTime());
+            }
+            return null;
+        }
+        return cache(organization);
+    }
+
+    public Organization findByWebhookSecret(String webhookSecret) {
+        Organization cached = registry.byWebhookSecret(webhookSecret);
+        if (cached != null) {
+            hitCounter.increment();
+            refreshIfStale(cached, System.nanoTime());
+            return cached;
+        }
+        missCounter.increment();
+        return cache(delegate.findByWebhookSecret(webhookSecret));
+    }
+
+    public Organization findBySlackWorkspaceId(String slackWorkspaceId) {
+        Organization cached = registry.bySlackWorkspaceId(slackWorkspaceId);
+        if (cached != null) {
+            hitCounter.increment();
+            refreshIfStale(cached, System.nanoTime());
+            return cached;
+        }
+        missCounter.increment();
+        return cache(delegate.findBySlackWorkspaceId(slackWorkspaceId));
+    }
+
+    public Organization createOrganization(String name) {
+        Organization created = delegate.createOrganization(name);
+        forgetAbsent(created.getOrganizationKey());
+        return created;
+    }
+
+    public Organization findById(UUID id) {
+        Organization cached = registry.byId(id);
+        if (cached != null) {
+            hitCounter.increment();
+            refreshIfStale(cached, System.nanoTime());
+            return cached;
+        }
+        missCounter.increment();
+        return cache(delegate.findById(id));
+    }
+
+    public List<Organization> findAll() {
+        return delegate.findAll();
+    }
+
+    public Organization updateOrganization(UUID id, String name) {
+        return invalidateAfter(id, delegate.updateOrganization(id, name));
+    }
+
+    public void deleteOrganization(UUID id) {
+        delegate.deleteOrganization(id);
+        invalidate(id);
+    }
+
+    public boolean existsByOrganizationKey(String organizationKey) {
+        return delegate.existsByOrganizationKey(organizationKey);
+    }
+
+    public Organization connectSlack(UUID organizationId, String accessToken, String workspaceId, String workspaceName) {
+        return invalidateAfter(organizationId, delegate.connectSlack(organizationId, accessToken, workspaceId, workspaceName));
+    }
+
+    public Organization disconnectSlack(UUID organizationId) {
+        return invalidateAfter(organizationId, delegate.disconnectSlack(organizationId));
+    }
+
+    public Organization updateSlackChannel(UUID organizationId, String channel) {
+        return invalidateAfter(organizationId, delegate.updateSlackChannel(organizationId, channel));
+    }
+
+    private Organization cache(Organization organization) {
+        if (organization != null) {
+            synchronized (registry) {
+                registry.put(organization);
+                loadedAt.put(organization.getId(), System.nanoTime());
+            }
+        }
+        return organization;
+    }
+
+    private void refreshIfStale(Organization cached, long now) {
+        Long cachedAt = loadedAt.get(cached.getId());
+        if (cachedAt != null && now - cachedAt < ttlNanos) {
+            return;
+        }
+        if (!refreshing.add(cached.getId())) {
+            return;
+        }
+        try {
+            refresher.execute(() -> refresh(cached));
+        } catch (RejectedExecutionException e) {
+            // Serve the stale entry; the next lookup tries again
+            refreshing.remove(cached.getId());
+        }
+    }
+
+    private void refresh(Organization cached) {
+        UUID id = cached.getId();
+        try {
+            refreshCounter.increment();
+            Organization organization = delegate.findById(id);
+            synchronized (registry) {
+                // Skip if the entry was invalidated while reloading
+                if (registry.byId(id) != cached) {
+                    return;
+                }
+                if (organization == null) {
+                    registry.remove(id);
+                    loadedAt.remove(id);
+                } else {
+                    cache(organization);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to refresh organization {}, serving cached copy: {}", id, e.toString());
+        } finally {
+            refreshing.remove(id);
+        }
+    }
+
+    private Organization invalidateAfter(UUID organizationId, Organization updated) {
+        invalidate(organizationId);
+        if (updated != null) {
+            forgetAbsent(updated.getOrganizationKey());
+        }
+        return updated;
+    }
+
+    private void invalidate(UUID organizationId) {
+        Organization removed;
+        synchronized (registry) {
+            removed = registry.remove(organizationId);
+            loadedAt.remove(organizationId);
+        }
+        if (removed != null) {
+            forgetAbsent(removed.getOrganizationKey());
+        }
+    }
+
+    private boolean isKnownAbsent(String organizationKey, long now) {
+        synchronized (absentKeys) {
+            Long cachedAt = absentKeys.get(organizationKey);
+            if (cachedAt == null) {
+                return false;
+            }
+            if (now - cachedAt >= negativeTtlNanos) {
+                absentKeys.remove(organizationKey);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private void forgetAbsent(String organizationKey) {
+        synchronized (absentKeys) {
+            absentKeys.remove(organizationKey);
+        }
+    }
+}
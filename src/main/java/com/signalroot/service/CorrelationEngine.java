@@ -0,0 +1,370 @@
+package com.signalroot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Enriches a new incident with the deploy most likely to have caused it, the
+ * most similar past incident and a list of suggested checks.
+ *
+ * Deploys come from the DeployTimelineIndex and are ranked by how close they
+ * started to the alert and by their status. Similar incidents are the callers'
+ * candidates (same service and severity) ranked by title token overlap.
+ *
+ * The three lookups are independent, so they run concurrently on a dedicated
+ * pool and the caller waits at most the configured deadline for them. A lookup
+ * that misses the deadline (or fails) is left out and the result is flagged as
+ * partial, so the notification still goes out on time.
+ */
+@Service
+public class CorrelationEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorrelationEngine.class);
+
+    static final String STAGE_DEPLOY = "deploy";
+    static final String STAGE_SIMILAR = "similar";
+    static final String STAGE_CHECKS = "checks";
+
+    // Title keywords and the check each one suggests
+    private static final String[][] KEYWORD_CHECKS = {
+        {"cpu", "Check CPU saturation and autoscaling limits"},
+        {"memory", "Check memory usage, heap and OOM kills"},
+        {"oom", "Check memory usage, heap and OOM kills"},
+        {"latency", "Check downstream dependency latency and timeouts"},
+        {"timeout", "Check downstream dependency latency and timeouts"},
+        {"database", "Verify database connections and slow queries"},
+        {"db", "Verify database connections and slow queries"},
+        {"connection", "Verify connection pool saturation"},
+        {"disk", "Check disk usage and IOPS"},
+        {"5xx", "Break down 5xx responses by endpoint"},
+        {"error", "Break down error rates by endpoint"},
+        {"queue", "Check queue depth and consumer lag"},
+        {"redis", "Check Redis cache status and evictions"},
+        {"cache", "Check cache hit rate and evictions"}
+    };
+
+    @Autowired
+    private DeployTimelineIndex timelineIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Bounds the caller's wait, so it sits under the 20 ms per-alert p99 budget with room for assembly
+    @Value("${signalroot.correlation.deadline-millis:15}")
+    private long deadlineMillis = 15;
+
+    @Value("${signalroot.correlation.executor-threads:8}")
+    private int executorThreads = 8;
+
+    @Value("${signalroot.correlation.queue-capacity:256}")
+    private int queueCapacity = 256;
+
+    @Value("${signalroot.correlation.deploy-lookback-minutes:120}")
+    private long deployLookbackMinutes = 120;
+
+    @Value("${signalroot.correlation.similarity-threshold:0.3}")
+    private double similarityThreshold = 0.3;
+
+    private final Map<String, Timer> stageTimers = new LinkedHashMap<>();
+    private final Map<String, Counter> missedCounters = new LinkedHashMap<>();
+    private Timer totalTimer;
+    private Counter partialCounter;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        for (String stage : new String[] {STAGE_DEPLOY, STAGE_SIMILAR, STAGE_CHECKS}) {
+            stageTimers.put(stage, Timer.builder("signalroot.correlation.stage")
+                .description("Time spent in one correlation lookup")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+            missedCounters.put(stage, Counter.builder("signalroot.correlation.missed")
+                .description("Lookups left out because they missed the deadline or failed")
+                .tag("stage", stage)
+                .register(meterRegistry));
+        }
+        totalTimer = Timer.builder("signalroot.correlation.total")
+            .description("Time spent correlating one alert")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        partialCounter = Counter.builder("signalroot.correlation.partial")
+            .description("Correlations returned with partial enrichment")
+            .register(meterRegistry);
+
+        // Callers never queue behind a slow data source: a full pool rejects and the lookup is reported missed
+        executor = new ThreadPoolExecutor(executorThreads, executorThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new LookupThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy());
+        // Otherwise the first alerts after startup spend part of their deadline creating threads
+        executor.prestartAllCoreThreads();
+        Gauge.builder("signalroot.correlation.queue.depth", executor, e -> e.getQueue().size())
+            .description("Correlation lookups waiting for a thread")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Run all lookups for one alert concurrently and wait for them until the deadline.
+     * similarCandidates is called on the correlation pool, not the caller's thread.
+     */
+    public <T> Enrichment<T> correlate(String serviceKey, String serviceName, String title, String severity,
+                                       LocalDateTime alertTime, Supplier<List<T>> similarCandidates,
+                                       Function<T, String> titleOf) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        Map<String, Long> stageMicros = new ConcurrentHashMap<>();
+
+        CompletableFuture<RankedDeploy> deployLookup =
+            submit(STAGE_DEPLOY, () -> rankDeploys(serviceKey, alertTime), stageMicros);
+        CompletableFuture<T> similarLookup =
+            submit(STAGE_SIMILAR, () -> mostSimilar(title, similarCandidates.get(), titleOf), stageMicros);
+        CompletableFuture<List<String>> checksLookup =
+            submit(STAGE_CHECKS, () -> baselineChecks(serviceName, title, severity), stageMicros);
+
+        List<String> missed = new ArrayList<>();
+        RankedDeploy deploy = await(STAGE_DEPLOY, deployLookup, deadline, missed);
+        T similar = await(STAGE_SIMILAR, similarLookup, deadline, missed);
+        List<String> baseline = await(STAGE_CHECKS, checksLookup, deadline, missed);
+
+        // Assembled on the caller's thread from whatever arrived in time
+        String checks = suggestChecks(serviceName, deploy, similar != null ? titleOf.apply(similar) : null, baseline);
+
+        long totalNanos = System.nanoTime() - start;
+        totalTimer.record(totalNanos, TimeUnit.NANOSECONDS);
+        boolean partial = !missed.isEmpty();
+        if (partial) {
+            partialCounter.increment();
+            logger.warn("Correlation for {} missed its {} ms deadline, partial enrichment without {}",
+                       serviceKey, deadlineMillis, missed);
+        }
+
+        // Lookups finishing after the deadline do not show up in the result
+        Map<String, Long> timings = new LinkedHashMap<>(stageMicros);
+        timings.keySet().removeAll(missed);
+        return new Enrichment<>(deploy, similar, checks, timings, TimeUnit.NANOSECONDS.toMicros(totalNanos), partial, missed);
+    }
+
+    /**
+     * Pick the deploy most likely related to an alert at alertTime. Recent deploys
+     * score higher, failed or partial deploys higher than successful ones.
+     */
+    public RankedDeploy rankDeploys(String serviceKey, LocalDateTime alertTime) {
+        Duration lookback = Duration.ofMinutes(deployLookbackMinutes);
+        List<DeployTimelineIndex.Deploy> candidates = timelineIndex.deploysBefore(serviceKey, alertTime, lookback);
+
+        RankedDeploy best = null;
+        for (DeployTimelineIndex.Deploy deploy : candidates) {
+            long ageMillis = Duration.between(deploy.startedAt(), alertTime).toMillis();
+            double proximity = 1.0 - (double) ageMillis / lookback.toMillis();
+            double score = proximity * statusWeight(deploy.status());
+            if (best == null || score > best.score()) {
+                best = new RankedDeploy(deploy, score, Duration.ofMillis(ageMillis));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Candidate whose title shares the most tokens with the given title, if it clears the threshold.
+     */
+    public <T> T mostSimilar(String title, List<T> candidates, Function<T, String> titleOf) {
+        Set<String> tokens = tokenize(title);
+        T best = null;
+        double bestScore = similarityThreshold;
+
+        for (T candidate : candidates) {
+            double score = jaccard(tokens, tokenize(titleOf.apply(candidate)));
+            if (score >= bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks that only depend on the alert itself: severity and title keywords.
+     */
+    public List<String> baselineChecks(String serviceName, String title, String severity) {
+        List<String> checks = new ArrayList<>();
+        if ("CRITICAL".equalsIgnoreCase(severity) || "HIGH".equalsIgnoreCase(severity)) {
+            checks.add("Check " + serviceName + " health endpoints");
+        }
+
+        Set<String> tokens = tokenize(title);
+        for (String[] keywordCheck : KEYWORD_CHECKS) {
+            if (tokens.contains(keywordCheck[0]) && !checks.contains(keywordCheck[1])) {
+                checks.add(keywordCheck[1]);
+            }
+        }
+        return checks;
+    }
+
+    /**
+     * Numbered check list: deploy and similar incident first, then the baseline checks.
+     * Any of deploy, similarTitle and baseline may be missing.
+     */
+    public String suggestChecks(String serviceName, RankedDeploy deploy, String similarTitle, List<String> baseline) {
+        List<String> checks = new ArrayList<>();
+
+        if (deploy != null) {
+            DeployTimelineIndex.Deploy d = deploy.deploy();
+            checks.add(String.format("Review %s deploy %s (%s, %d mins before the alert)",
+                d.source(), d.version() != null ? d.version() : d.externalId(), d.status(), deploy.age().toMinutes()));
+            if ("FAILURE".equalsIgnoreCase(d.status()) || "PARTIAL".equalsIgnoreCase(d.status())) {
+                checks.add("Consider rolling back the last deploy of " + serviceName);
+            }
+        }
+        if (similarTitle != null) {
+            checks.add("Compare with the resolution of similar incident: " + similarTitle);
+        }
+        if (baseline != null) {
+            checks.addAll(baseline);
+        }
+        checks.add("Review recent " + serviceName + " error logs");
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < checks.size(); i++) {
+            if (i > 0) {
+                text.append('\n');
+            }
+            text.append(i + 1).append(". ").append(checks.get(i));
+        }
+        return text.toString();
+    }
+
+    private <R> CompletableFuture<R> submit(String stage, Supplier<R> lookup, Map<String, Long> stageMicros) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long stageStart = System.nanoTime();
+                R result = lookup.get();
+                stageMicros.put(stage, record(stage, stageStart));
+                return result;
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <R> R await(String stage, CompletableFuture<R> lookup, long deadline, List<String> missed) {
+        try {
+            return lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // The lookup keeps running to completion on the pool; its result is simply not used
+            logger.debug("Correlation {} lookup missed the deadline", stage);
+        } catch (ExecutionException e) {
+            logger.warn("Correlation {} lookup failed: {}", stage, e.getCause().toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        missedCounters.get(stage).increment();
+        missed.add(stage);
+        return null;
+    }
+
+    private long record(String stage, long stageStart) {
+        long nanos = System.nanoTime() - stageStart;
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static double statusWeight(String status) {
+        if (status == null) {
+            return 0.5;
+        }
+        return switch (status.toUpperCase(Locale.ROOT)) {
+            case "FAILURE", "FAILED", "ABORTED" -> 1.0;
+            case "PARTIAL", "UNSTABLE" -> 0.9;
+            case "IN_PROGRESS", "PENDING" -> 0.8;
+            case "SUCCESS" -> 0.7;
+            default -> 0.5;
+        };
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new HashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+            if (token.length() >= 2) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0.0;
+        }
+        int shared = 0;
+        for (String token : a) {
+            if (b.contains(token)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+
+    public record RankedDeploy(DeployTimelineIndex.Deploy deploy, double score, Duration age) {
+    }
+
+    /**
+     * Correlation output with per-lookup timings in microseconds. Lookups that missed
+     * the deadline are listed in missedStages and absent from stageMicros.
+     */
+    public record Enrichment<T>(RankedDeploy deploy, T similarIncident, String suggestedChecks,
+                                Map<String, Long> stageMicros, long totalMicros, boolean partial,
+                                List<String> missedStages) {
+    }
+
+    private static class LookupThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "correlation-lookup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -21,6 +21,9 @@ public class DatabaseOrganizationService implements OrganizationServiceInterface
     @Autowired
     private OrganizationRepository organizationRepository;
     
+    @Autowired
+    private ServiceResolver serviceResolver;
+    
     public Organization createOrganization(String name) {
         logger.info("Creating new organization: {}", name);
         
@@ -44,6 +47,14 @@ public class DatabaseOrganizationService implements OrganizationServiceInterface
         return organizationRepository.findById(id).orElse(null);
     }
     
+    public Organization findByWebhookSecret(String webhookSecret) {
+        return organizationRepository.findByWebhookSecret(webhookSecret).orElse(null);
+    }
+    
+    public Organization findBySlackWorkspaceId(String slackWorkspaceId) {
+        return organizationRepository.findBySlackWorkspaceId(slackWorkspaceId).orElse(null);
+    }
+    
     public List<Organization> findAll() {
         return organizationRepository.findAll();
     }
@@ -66,6 +77,7 @@ public class DatabaseOrganizationService implements OrganizationServiceInterface
         }
         
         organizationRepository.deleteById(id);
+        serviceResolver.evictOrganization(id);
         logger.info("Deleted organization: {}", id);
     }
     
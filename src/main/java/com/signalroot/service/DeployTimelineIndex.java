@@ -0,0 +1,223 @@
+package com.signalroot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory timeline of recent deploys per service, used by correlation to
+ * answer "what was deployed to this service shortly before the alert" without
+ * a database round trip.
+ *
+ * Each service keeps a fixed-size ring buffer ordered by start time; the
+ * oldest deploy is dropped when it is full. Window queries binary search the
+ * buffer, so a lookup is O(log n) in the deploys kept for that service.
+ */
+@Component
+public class DeployTimelineIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeployTimelineIndex.class);
+
+    @Value("${signalroot.correlation.timeline.capacity-per-service:128}")
+    private int capacityPerService = 128;
+
+    private final Map<String, Timeline> timelines = new ConcurrentHashMap<>();
+
+    /**
+     * Timeline key for a tenant service, identified by id.
+     */
+    public static String key(String organizationId, String service) {
+        return organizationId + ":" + service;
+    }
+
+    /**
+     * Timeline key for the mock flows, which are not organization-scoped. Every
+     * mock writer and reader goes through this, so a repository or job name and
+     * the service name an alert carries map to the same timeline.
+     */
+    public static String mockKey(String serviceName) {
+        return WebhookFieldMapper.serviceName(serviceName);
+    }
+
+    public void record(String serviceKey, Deploy deploy) {
+        timelines.computeIfAbsent(serviceKey, k -> new Timeline(capacityPerService)).add(deploy);
+        logger.debug("Indexed {} deploy {} for {}", deploy.source(), deploy.externalId(), serviceKey);
+    }
+
+    /**
+     * Deploys that started within window before the given time, newest first.
+     */
+    public List<Deploy> deploysBefore(String serviceKey, LocalDateTime time, Duration window) {
+        Timeline timeline = timelines.get(serviceKey);
+        if (timeline == null) {
+            return Collections.emptyList();
+        }
+        long to = toMillis(time);
+        return timeline.between(to - window.toMillis(), to);
+    }
+
+    /**
+     * Most recent deploy that started within window before the given time, or null.
+     */
+    public Deploy latestBefore(String serviceKey, LocalDateTime time, Duration window) {
+        Timeline timeline = timelines.get(serviceKey);
+        if (timeline == null) {
+            return null;
+        }
+        long to = toMillis(time);
+        return timeline.latest(to - window.toMillis(), to);
+    }
+
+    /**
+     * Most recent deploy recorded for the service, or null.
+     */
+    public Deploy latest(String serviceKey) {
+        Timeline timeline = timelines.get(serviceKey);
+        return timeline == null ? null : timeline.latest(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public int serviceCount() {
+        return timelines.size();
+    }
+
+    public int deployCount() {
+        int count = 0;
+        for (Timeline timeline : timelines.values()) {
+            count += timeline.size();
+        }
+        return count;
+    }
+
+    static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Indexed deploy. The id is the DeployEvent id where one exists (null for the mock GitHub flow).
+     */
+    public record Deploy(UUID id, String source, String externalId, String version, String status, LocalDateTime startedAt) {
+    }
+
+    /**
+     * Ring buffer of deploys sorted by start time. Logical index 0 is the oldest entry.
+     */
+    static final class Timeline {
+        private final long[] startedAt;
+        private final Deploy[] deploys;
+        private int head;
+        private int size;
+
+        Timeline(int capacity) {
+            startedAt = new long[capacity];
+            deploys = new Deploy[capacity];
+        }
+
+        synchronized void add(Deploy deploy) {
+            long time = toMillis(deploy.startedAt());
+            int capacity = deploys.length;
+
+            if (contains(time, deploy)) {
+                // Already indexed, e.g. by the startup warm-up
+                return;
+            }
+
+            if (size == capacity) {
+                if (time < startedAt[head]) {
+                    // Older than everything kept; not worth evicting a newer deploy for
+                    return;
+                }
+                head = (head + 1) % capacity;
+                size--;
+            }
+
+            // Deploys usually arrive in order, so this shifts nothing in the common case
+            int position = upperBound(time);
+            for (int i = size; i > position; i--) {
+                int to = physical(i);
+                int from = physical(i - 1);
+                startedAt[to] = startedAt[from];
+                deploys[to] = deploys[from];
+            }
+            startedAt[physical(position)] = time;
+            deploys[physical(position)] = deploy;
+            size++;
+        }
+
+        synchronized List<Deploy> between(long from, long to) {
+            int end = upperBound(to);
+            int start = lowerBound(from);
+            List<Deploy> result = new ArrayList<>(Math.max(0, end - start));
+            for (int i = end - 1; i >= start; i--) {
+                result.add(deploys[physical(i)]);
+            }
+            return result;
+        }
+
+        synchronized Deploy latest(long from, long to) {
+            int end = upperBound(to);
+            if (end == 0 || startedAt[physical(end - 1)] < from) {
+                return null;
+            }
+            return deploys[physical(end - 1)];
+        }
+
+        private boolean contains(long time, Deploy deploy) {
+            for (int i = lowerBound(time); i < size && startedAt[physical(i)] == time; i++) {
+                Deploy existing = deploys[physical(i)];
+                if (existing.source().equals(deploy.source()) && existing.externalId().equals(deploy.externalId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        // First logical index with startedAt >= time
+        private int lowerBound(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (startedAt[physical(mid)] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First logical index with startedAt > time
+        private int upperBound(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (startedAt[physical(mid)] <= time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int physical(int logical) {
+            return (head + logical) % deploys.length;
+        }
+    }
+}
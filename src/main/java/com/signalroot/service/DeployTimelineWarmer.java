@@ -0,0 +1,55 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.DeployEvent;
+import com.signalroot.repository.DeployEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Loads recent deploys from the database into the DeployTimelineIndex once the
+ * application is up, so correlation has history from before the restart.
+ */
+@Component
+@ConditionalOnProperty(name = "signalroot.service.mode", havingValue = "real")
+public class DeployTimelineWarmer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DeployTimelineWarmer.class);
+    
+    @Autowired
+    private DeployEventRepository deployEventRepository;
+    
+    @Autowired
+    private DeployTimelineIndex timelineIndex;
+    
+    @Value("${signalroot.correlation.timeline.warmup-hours:24}")
+    private long warmupHours;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        long start = System.currentTimeMillis();
+        
+        try {
+            List<DeployEvent> deploys = deployEventRepository.findAllStartedSince(LocalDateTime.now().minusHours(warmupHours));
+            for (DeployEvent deploy : deploys) {
+                String key = DeployTimelineIndex.key(deploy.getOrganization().getId().toString(), deploy.getService().getId().toString());
+                timelineIndex.record(key, new DeployTimelineIndex.Deploy(deploy.getId(), deploy.getSource(), deploy.getExternalId(),
+                    deploy.getVersion(), deploy.getStatus().name(), deploy.getStartedAt()));
+            }
+            
+            logger.info("Warmed deploy timeline with {} deploys across {} services in {} ms",
+                       deploys.size(), timelineIndex.serviceCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Correlation still works from live deploys; history just starts empty
+            logger.error("Failed to warm deploy timeline", e);
+        }
+    }
+}
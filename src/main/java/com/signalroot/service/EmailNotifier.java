@@ -8,10 +8,12 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Mails incident notifications through the configured JavaMailSender. Send
+ * errors propagate to NotificationDispatcher, which owns retries.
+ */
 @Service
-@Transactional
 @ConditionalOnProperty(name = "signalroot.notifications.email.enabled", havingValue = "true")
 public class EmailNotifier {
     
@@ -29,18 +31,14 @@ public class EmailNotifier {
     public void sendIncidentNotification(Object incident) {
         logger.info("Sending email notification for incident: {}", incident);
         
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject(buildSubject(incident));
-            message.setText(buildEmailBody(incident));
-            
-            mailSender.send(message);
-            logger.info("Email notification sent successfully for incident: {}", incident);
-        } catch (Exception e) {
-            logger.error("Failed to send email notification for incident: {}", incident, e);
-        }
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(toEmail);
+        message.setSubject(buildSubject(incident));
+        message.setText(buildEmailBody(incident));
+        
+        mailSender.send(message);
+        logger.info("Email notification sent successfully for incident: {}", incident);
     }
     
     private String buildSubject(Object incident) {
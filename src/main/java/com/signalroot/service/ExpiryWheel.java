@@ -0,0 +1,152 @@
+package com.signalroot.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-level timing wheel of expiry deadlines for a fixed range of int keys.
+ *
+ * Keys are 0 to capacity - 1 (IdempotencyStore uses the slot index) and each
+ * bucket is an intrusive list threaded through one preallocated int array, so
+ * the wheel costs 4 bytes per key plus 4 per bucket and never allocates after
+ * construction. A key may be queued at most once at a time; callers must track
+ * what is queued. The wheel keeps no deadlines: every key in a swept bucket is
+ * handed to the handler, which owns the real deadline and reschedules keys
+ * that are not due yet, including ones parked in the furthest bucket because
+ * their deadline was beyond the wheel span. Scheduling is safe from any
+ * thread; advance() must only be called from one thread at a time.
+ */
+public class ExpiryWheel {
+
+    private static final int END = -1;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final int[] heads;
+    private final int[] next;
+    private final long tickMillis;
+    private final int mask;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile long currentTick;
+
+    public ExpiryWheel(long tickMillis, int bucketCount, int capacity, long startMillis) {
+        if (Integer.bitCount(bucketCount) != 1) {
+            throw new IllegalArgumentException("Bucket count must be a power of two: " + bucketCount);
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.heads = new int[bucketCount];
+        Arrays.fill(heads, END);
+        this.next = new int[capacity];
+        this.tickMillis = tickMillis;
+        this.mask = bucketCount - 1;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Queue a key that is not already queued, to be handed to the handler once
+     * deadlineMillis has passed.
+     */
+    public void schedule(int key, long deadlineMillis) {
+        while (true) {
+            long cursor = currentTick;
+            long tick = Math.max(cursor + 1, ceilDiv(deadlineMillis, tickMillis));
+            tick = Math.min(tick, cursor + mask);
+
+            int bucket = (int) tick & mask;
+            synchronized (lockFor(bucket)) {
+                // The cursor may have swept this bucket since we read it
+                if (currentTick < tick) {
+                    next[key] = heads[bucket];
+                    heads[bucket] = key;
+                    pending.incrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the cursor up to nowMillis, handing every key in the swept buckets to
+     * the handler. Returns how many of them the handler removed.
+     */
+    public int advance(long nowMillis, ExpiryHandler handler) {
+        long target = nowMillis / tickMillis;
+        int expired = 0;
+
+        while (currentTick < target) {
+            long nextTick = currentTick + 1;
+            int bucket = (int) nextTick & mask;
+            int key;
+
+            synchronized (lockFor(bucket)) {
+                currentTick = nextTick;
+                key = heads[bucket];
+                heads[bucket] = END;
+            }
+
+            // Links in the detached list were written under the bucket lock taken above and
+            // only change once the handler requeues a key, so each is read before its handler call
+            while (key != END) {
+                int following = next[key];
+                pending.decrementAndGet();
+                if (handler.expire(key, nowMillis)) {
+                    expired++;
+                }
+                key = following;
+            }
+        }
+
+        return expired;
+    }
+
+    /**
+     * How long the next bucket has been due without being swept.
+     */
+    public long lagMillis(long nowMillis) {
+        return Math.max(0, nowMillis - (currentTick + 1) * tickMillis);
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Heap held by the link and bucket head arrays; fixed at construction.
+     */
+    public long memoryBytes() {
+        return (long) (next.length + heads.length) * Integer.BYTES;
+    }
+
+    public int getCapacity() {
+        return next.length;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public long getSpanMillis() {
+        return tickMillis * heads.length;
+    }
+
+    // Buckets share striped monitors rather than holding an object each
+    private Object lockFor(int bucket) {
+        return locks[bucket & (LOCK_STRIPES - 1)];
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    @FunctionalInterface
+    public interface ExpiryHandler {
+        /**
+         * Remove the key if its deadline has passed, otherwise reschedule it at
+         * that deadline; returns whether anything was removed.
+         */
+        boolean expire(int key, long nowMillis);
+    }
+}
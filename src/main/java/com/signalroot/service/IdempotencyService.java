@@ -1,143 +1,342 @@
 package com.signalroot.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class IdempotencyService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
-    
-    // Track processed webhooks to prevent duplicates
-    private final Map<String, WebhookProcessing> processedWebhooks = new ConcurrentHashMap<>();
-    
-    // Track incidents to prevent multiple notifications
-    private final Map<String, LocalDateTime> incidentNotifications = new ConcurrentHashMap<>();
-    
-    // Track alert processing to prevent duplicate incidents
-    private final Map<String, String> alertToIncident = new ConcurrentHashMap<>();
-    
+
+    // Notification records are keyed by incident id only
+    private static final String NOTIFICATION_SOURCE = "incident";
+
     // Time windows for idempotency checks
     private static final long WEBHOOK_DEDUPE_WINDOW_MINUTES = 30;
     private static final long NOTIFICATION_DEDUPE_WINDOW_MINUTES = 60;
-    
+
+    @Value("${signalroot.idempotency.webhook-capacity:262144}")
+    private int webhookCapacity = 262_144;
+
+    @Value("${signalroot.idempotency.notification-capacity:65536}")
+    private int notificationCapacity = 65_536;
+
+    @Value("${signalroot.idempotency.alert-incident-capacity:262144}")
+    private int alertIncidentCapacity = 262_144;
+
+    @Value("${signalroot.idempotency.alert-incident-ttl-hours:24}")
+    private long alertIncidentTtlHours = 24;
+
+    @Value("${signalroot.idempotency.lease-seconds:60}")
+    private long leaseSeconds = 60;
+
+    // memory keeps all state in this process; postgres shares claims across replicas
+    @Value("${signalroot.idempotency.backend:memory}")
+    private String backend = "memory";
+
+    // How long a duplicate learned from the shared table is answered locally
+    @Value("${signalroot.idempotency.near-cache-seconds:300}")
+    private long nearCacheSeconds = 300;
+
+    @Value("${signalroot.idempotency.postgres.purge-interval-seconds:300}")
+    private long purgeIntervalSeconds = 300;
+
+    @Autowired(required = false)
+    private PostgresIdempotencyBackend sharedBackend;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    // 1s ticks over 4096 buckets covers about 68 minutes; longer windows are rescheduled
+    @Value("${signalroot.idempotency.expiry.tick-millis:1000}")
+    private long expiryTickMillis = 1000;
+
+    @Value("${signalroot.idempotency.expiry.wheel-buckets:4096}")
+    private int expiryWheelBuckets = 4096;
+
+    // Track processed webhooks to prevent duplicates
+    private IdempotencyStore processedWebhooks;
+
+    // Track incidents to prevent multiple notifications
+    private IdempotencyStore incidentNotifications;
+
+    // Track alert processing to prevent duplicate incidents
+    private IdempotencyStore alertToIncident;
+
+    private long webhookWindowMillis;
+    private long alertIncidentTtlMillis;
+    private long leaseMillis;
+    private long nearCacheMillis;
+
+    private final LongAdder nearCacheHits = new LongAdder();
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder duplicateCount = new LongAdder();
+    private final LongAdder inFlightCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    private ScheduledExecutorService expiryScheduler;
+    private volatile long lastExpiryRunMillis;
+    private volatile double expirationsPerSecond;
+    private volatile long wheelLagMillis;
+
+    @PostConstruct
+    public void init() {
+        long now = System.currentTimeMillis();
+        webhookWindowMillis = TimeUnit.MINUTES.toMillis(WEBHOOK_DEDUPE_WINDOW_MINUTES);
+        alertIncidentTtlMillis = TimeUnit.HOURS.toMillis(alertIncidentTtlHours);
+        leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+        nearCacheMillis = TimeUnit.SECONDS.toMillis(nearCacheSeconds);
+
+        if ("postgres".equals(backend) && sharedBackend == null) {
+            throw new IllegalStateException("Idempotency backend 'postgres' requires a configured datasource");
+        }
+
+        processedWebhooks = newStore(webhookCapacity, webhookWindowMillis, now);
+        incidentNotifications = newStore(notificationCapacity, TimeUnit.MINUTES.toMillis(NOTIFICATION_DEDUPE_WINDOW_MINUTES), now);
+        alertToIncident = newStore(alertIncidentCapacity, alertIncidentTtlMillis, now);
+
+        lastExpiryRunMillis = now;
+        expiryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiryScheduler.scheduleAtFixedRate(this::expireDue, expiryTickMillis, expiryTickMillis, TimeUnit.MILLISECONDS);
+        if (sharedBackend != null) {
+            expiryScheduler.scheduleWithFixedDelay(this::purgeShared, purgeIntervalSeconds, purgeIntervalSeconds, TimeUnit.SECONDS);
+            logger.info("Idempotency backed by the shared Postgres table with a {}s near-cache", nearCacheSeconds);
+        }
+
+        logger.info("Idempotency stores sized for {} webhooks, {} notifications and {} alert mappings ({} KB)",
+                   processedWebhooks.getCapacity(), incidentNotifications.getCapacity(), alertToIncident.getCapacity(),
+                   totalMemoryBytes() / 1024);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (expiryScheduler != null) {
+            expiryScheduler.shutdownNow();
+        }
+    }
+
+    private IdempotencyStore newStore(int capacity, long ttlMillis, long now) {
+        return new IdempotencyStore(capacity, ttlMillis, expiryTickMillis, expiryWheelBuckets, now);
+    }
+
+    private void purgeShared() {
+        try {
+            sharedBackend.purgeExpired();
+        } catch (Exception e) {
+            // Never let a failed purge cancel the periodic task
+            logger.error("Shared idempotency purge failed", e);
+        }
+    }
+
     /**
-     * Check if webhook should be processed (idempotency check)
+     * Expire records whose windows have closed (runs on the expiry scheduler thread)
      */
-    public boolean shouldProcessWebhook(String webhookId, String source, String externalId) {
-        String key = source + ":" + externalId;
-        
-        WebhookProcessing existing = processedWebhooks.get(key);
-        if (existing != null) {
-            // Check if within dedupe window
-            if (existing.processedAt.plusMinutes(WEBHOOK_DEDUPE_WINDOW_MINUTES).isAfter(LocalDateTime.now())) {
-                // Window expired, allow processing
-                processedWebhooks.remove(key);
-                logger.info("Webhook dedupe window expired for: {}", key);
-                return true;
+    void expireDue() {
+        try {
+            long now = System.currentTimeMillis();
+            wheelLagMillis = Math.max(processedWebhooks.getWheel().lagMillis(now),
+                                      Math.max(incidentNotifications.getWheel().lagMillis(now),
+                                               alertToIncident.getWheel().lagMillis(now)));
+
+            int expired = processedWebhooks.expireDue(now)
+                        + incidentNotifications.expireDue(now)
+                        + alertToIncident.expireDue(now);
+
+            long elapsed = Math.max(1, now - lastExpiryRunMillis);
+            expirationsPerSecond = expired * 1000.0 / elapsed;
+            lastExpiryRunMillis = now;
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic task
+            logger.error("Idempotency expiry run failed", e);
+        }
+    }
+
+    /**
+     * Atomically claim a webhook for processing. ACQUIRED hands the caller a lease
+     * that must be completed or failed; an abandoned lease lapses after the lease
+     * timeout so a retry can pick the event up again.
+     */
+    public AcquireResult tryAcquire(String source, String externalId) {
+        long started = System.nanoTime();
+        AcquireResult result;
+        try {
+            result = acquire(source, externalId);
+        } catch (RuntimeException e) {
+            recordDedupe(source, PipelineMetrics.Outcome.FAILURE, started);
+            throw e;
+        }
+        recordDedupe(source, result == AcquireResult.ACQUIRED ? PipelineMetrics.Outcome.SUCCESS : PipelineMetrics.Outcome.REJECTED, started);
+        return result;
+    }
+
+    private AcquireResult acquire(String source, String externalId) {
+        long now = System.currentTimeMillis();
+        AcquireResult result = processedWebhooks.tryAcquire(source, externalId, now, leaseMillis);
+
+        // With a shared backend the local store is a near-cache: local duplicates and
+        // in-flight leases are answered here, only local acquisitions go to the database
+        if (sharedBackend != null) {
+            if (result != AcquireResult.ACQUIRED) {
+                nearCacheHits.increment();
             } else {
-                // Still within window, skip processing
-                logger.info("Skipping duplicate webhook: {} (processed at {})", key, existing.processedAt);
-                return false;
+                result = acquireShared(source, externalId, now);
             }
         }
-        
-        return true;
+
+        switch (result) {
+            case ACQUIRED -> acquiredCount.increment();
+            case DUPLICATE -> {
+                duplicateCount.increment();
+                logger.info("Skipping duplicate webhook: {}:{}", source, externalId);
+            }
+            case IN_FLIGHT -> {
+                inFlightCount.increment();
+                logger.info("Webhook {}:{} is already being processed", source, externalId);
+            }
+        }
+        return result;
+    }
+
+    private void recordDedupe(String source, PipelineMetrics.Outcome outcome, long started) {
+        // Unset when constructed outside Spring, as the benchmarks do
+        if (pipelineMetrics != null) {
+            pipelineMetrics.record(PipelineMetrics.Stage.DEDUPE, source, outcome, started);
+        }
+    }
+
+    private AcquireResult acquireShared(String source, String externalId, long now) {
+        AcquireResult shared;
+        try {
+            shared = sharedBackend.tryAcquire(source, externalId, leaseMillis);
+        } catch (RuntimeException e) {
+            processedWebhooks.release(source, externalId);
+            throw e;
+        }
+
+        if (shared == AcquireResult.DUPLICATE) {
+            // Another replica processed it; remember that locally for a while
+            processedWebhooks.complete(source, externalId, now, nearCacheMillis);
+        } else if (shared == AcquireResult.IN_FLIGHT) {
+            processedWebhooks.release(source, externalId);
+        }
+        return shared;
     }
-    
+
     /**
-     * Mark webhook as processed
+     * Mark an acquired webhook as processed for the webhook dedupe window
      */
-    public void markWebhookProcessed(String webhookId, String source, String externalId) {
-        String key = source + ":" + externalId;
-        WebhookProcessing processing = new WebhookProcessing();
-        processing.webhookId = webhookId;
-        processing.processedAt = LocalDateTime.now();
-        processedWebhooks.put(key, processing);
-        
-        logger.info("Marked webhook as processed: {} at {}", key, processing.processedAt);
-    }
-    
+    public void complete(String source, String externalId) {
+        completeFor(source, externalId, webhookWindowMillis);
+        logger.info("Marked webhook as processed: {}:{}", source, externalId);
+    }
+
+    /**
+     * Mark an acquired alert as processed and linked to its incident. The record is
+     * kept for the alert-to-incident window so late redeliveries do not open a second incident.
+     */
+    public void complete(String source, String alertId, String incidentId) {
+        completeFor(source, alertId, alertIncidentTtlMillis);
+        logger.info("Marked alert {}:{} as processed with incident {}", source, alertId, incidentId);
+    }
+
+    private void completeFor(String source, String externalId, long windowMillis) {
+        processedWebhooks.complete(source, externalId, System.currentTimeMillis(), windowMillis);
+        if (sharedBackend != null) {
+            sharedBackend.complete(source, externalId, windowMillis);
+        }
+    }
+
+    /**
+     * Give up an acquired lease so the webhook can be retried immediately
+     */
+    public void fail(String source, String externalId) {
+        boolean released = processedWebhooks.release(source, externalId);
+        if (sharedBackend != null) {
+            try {
+                sharedBackend.release(source, externalId);
+            } catch (RuntimeException e) {
+                // The shared lease still lapses on its own
+                logger.warn("Failed to release shared lease for {}:{}", source, externalId, e);
+            }
+        }
+
+        if (released) {
+            failedCount.increment();
+            logger.info("Released lease for failed webhook: {}:{}", source, externalId);
+        }
+    }
+
     /**
      * Check if incident should be created for this alert
      */
     public boolean shouldCreateIncident(String alertId, String source) {
-        String key = source + ":" + alertId;
-        
-        String existingIncidentId = alertToIncident.get(key);
-        if (existingIncidentId != null) {
-            logger.info("Alert {} already has incident: {}", alertId, existingIncidentId);
+        if (alertToIncident.contains(source, alertId, System.currentTimeMillis())) {
+            logger.info("Alert {} already has an incident", alertId);
             return false;
         }
-        
+
         return true;
     }
-    
+
     /**
      * Associate alert with incident
      */
     public void associateAlertWithIncident(String alertId, String source, String incidentId) {
-        String key = source + ":" + alertId;
-        alertToIncident.put(key, incidentId);
+        alertToIncident.put(source, alertId, System.currentTimeMillis());
         logger.info("Associated alert {} with incident {}", alertId, incidentId);
     }
-    
+
     /**
      * Check if notification should be sent for incident
      */
     public boolean shouldSendNotification(String incidentId) {
-        LocalDateTime lastNotification = incidentNotifications.get(incidentId);
-        
-        if (lastNotification == null) {
-            return true;
-        }
-        
-        // Check if notification window has expired
-        if (lastNotification.plusMinutes(NOTIFICATION_DEDUPE_WINDOW_MINUTES).isAfter(LocalDateTime.now())) {
-            incidentNotifications.remove(incidentId);
-            logger.info("Notification window expired for incident: {}", incidentId);
-            return true;
-        }
-        
-        logger.info("Skipping duplicate notification for incident: {} (last sent at {})", 
-                   incidentId, lastNotification);
-        return false;
-    }
-    
+        if (incidentNotifications.contains(NOTIFICATION_SOURCE, incidentId, System.currentTimeMillis())) {
+            logger.info("Skipping duplicate notification for incident: {}", incidentId);
+            return false;
+        }
+
+        return true;
+    }
+
     /**
      * Mark notification as sent for incident
      */
     public void markNotificationSent(String incidentId) {
-        incidentNotifications.put(incidentId, LocalDateTime.now());
+        incidentNotifications.put(NOTIFICATION_SOURCE, incidentId, System.currentTimeMillis());
         logger.info("Marked notification sent for incident: {}", incidentId);
     }
-    
+
     /**
-     * Clean up old entries (call periodically)
+     * Full scan for expired entries. Expiry normally happens on the timing wheel;
+     * this remains for the manual cleanup endpoint.
      */
     public void cleanup() {
-        LocalDateTime cutoff = LocalDateTime.now().minusHours(2);
-        
-        // Clean old webhook processing records
-        processedWebhooks.entrySet().removeIf(entry -> 
-            entry.getValue().processedAt.isBefore(cutoff));
-        
-        // Clean old notification records  
-        incidentNotifications.entrySet().removeIf(entry -> 
-            entry.getValue().isBefore(cutoff));
-        
-        if (!processedWebhooks.isEmpty() || !incidentNotifications.isEmpty()) {
-            logger.info("Cleaned up {} webhook records and {} notification records", 
-                       processedWebhooks.size(), incidentNotifications.size());
-        }
-    }
-    
+        long now = System.currentTimeMillis();
+
+        int webhooks = processedWebhooks.purgeExpired(now);
+        int notifications = incidentNotifications.purgeExpired(now);
+        int mappings = alertToIncident.purgeExpired(now);
+
+        if (webhooks > 0 || notifications > 0 || mappings > 0) {
+            logger.info("Cleaned up {} webhook records, {} notification records and {} alert mappings",
+                       webhooks, notifications, mappings);
+        }
+    }
+
     /**
      * Get statistics for monitoring
      */
@@ -146,17 +345,47 @@ public class IdempotencyService {
         stats.processedWebhooks = processedWebhooks.size();
         stats.activeNotifications = incidentNotifications.size();
         stats.alertToIncidentMappings = alertToIncident.size();
+        stats.capacity = processedWebhooks.getCapacity() + incidentNotifications.getCapacity() + alertToIncident.getCapacity();
+        stats.memoryBytes = totalMemoryBytes();
+        stats.webhookCollisionRate = processedWebhooks.collisionRate();
+        stats.evictions = processedWebhooks.evictions() + incidentNotifications.evictions() + alertToIncident.evictions();
+        stats.expirations = processedWebhooks.expirations() + incidentNotifications.expirations() + alertToIncident.expirations();
+        stats.expirationsPerSecond = expirationsPerSecond;
+        stats.wheelLagMillis = wheelLagMillis;
+        stats.acquired = acquiredCount.sum();
+        stats.duplicates = duplicateCount.sum();
+        stats.inFlight = inFlightCount.sum();
+        stats.failedLeases = failedCount.sum();
+        stats.backend = sharedBackend != null ? "postgres" : "memory";
+        stats.nearCacheHits = nearCacheHits.sum();
+        stats.sharedClaims = sharedBackend != null ? sharedBackend.getClaims() : 0;
+        stats.wheelPending = processedWebhooks.getWheel().pending() + incidentNotifications.getWheel().pending()
+                           + alertToIncident.getWheel().pending();
         return stats;
     }
-    
-    public static class WebhookProcessing {
-        public String webhookId;
-        public LocalDateTime processedAt;
+
+    private long totalMemoryBytes() {
+        return processedWebhooks.memoryBytes() + incidentNotifications.memoryBytes() + alertToIncident.memoryBytes();
     }
-    
+
     public static class IdempotencyStats {
         public int processedWebhooks;
         public int activeNotifications;
         public int alertToIncidentMappings;
+        public int capacity;
+        public long memoryBytes;
+        public double webhookCollisionRate;
+        public long evictions;
+        public long expirations;
+        public double expirationsPerSecond;
+        public long wheelLagMillis;
+        public int wheelPending;
+        public long acquired;
+        public long duplicates;
+        public long inFlight;
+        public long failedLeases;
+        public String backend;
+        public long nearCacheHits;
+        public long sharedClaims;
     }
 }
@@ -0,0 +1,401 @@
+package com.signalroot.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-capacity dedupe table keyed by a 128-bit hash of (source, externalId).
+ *
+ * Each slot is two longs of key hash, one long expiry deadline in epoch millis,
+ * a state byte and a wheel flag, held in parallel primitive arrays (26 bytes
+ * per slot). A slot is either an in-flight lease, whose deadline is the lease
+ * expiry, or a completed record, whose deadline closes the dedupe window.
+ * Lookups probe a short window from the home slot; inserts reuse empty or
+ * expired slots and, when the window is full of live entries, overwrite the
+ * one closest to expiry. The table is split into independently locked
+ * segments, each rounded up only to a whole number of slots. When built with
+ * an expiry tick, the store owns an ExpiryWheel sized to the table (4 more
+ * bytes per slot); each slot has at most one wheel entry, keyed by slot index,
+ * so expireDue() can free slots as their windows close without scanning the
+ * table.
+ * A wheel entry that fires for a slot whose deadline was pushed out by a later
+ * put is requeued at the new deadline; a deadline pulled in only delays
+ * reclaiming the slot, since expired slots are reused by inserts anyway.
+ */
+public class IdempotencyStore {
+
+    private static final int SEGMENTS = 16;
+    private static final int PROBE_WINDOW = 8;
+    private static final int BYTES_PER_SLOT = 3 * Long.BYTES + 2;
+
+    private static final byte IN_FLIGHT = 1;
+    private static final byte DONE = 2;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlMillis;
+    private final int capacity;
+    private final int slotsPerSegment;
+    private final ExpiryWheel wheel;
+
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder displacedInserts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public IdempotencyStore(int capacity, long ttlMillis) {
+        this(capacity, ttlMillis, 0, 0, 0);
+    }
+
+    /**
+     * A store whose slots expire on a wheel of wheelBuckets ticks of tickMillis
+     * each, starting at startMillis; a tickMillis of 0 builds no wheel.
+     */
+    public IdempotencyStore(int capacity, long ttlMillis, long tickMillis, int wheelBuckets, long startMillis) {
+        int slotsPerSegment = Math.max(PROBE_WINDOW, (capacity + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(i, slotsPerSegment);
+        }
+        this.capacity = slotsPerSegment * SEGMENTS;
+        this.slotsPerSegment = slotsPerSegment;
+        this.ttlMillis = ttlMillis;
+        this.wheel = tickMillis > 0 ? new ExpiryWheel(tickMillis, wheelBuckets, this.capacity, startMillis) : null;
+    }
+
+    /**
+     * True if the key was stored and its window has not closed yet.
+     */
+    public boolean contains(String source, String externalId, long nowMillis) {
+        long hi = hashHigh(source, externalId);
+        long lo = hashLow(source, externalId);
+        Segment segment = segmentFor(hi);
+        synchronized (segment) {
+            int slot = segment.find(hi, lo);
+            return slot >= 0 && segment.expiresAt[slot] > nowMillis;
+        }
+    }
+
+    /**
+     * Store the key as completed with a fresh window, replacing any previous entry for it.
+     */
+    public void put(String source, String externalId, long nowMillis) {
+        complete(source, externalId, nowMillis, ttlMillis);
+    }
+
+    /**
+     * Atomically check the key and, unless it is completed or leased by someone
+     * else, take an in-flight lease on it that lapses after leaseMillis.
+     */
+    public AcquireResult tryAcquire(String source, String externalId, long nowMillis, long leaseMillis) {
+        long hi = hashHigh(source, externalId);
+        long lo = hashLow(source, externalId);
+        long deadline = nowMillis + leaseMillis;
+        Segment segment = segmentFor(hi);
+        synchronized (segment) {
+            int slot = segment.find(hi, lo);
+            if (slot >= 0 && segment.expiresAt[slot] > nowMillis) {
+                return segment.states[slot] == DONE ? AcquireResult.DUPLICATE : AcquireResult.IN_FLIGHT;
+            }
+            if (slot < 0) {
+                slot = claimSlot(segment, hi, lo, nowMillis);
+            }
+            segment.expiresAt[slot] = deadline;
+            segment.states[slot] = IN_FLIGHT;
+            schedule(segment, slot, deadline);
+        }
+        return AcquireResult.ACQUIRED;
+    }
+
+    /**
+     * Mark the key completed for windowMillis, whether or not a lease is still held.
+     */
+    public void complete(String source, String externalId, long nowMillis, long windowMillis) {
+        long hi = hashHigh(source, externalId);
+        long lo = hashLow(source, externalId);
+        long deadline = nowMillis + windowMillis;
+        Segment segment = segmentFor(hi);
+        synchronized (segment) {
+            int slot = segment.find(hi, lo);
+            if (slot < 0) {
+                slot = claimSlot(segment, hi, lo, nowMillis);
+            }
+            segment.expiresAt[slot] = deadline;
+            segment.states[slot] = DONE;
+            schedule(segment, slot, deadline);
+        }
+    }
+
+    /**
+     * Drop an in-flight lease so the key can be acquired again straight away.
+     * Completed records are left alone.
+     */
+    public boolean release(String source, String externalId) {
+        long hi = hashHigh(source, externalId);
+        long lo = hashLow(source, externalId);
+        Segment segment = segmentFor(hi);
+        synchronized (segment) {
+            int slot = segment.find(hi, lo);
+            if (slot < 0 || segment.states[slot] != IN_FLIGHT) {
+                return false;
+            }
+            segment.clear(slot);
+            return true;
+        }
+    }
+
+    public boolean remove(String source, String externalId) {
+        long hi = hashHigh(source, externalId);
+        long lo = hashLow(source, externalId);
+        Segment segment = segmentFor(hi);
+        synchronized (segment) {
+            int slot = segment.find(hi, lo);
+            if (slot < 0) {
+                return false;
+            }
+            segment.clear(slot);
+            return true;
+        }
+    }
+
+    /**
+     * Advance the expiry wheel to nowMillis and free the slots it reports as due.
+     * Returns the number of entries removed; a no-op for stores without a wheel.
+     */
+    public int expireDue(long nowMillis) {
+        if (wheel == null) {
+            return 0;
+        }
+        return wheel.advance(nowMillis, this::expireSlot);
+    }
+
+    /**
+     * Free the slot behind a wheel entry if its window has closed. A slot that was
+     * refreshed by a later put is requeued at its new deadline instead, and an
+     * entry for a slot that has since been emptied is dropped.
+     */
+    boolean expireSlot(int key, long nowMillis) {
+        Segment segment = segments[key / slotsPerSegment];
+        int slot = key % slotsPerSegment;
+        synchronized (segment) {
+            long deadline = segment.expiresAt[slot];
+            if (deadline == 0) {
+                segment.queued[slot] = false;
+                return false;
+            }
+            if (deadline > nowMillis) {
+                wheel.schedule(key, deadline);
+                return false;
+            }
+            segment.clear(slot);
+            segment.queued[slot] = false;
+        }
+        expirations.increment();
+        return true;
+    }
+
+    /**
+     * Free every slot whose window has closed. Returns the number of entries removed.
+     */
+    public int purgeExpired(long nowMillis) {
+        int removed = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (int slot = 0; slot < segment.expiresAt.length; slot++) {
+                    long deadline = segment.expiresAt[slot];
+                    if (deadline != 0 && deadline <= nowMillis) {
+                        segment.clear(slot);
+                        removed++;
+                    }
+                }
+            }
+        }
+        expirations.add(removed);
+        return removed;
+    }
+
+    /**
+     * Occupied slots, including expired entries that have not been reclaimed yet.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.occupied;
+            }
+        }
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Slot arrays plus, for stores with a wheel, the wheel's link and bucket arrays.
+     */
+    public long memoryBytes() {
+        long bytes = (long) capacity * BYTES_PER_SLOT;
+        return wheel == null ? bytes : bytes + wheel.memoryBytes();
+    }
+
+    /**
+     * Fraction of inserts that could not use their home slot.
+     */
+    public double collisionRate() {
+        long total = inserts.sum();
+        return total == 0 ? 0.0 : (double) displacedInserts.sum() / total;
+    }
+
+    /**
+     * Live entries overwritten because their probe window was full.
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Entries freed because their window closed, by the wheel or a full purge.
+     */
+    public long expirations() {
+        return expirations.sum();
+    }
+
+    public ExpiryWheel getWheel() {
+        return wheel;
+    }
+
+    // Called under the segment lock; the wheel takes its bucket locks after it and
+    // never holds one while calling back into expireSlot
+    private void schedule(Segment segment, int slot, long deadline) {
+        if (wheel != null && !segment.queued[slot]) {
+            segment.queued[slot] = true;
+            wheel.schedule(segment.index * slotsPerSegment + slot, deadline);
+        }
+    }
+
+    private int claimSlot(Segment segment, long hi, long lo, long nowMillis) {
+        int home = segment.home(lo);
+        int victim = -1;
+        long victimDeadline = Long.MAX_VALUE;
+
+        for (int i = 0; i < PROBE_WINDOW; i++) {
+            int slot = segment.probe(home, i);
+            long deadline = segment.expiresAt[slot];
+            if (deadline == 0 || deadline <= nowMillis) {
+                victim = slot;
+                victimDeadline = 0;
+                break;
+            }
+            if (deadline < victimDeadline) {
+                victim = slot;
+                victimDeadline = deadline;
+            }
+        }
+
+        if (victimDeadline != 0) {
+            evictions.increment();
+        }
+        if (segment.expiresAt[victim] == 0) {
+            segment.occupied++;
+        }
+        if (victim != home) {
+            displacedInserts.increment();
+        }
+        inserts.increment();
+
+        segment.hi[victim] = hi;
+        segment.lo[victim] = lo;
+        return victim;
+    }
+
+    private Segment segmentFor(long hi) {
+        return segments[(int) (hi >>> 60) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Home slot for a key in a segment of the given size: the high half of lo
+     * scaled to the slot count, so segments need not be a power of two.
+     */
+    static int home(long lo, int slots) {
+        return (int) (((lo >>> 32) * slots) >>> 32);
+    }
+
+    static long hashHigh(String source, String externalId) {
+        return hash(source, externalId, 0x9E3779B97F4A7C15L, 0x100000001B3L);
+    }
+
+    static long hashLow(String source, String externalId) {
+        return hash(source, externalId, 0xC2B2AE3D27D4EB4FL, 0xFF51AFD7ED558CCDL);
+    }
+
+    private static long hash(String source, String externalId, long seed, long multiplier) {
+        long h = seed;
+        for (int i = 0; i < source.length(); i++) {
+            h = (h ^ source.charAt(i)) * multiplier;
+        }
+        h = (h ^ ':') * multiplier;
+        for (int i = 0; i < externalId.length(); i++) {
+            h = (h ^ externalId.charAt(i)) * multiplier;
+        }
+        return fmix64(h ^ ((long) source.length() << 32 | externalId.length()));
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Segment {
+        final long[] hi;
+        final long[] lo;
+        final long[] expiresAt;
+        final byte[] states;
+        // Whether the slot has an entry on the wheel; survives clear() until that entry fires
+        final boolean[] queued;
+        final int index;
+        int occupied;
+
+        Segment(int index, int slots) {
+            hi = new long[slots];
+            lo = new long[slots];
+            expiresAt = new long[slots];
+            states = new byte[slots];
+            queued = new boolean[slots];
+            this.index = index;
+        }
+
+        int home(long lo) {
+            return IdempotencyStore.home(lo, expiresAt.length);
+        }
+
+        int probe(int home, int i) {
+            int slot = home + i;
+            return slot < expiresAt.length ? slot : slot - expiresAt.length;
+        }
+
+        int find(long keyHi, long keyLo) {
+            int home = home(keyLo);
+            for (int i = 0; i < PROBE_WINDOW; i++) {
+                int slot = probe(home, i);
+                if (expiresAt[slot] != 0 && hi[slot] == keyHi && lo[slot] == keyLo) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        void clear(int slot) {
+            expiresAt[slot] = 0;
+            states[slot] = 0;
+            hi[slot] = 0;
+            lo[slot] = 0;
+            occupied--;
+        }
+    }
+}
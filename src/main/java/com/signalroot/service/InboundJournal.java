@@ -0,0 +1,637 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Organization;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only local journal of raw inbound webhooks, so a webhook that was
+ * acknowledged is not lost if the node dies before the alert or deploy is
+ * committed.
+ *
+ * Entries (organization, source, receive time, raw body) are copied into a
+ * memory-mapped segment file and the caller waits until a flusher thread has
+ * forced them to disk; appenders arriving while a force is running share the
+ * next one (group commit). Once the webhook has been processed successfully
+ * a commit record is appended without waiting. Commit records go to the
+ * current segment, so one may sit in a newer segment than its entry; sealed
+ * segments are therefore deleted oldest first, once they and every older
+ * segment have no uncommitted entries left.
+ *
+ * An entry whose processing fails after the sender was acked (async mode)
+ * stays uncommitted and is retried on a timer, on the same processing lane as
+ * new events for its key so it stays in order with them; in sync mode the
+ * sender got the error and retries itself, so the entry is dropped. On
+ * startup, entries without a commit record are replayed through the tenant
+ * alert and deploy services.
+ *
+ * Commit records are written to the mapped segment, so they survive a JVM
+ * crash, but are not forced; after an OS crash or power loss an event that was
+ * stored may be replayed. The postgres idempotency backend dedupes that
+ * replay; the default memory backend is empty after a restart and does not.
+ *
+ * The /batch endpoints are not journaled: they process every record before
+ * answering, so the sender only sees success for records already stored.
+ *
+ * Record layout: length (4), CRC32C (4), then the body: type (1), entry id (8)
+ * and for entries receive time (8), organization id (16), source length (2),
+ * source, payload length (4), payload. A zero length marks the end of a segment.
+ */
+@Service
+public class InboundJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(InboundJournal.class);
+
+    private static final byte TYPE_ENTRY = 1;
+    private static final byte TYPE_COMMIT = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrganizationServiceInterface organizationService;
+
+    @Autowired
+    private TenantAlertServiceInterface alertService;
+
+    @Autowired
+    private TenantDeployServiceInterface deployService;
+
+    @Autowired
+    private WebhookPayloadExtractor payloadExtractor;
+
+    @Autowired
+    private KeyedLaneExecutor lanes;
+
+    @Value("${signalroot.inbound.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${signalroot.inbound.journal.directory:data/journal}")
+    private String directory = "data/journal";
+
+    @Value("${signalroot.inbound.journal.segment-bytes:67108864}")
+    private int segmentBytes = 64 * 1024 * 1024;
+
+    @Value("${signalroot.inbound.journal.sync-timeout-millis:5000}")
+    private long syncTimeoutMillis = 5000;
+
+    @Value("${signalroot.inbound.journal.retry-interval-seconds:30}")
+    private long retryIntervalSeconds = 30;
+
+    // Beyond this, failed entries are only kept on disk for the next startup replay
+    @Value("${signalroot.inbound.journal.max-retrying:10000}")
+    private int maxRetrying = 10_000;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final Map<Long, Segment> uncommitted = new ConcurrentHashMap<>();
+    private final List<Path> recoveredSegments = new ArrayList<>();
+    private final List<Recovered> backlog = new ArrayList<>();
+    private final AtomicInteger backlogRemaining = new AtomicInteger();
+    private final Queue<Entry> retrying = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger retryingCount = new AtomicInteger();
+    // Oldest first; guarded by its own monitor since commits delete without the journal lock
+    private final Deque<Segment> sealed = new ArrayDeque<>();
+
+    // Guarded by lock
+    private Segment current;
+    private long nextEntryId = 1;
+    private long appendedSeq;
+    private long syncedSeq;
+    private int syncedPosition;
+
+    private Path journalDirectory;
+    private Thread flusher;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+    private Timer appendLatency;
+    private Counter replayedCounter;
+    private Counter replayFailedCounter;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        journalDirectory = Paths.get(directory);
+        Files.createDirectories(journalDirectory);
+
+        long nextSegment = recover();
+        current = Segment.create(segmentPath(nextSegment), nextSegment, segmentBytes);
+
+        appendLatency = Timer.builder("signalroot.inbound.journal.append.latency")
+            .description("Time to journal an inbound webhook, including the group-committed fsync")
+            .register(meterRegistry);
+        replayedCounter = Counter.builder("signalroot.inbound.journal.replayed").register(meterRegistry);
+        replayFailedCounter = Counter.builder("signalroot.inbound.journal.replay.failed").register(meterRegistry);
+        Gauge.builder("signalroot.inbound.journal.replay.backlog", backlogRemaining, AtomicInteger::get)
+            .description("Journaled webhooks from before the restart still waiting to be replayed")
+            .register(meterRegistry);
+        Gauge.builder("signalroot.inbound.journal.uncommitted", uncommitted, Map::size)
+            .register(meterRegistry);
+        Gauge.builder("signalroot.inbound.journal.retrying", retryingCount, AtomicInteger::get)
+            .description("Acked webhooks whose processing failed, waiting for the next retry")
+            .register(meterRegistry);
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "inbound-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inbound-journal-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        retryScheduler.scheduleWithFixedDelay(this::retryFailed, retryIntervalSeconds, retryIntervalSeconds, TimeUnit.SECONDS);
+
+        logger.info("📒 Inbound journal at {}: {} uncommitted webhooks to replay", journalDirectory.toAbsolutePath(), backlog.size());
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+
+        running = false;
+        retryScheduler.shutdownNow();
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        lock.lock();
+        try {
+            current.buffer.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Journal a webhook and return a task that runs the processing and then
+     * commits the entry. Returns once the entry is on disk, so the caller may ack.
+     * If processing fails the entry stays uncommitted and is retried.
+     */
+    public Entry journaled(Organization organization, String source, String externalId, byte[] body, Runnable process) {
+        if (!enabled) {
+            return new Entry(0, organization, source, externalId, process);
+        }
+
+        long start = System.nanoTime();
+        long entryId = append(organization.getId(), source, System.currentTimeMillis(), body);
+        appendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Entry(entryId, organization, source, externalId, process);
+    }
+
+    /**
+     * Mark an entry as processed. Commit records are not synced on their own,
+     * see the class comment for what that means after an OS crash.
+     */
+    public void commit(long entryId) {
+        if (!enabled || entryId == 0) {
+            return;
+        }
+
+        Segment segment = uncommitted.remove(entryId);
+        if (segment == null) {
+            return;
+        }
+        write(commitRecord(entryId), false);
+        if (segment.outstanding.decrementAndGet() == 0) {
+            deleteDrainedSegments();
+        }
+    }
+
+    // Deleting a segment while an older one is still live could drop commit records for that older one's entries
+    private void deleteDrainedSegments() {
+        synchronized (sealed) {
+            while (!sealed.isEmpty() && sealed.peekFirst().outstanding.get() == 0) {
+                sealed.pollFirst().delete();
+            }
+        }
+    }
+
+    // Runs on the retry scheduler and hands each entry to its key's lane; entries that fail again go back on the queue
+    void retryFailed() {
+        for (int i = retryingCount.get(); i > 0; i--) {
+            Entry entry = retrying.poll();
+            if (entry == null) {
+                return;
+            }
+            retryingCount.decrementAndGet();
+            try {
+                lanes.submit(entry.organization, entry.source, entry.externalId, entry::retry);
+            } catch (RejectedExecutionException e) {
+                // Lane full; the next tick tries again
+                keepForRetry(entry);
+            }
+        }
+    }
+
+    private void keepForRetry(Entry entry) {
+        if (entry.entryId == 0) {
+            return;
+        }
+        if (retryingCount.incrementAndGet() > maxRetrying) {
+            retryingCount.decrementAndGet();
+            logger.warn("Journal retry queue full, webhook {} waits for the next startup replay", entry.entryId);
+            return;
+        }
+        retrying.add(entry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replay() {
+        if (!enabled || backlog.isEmpty()) {
+            deleteRecoveredSegments();
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int replayed = 0;
+        for (Recovered entry : backlog) {
+            try {
+                dispatch(entry);
+                replayed++;
+                replayedCounter.increment();
+            } catch (IllegalArgumentException e) {
+                // Malformed or for a deleted organization: replaying again will not help
+                replayFailedCounter.increment();
+                logger.warn("Dropping journaled {} webhook {}: {}", entry.source(), entry.entryId(), e.getMessage());
+            } catch (Exception e) {
+                // Carry it into the new segment so the next start retries it
+                replayFailedCounter.increment();
+                logger.error("Failed to replay journaled {} webhook {}, keeping it", entry.source(), entry.entryId(), e);
+                append(entry.organizationId(), entry.source(), entry.receivedAt(), entry.body());
+            }
+            backlogRemaining.decrementAndGet();
+        }
+
+        logger.info("📒 Replayed {} of {} journaled webhooks in {} ms", replayed, backlog.size(), System.currentTimeMillis() - start);
+        backlog.clear();
+        deleteRecoveredSegments();
+    }
+
+    private void dispatch(Recovered entry) throws IOException {
+        Organization organization = organizationService.findById(entry.organizationId());
+        if (organization == null) {
+            throw new IllegalArgumentException("organization " + entry.organizationId() + " no longer exists");
+        }
+
+        switch (entry.source()) {
+            case "pagerduty" -> alertService.processPagerDutyAlert(payloadExtractor.readPagerDuty(entry.body()), organization);
+            case "cloudwatch" -> alertService.processCloudWatchAlert(payloadExtractor.readCloudWatch(entry.body()), organization);
+            case "github" -> deployService.processGitHubDeploy(payloadExtractor.readGitHub(entry.body()), organization);
+            case "jenkins" -> deployService.processJenkinsDeploy(payloadExtractor.readJenkins(entry.body()), organization);
+            default -> throw new IllegalArgumentException("unknown source " + entry.source());
+        }
+    }
+
+    private long append(UUID organizationId, String source, long receivedAt, byte[] body) {
+        byte[] sourceBytes = source.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + 1 + 8 + 8 + 16 + 2 + sourceBytes.length + 4 + body.length);
+        record.position(HEADER_BYTES);
+        record.put(TYPE_ENTRY).putLong(0);
+        record.putLong(receivedAt);
+        record.putLong(organizationId.getMostSignificantBits()).putLong(organizationId.getLeastSignificantBits());
+        record.putShort((short) sourceBytes.length).put(sourceBytes);
+        record.putInt(body.length).put(body);
+        return write(record.array(), true);
+    }
+
+    private static byte[] commitRecord(long entryId) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + 1 + 8);
+        record.position(HEADER_BYTES);
+        record.put(TYPE_COMMIT).putLong(entryId);
+        return record.array();
+    }
+
+    // Copies a record into the current segment and, for entries, waits until the flusher has synced it
+    private long write(byte[] record, boolean entry) {
+        if (record.length + HEADER_BYTES > segmentBytes) {
+            throw new IllegalArgumentException("Webhook of " + record.length + " bytes does not fit a journal segment");
+        }
+
+        lock.lock();
+        try {
+            if (current.buffer.remaining() < record.length + HEADER_BYTES) {
+                roll();
+            }
+
+            long entryId = 0;
+            if (entry) {
+                entryId = nextEntryId++;
+                ByteBuffer.wrap(record).putLong(HEADER_BYTES + 1, entryId);
+                current.outstanding.incrementAndGet();
+                uncommitted.put(entryId, current);
+            }
+            seal(record);
+            current.buffer.put(record);
+            long seq = ++appendedSeq;
+            appended.signal();
+
+            if (entry) {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(syncTimeoutMillis);
+                while (syncedSeq < seq) {
+                    if (remaining <= 0) {
+                        throw new IllegalStateException("Journal fsync did not complete within " + syncTimeoutMillis + " ms");
+                    }
+                    remaining = synced.awaitNanos(remaining);
+                }
+            }
+            return entryId;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the journal to sync");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held. Rolling is rare, so the old segment is synced inline.
+    private void roll() {
+        Segment old = current;
+        old.buffer.force();
+        try {
+            current = Segment.create(segmentPath(old.number + 1), old.number + 1, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal segment", e);
+        }
+        syncedSeq = appendedSeq;
+        syncedPosition = 0;
+        synced.signalAll();
+
+        synchronized (sealed) {
+            sealed.addLast(old);
+        }
+        deleteDrainedSegments();
+    }
+
+    private void flushLoop() {
+        while (running) {
+            Segment segment;
+            long target;
+            int from;
+            int to;
+
+            lock.lock();
+            try {
+                while (appendedSeq == syncedSeq) {
+                    appended.await();
+                }
+                segment = current;
+                target = appendedSeq;
+                from = syncedPosition;
+                to = segment.buffer.position();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            // Appenders keep copying into the buffer while this runs and share the next force
+            try {
+                segment.buffer.force(from, to - from);
+            } catch (RuntimeException e) {
+                // Waiting appenders time out and answer 500, so senders retry
+                logger.error("Failed to sync inbound journal segment {}", segment.path, e);
+                continue;
+            }
+
+            lock.lock();
+            try {
+                if (segment == current) {
+                    syncedPosition = Math.max(syncedPosition, to);
+                    syncedSeq = Math.max(syncedSeq, target);
+                    synced.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Reads every existing segment and keeps entries without a commit record for replay
+    private long recover() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            segments = files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                .sorted()
+                .toList();
+        }
+
+        Map<Long, Recovered> pending = new LinkedHashMap<>();
+        long lastSegment = 0;
+        for (Path path : segments) {
+            lastSegment = Math.max(lastSegment, segmentNumber(path));
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining() || checksum != crc(buffer.array(), buffer.position(), length)) {
+                    // End of the written part, or a record torn by the crash; nothing after it was acked
+                    break;
+                }
+
+                ByteBuffer body = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                byte type = body.get();
+                long entryId = body.getLong();
+                nextEntryId = Math.max(nextEntryId, entryId + 1);
+                if (type == TYPE_COMMIT) {
+                    pending.remove(entryId);
+                } else if (type == TYPE_ENTRY) {
+                    pending.put(entryId, Recovered.read(entryId, body));
+                }
+            }
+            recoveredSegments.add(path);
+        }
+
+        backlog.addAll(pending.values());
+        backlogRemaining.set(backlog.size());
+        return lastSegment + 1;
+    }
+
+    private void deleteRecoveredSegments() {
+        for (Path path : recoveredSegments) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("Failed to delete replayed journal segment {}: {}", path, e.toString());
+            }
+        }
+        recoveredSegments.clear();
+    }
+
+    private Path segmentPath(long number) {
+        return journalDirectory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void seal(byte[] record) {
+        int length = record.length - HEADER_BYTES;
+        ByteBuffer.wrap(record).putInt(length).putInt(crc(record, HEADER_BYTES, length));
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Processing task for a journaled webhook. run() commits the entry only if
+     * processing succeeds and otherwise keeps it for retry, for callers that have
+     * already acked; runOrDiscard() drops a failed entry, for callers that report
+     * the failure to the sender. Call discard() if the task is never run.
+     */
+    public final class Entry implements Runnable {
+        private final long entryId;
+        private final Organization organization;
+        private final String source;
+        private final String externalId;
+        private final Runnable process;
+
+        private Entry(long entryId, Organization organization, String source, String externalId, Runnable process) {
+            this.entryId = entryId;
+            this.organization = organization;
+            this.source = source;
+            this.externalId = externalId;
+            this.process = process;
+        }
+
+        @Override
+        public void run() {
+            try {
+                process.run();
+            } catch (RuntimeException e) {
+                keepForRetry(this);
+                throw e;
+            }
+            commit(entryId);
+        }
+
+        public void runOrDiscard() {
+            try {
+                process.run();
+            } finally {
+                commit(entryId);
+            }
+        }
+
+        public void discard() {
+            commit(entryId);
+        }
+
+        private void retry() {
+            try {
+                process.run();
+            } catch (RuntimeException e) {
+                logger.warn("Retry of journaled webhook {} failed: {}", entryId, e.toString());
+                keepForRetry(this);
+                return;
+            }
+            commit(entryId);
+            logger.info("📒 Retried journaled webhook {}", entryId);
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long number;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicBoolean deleted = new AtomicBoolean();
+
+        private Segment(Path path, long number, MappedByteBuffer buffer) {
+            this.path = path;
+            this.number = number;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long number, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // The mapping stays valid after the channel is closed
+                return new Segment(path, number, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        void delete() {
+            if (deleted.compareAndSet(false, true)) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete committed journal segment {}: {}", path, e.toString());
+                }
+            }
+        }
+    }
+
+    private record Recovered(long entryId, long receivedAt, UUID organizationId, String source, byte[] body) {
+
+        static Recovered read(long entryId, ByteBuffer record) {
+            long receivedAt = record.getLong();
+            UUID organizationId = new UUID(record.getLong(), record.getLong());
+            byte[] source = new byte[record.getShort()];
+            record.get(source);
+            byte[] body = new byte[record.getInt()];
+            record.get(body);
+            return new Recovered(entryId, receivedAt, organizationId, new String(source, StandardCharsets.UTF_8), body);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Organization;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous inbound webhook mode. The controller acknowledges the sender
+ * as soon as the task is queued on its processing lane, and the lane thread
+ * runs the tenant services afterwards, in arrival order per event key.
+ */
+@Service
+public class InboundWebhookQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(InboundWebhookQueue.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private KeyedLaneExecutor lanes;
+
+    @Value("${signalroot.inbound.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${signalroot.inbound.async.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    private Timer enqueueLatency;
+    private Counter acceptedCounter;
+    private Counter rejectedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        enqueueLatency = Timer.builder("signalroot.inbound.enqueue.latency")
+            .description("Time spent handing an inbound webhook to its lane")
+            .register(meterRegistry);
+        acceptedCounter = Counter.builder("signalroot.inbound.queue.accepted").register(meterRegistry);
+        rejectedCounter = Counter.builder("signalroot.inbound.queue.rejected").register(meterRegistry);
+        failedCounter = Counter.builder("signalroot.inbound.queue.failed").register(meterRegistry);
+
+        Gauge.builder("signalroot.inbound.queue.depth", lanes, KeyedLaneExecutor::queuedCount)
+            .description("Inbound webhooks waiting on any lane")
+            .register(meterRegistry);
+        Gauge.builder("signalroot.inbound.queue.capacity", lanes, KeyedLaneExecutor::capacity)
+            .register(meterRegistry);
+        Gauge.builder("signalroot.inbound.workers.active", lanes, KeyedLaneExecutor::activeCount)
+            .register(meterRegistry);
+        Gauge.builder("signalroot.inbound.workers.utilization", lanes,
+                l -> (double) l.activeCount() / l.laneCount())
+            .description("Fraction of inbound lanes currently busy")
+            .register(meterRegistry);
+
+        logger.info("Async inbound mode enabled on {} lanes, capacity {}", lanes.laneCount(), lanes.capacity());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Queue a webhook for background processing on the lane for its external id.
+     * Returns the tracking id, or null when that lane is full.
+     */
+    public String submit(String source, Organization organization, String externalId, Runnable task) {
+        String trackingId = UUID.randomUUID().toString();
+        long start = System.nanoTime();
+
+        try {
+            lanes.submit(organization, source, externalId, () -> run(trackingId, source, organization, task));
+            acceptedCounter.increment();
+            return trackingId;
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return null;
+        } finally {
+            enqueueLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void run(String trackingId, String source, Organization organization, Runnable task) {
+        try {
+            task.run();
+            logger.info("Processed queued {} webhook {} for organization: {}", source, trackingId, organization.getName());
+        } catch (Exception e) {
+            failedCounter.increment();
+            logger.error("Failed to process queued {} webhook {} for organization: {}",
+                        source, trackingId, organization.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Alert;
+import com.signalroot.entity.Incident;
+import com.signalroot.repository.DeployEventRepository;
+import com.signalroot.repository.IncidentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Opens an incident for a newly stored alert and fills in its enrichment
+ * (related deploy, similar incident, suggested checks) from the CorrelationEngine.
+ */
+@Service
+@ConditionalOnProperty(name = "signalroot.service.mode", havingValue = "real")
+public class IncidentCorrelationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IncidentCorrelationService.class);
+    
+    @Autowired
+    private IncidentRepository incidentRepository;
+    
+    @Autowired
+    private DeployEventRepository deployEventRepository;
+    
+    @Autowired
+    private CorrelationEngine correlationEngine;
+    
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+    
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+    
+    /**
+     * The alert's service may be an unloaded reference, so its name is passed separately.
+     */
+    public Incident openIncident(Alert alert, String serviceName) {
+        com.signalroot.entity.Service service = alert.getService();
+        String serviceKey = DeployTimelineIndex.key(alert.getOrganization().getId().toString(), service.getId().toString());
+        String title = alert.getTitle() != null ? alert.getTitle() : alert.getSource() + " alert " + alert.getExternalId();
+        
+        long started = System.nanoTime();
+        CorrelationEngine.Enrichment<Incident> enrichment;
+        try {
+            enrichment = correlationEngine.correlate(
+                serviceKey, serviceName, title, alert.getSeverity().name(), alert.getStartedAt(),
+                () -> incidentRepository.findTop20ByServiceAndSeverityOrderByStartedAtDesc(service, alert.getSeverity()),
+                Incident::getTitle);
+        } catch (RuntimeException e) {
+            pipelineMetrics.record(PipelineMetrics.Stage.CORRELATION, alert.getSource(), PipelineMetrics.Outcome.FAILURE, started);
+            throw e;
+        }
+        pipelineMetrics.record(PipelineMetrics.Stage.CORRELATION, alert.getSource(), PipelineMetrics.Outcome.SUCCESS, started);
+        
+        Incident incident = new Incident(service, alert, title, alert.getSeverity(),
+                                         AlertLifecycleService.incidentStatus(alert.getStatus()));
+        incident.setStartedAt(alert.getStartedAt());
+        incident.setSimilarIncident(enrichment.similarIncident());
+        incident.setSuggestedChecks(enrichment.suggestedChecks());
+        incident.setPartial(enrichment.partial());
+        
+        if (enrichment.deploy() != null && enrichment.deploy().deploy().id() != null) {
+            // Reference only; the deploy row is not loaded
+            incident.setRelatedDeployEvent(deployEventRepository.getReferenceById(enrichment.deploy().deploy().id()));
+        }
+        
+        incidentRepository.save(incident);
+        
+        logger.info("🔍 Opened incident {} for alert {} (deploy: {}, similar: {}, {} µs {}{})",
+                   incident.getId(), alert.getExternalId(),
+                   enrichment.deploy() != null ? enrichment.deploy().deploy().externalId() : "none",
+                   enrichment.similarIncident() != null ? enrichment.similarIncident().getId() : "none",
+                   enrichment.totalMicros(), enrichment.stageMicros(),
+                   enrichment.partial() ? ", partial: missing " + enrichment.missedStages() : "");
+        
+        // Queued for the notification workers, after commit if a transaction is open
+        notificationDispatcher.dispatch(incident.getId().toString(), incident, alert.getSource());
+        return incident;
+    }
+}
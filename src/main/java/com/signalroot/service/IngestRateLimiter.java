@@ -0,0 +1,223 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Organization;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-organization token buckets in front of inbound webhook processing, so
+ * one noisy tenant cannot take the whole connection pool.
+ *
+ * Each bucket is a single AtomicLong updated with CAS: the upper 40 bits hold
+ * the last refill time in milliseconds since startup, the lower 24 bits the
+ * available tokens in thousandths. A rate of N tokens per second then refills
+ * exactly N thousandths per millisecond, and bursts up to 16,777 tokens fit.
+ *
+ * Limits default to signalroot.ratelimit.default-per-second / default-burst
+ * and can be overridden per organization key with
+ * signalroot.ratelimit.overrides=orgKey=rate:burst,...
+ */
+@Service
+public class IngestRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestRateLimiter.class);
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long UNITS_PER_TOKEN = 1000;
+    private static final long MAX_BURST = TOKEN_MASK / UNITS_PER_TOKEN;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${signalroot.ratelimit.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${signalroot.ratelimit.default-per-second:50}")
+    private long defaultPerSecond = 50;
+
+    @Value("${signalroot.ratelimit.default-burst:200}")
+    private long defaultBurst = 200;
+
+    @Value("${signalroot.ratelimit.overrides:}")
+    private String overrides = "";
+
+    private final long startMillis = System.currentTimeMillis();
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, long[]> limitOverrides = new HashMap<>();
+    private Counter admittedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        for (String entry : overrides.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] keyAndLimit = entry.trim().split("=", 2);
+            String[] rateAndBurst = keyAndLimit.length == 2 ? keyAndLimit[1].split(":", 2) : new String[0];
+            if (rateAndBurst.length != 2) {
+                throw new IllegalArgumentException("Invalid rate limit override, expected orgKey=rate:burst: " + entry);
+            }
+            limitOverrides.put(keyAndLimit[0].trim(),
+                new long[] {Long.parseLong(rateAndBurst[0].trim()), Long.parseLong(rateAndBurst[1].trim())});
+        }
+
+        admittedCounter = Counter.builder("signalroot.ratelimit.admitted").register(meterRegistry);
+        rejectedCounter = Counter.builder("signalroot.ratelimit.rejected")
+            .description("Inbound webhooks rejected with 429 by the per-organization limit")
+            .register(meterRegistry);
+
+        logger.info("Ingest rate limiting {}: {}/s, burst {} per organization, {} overrides",
+                   enabled ? "enabled" : "disabled", defaultPerSecond, defaultBurst, limitOverrides.size());
+    }
+
+    /**
+     * Take one token from the organization's bucket. False means the request should get a 429.
+     */
+    public boolean tryAcquire(Organization organization) {
+        return tryAcquire(organization, 1);
+    }
+
+    /**
+     * Take a token per event, all or none, for requests that carry several events.
+     * Always false when more tokens are asked for than the burst, see maxTokens().
+     */
+    public boolean tryAcquire(Organization organization, int tokens) {
+        if (!enabled) {
+            return true;
+        }
+
+        Bucket bucket = buckets.computeIfAbsent(organization.getOrganizationKey(), this::newBucket);
+        if (bucket.tryAcquire(System.currentTimeMillis() - startMillis, tokens)) {
+            bucket.admitted.add(tokens);
+            admittedCounter.increment(tokens);
+            return true;
+        }
+        bucket.rejected.add(tokens);
+        rejectedCounter.increment(tokens);
+        return false;
+    }
+
+    /**
+     * Most tokens one request can take from the organization's bucket, its burst.
+     */
+    public int maxTokens(Organization organization) {
+        if (!enabled) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) (buckets.computeIfAbsent(organization.getOrganizationKey(), this::newBucket).burstUnits / UNITS_PER_TOKEN);
+    }
+
+    /**
+     * Whole seconds until the organization's bucket has a token again, at least 1.
+     */
+    public long retryAfterSeconds(Organization organization) {
+        return retryAfterSeconds(organization, 1);
+    }
+
+    /**
+     * Whole seconds until the organization's bucket holds the given number of tokens, at least 1.
+     */
+    public long retryAfterSeconds(Organization organization, int tokens) {
+        Bucket bucket = buckets.get(organization.getOrganizationKey());
+        if (bucket == null) {
+            return 1;
+        }
+        long missingUnits = tokens * UNITS_PER_TOKEN - (bucket.state.get() & TOKEN_MASK);
+        long millis = missingUnits <= 0 ? 0 : (missingUnits + bucket.ratePerSecond - 1) / bucket.ratePerSecond;
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    /**
+     * Admitted and rejected counts per organization key, plus its configured limit.
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new TreeMap<>();
+        buckets.forEach((organizationKey, bucket) -> {
+            Map<String, Long> bucketStats = new LinkedHashMap<>();
+            bucketStats.put("admitted", bucket.admitted.sum());
+            bucketStats.put("rejected", bucket.rejected.sum());
+            bucketStats.put("ratePerSecond", bucket.ratePerSecond);
+            bucketStats.put("burst", bucket.burstUnits / UNITS_PER_TOKEN);
+            stats.put(organizationKey, bucketStats);
+        });
+        return stats;
+    }
+
+    private Bucket newBucket(String organizationKey) {
+        long[] limit = limitOverrides.getOrDefault(organizationKey, new long[] {defaultPerSecond, defaultBurst});
+        long ratePerSecond = Math.max(1, limit[0]);
+        long burst = Math.min(MAX_BURST, Math.max(1, limit[1]));
+        return new Bucket(ratePerSecond, burst * UNITS_PER_TOKEN, System.currentTimeMillis() - startMillis);
+    }
+
+    static final class Bucket {
+        final long ratePerSecond;
+        final long burstUnits;
+        final AtomicLong state;
+        final LongAdder admitted = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+
+        Bucket(long ratePerSecond, long burstUnits, long nowMillis) {
+            this.ratePerSecond = ratePerSecond;
+            this.burstUnits = burstUnits;
+            // Start full
+            this.state = new AtomicLong(pack(nowMillis, burstUnits));
+        }
+
+        boolean tryAcquire(long nowMillis) {
+            return tryAcquire(nowMillis, 1);
+        }
+
+        boolean tryAcquire(long nowMillis, int tokens) {
+            long cost = tokens * UNITS_PER_TOKEN;
+            if (cost > burstUnits) {
+                return false;
+            }
+
+            while (true) {
+                long current = state.get();
+                long last = current >>> TOKEN_BITS;
+                long units = current & TOKEN_MASK;
+
+                // Clock steps backwards are treated as no time passing
+                long elapsed = Math.max(0, nowMillis - last);
+                // Checking elapsed first keeps the product small enough not to overflow
+                long refilled = elapsed >= burstUnits || elapsed * ratePerSecond >= burstUnits
+                    ? burstUnits
+                    : Math.min(burstUnits, units + elapsed * ratePerSecond);
+                long refillTime = Math.max(last, nowMillis);
+
+                if (refilled < cost) {
+                    // Publish the refill only when something changed, so rejected callers rarely write
+                    if (refilled != units && !state.compareAndSet(current, pack(refillTime, refilled))) {
+                        continue;
+                    }
+                    return false;
+                }
+                if (state.compareAndSet(current, pack(refillTime, refilled - cost))) {
+                    return true;
+                }
+            }
+        }
+
+        private static long pack(long millis, long units) {
+            return (millis << TOKEN_BITS) | units;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Organization;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-key ordering for inbound webhook processing.
+ *
+ * Each event is keyed by (organization, source, external id), so a trigger and
+ * a resolve for the same incident always run one after the other in arrival
+ * order while events for different keys run in parallel. The async mode queues
+ * events on a fixed set of single-threaded lanes, each with its own bounded
+ * queue; a full lane rejects rather than blocking, and the caller answers 429.
+ * The sync mode runs the event on the request thread under a fair striped lock
+ * for its key, so it is not capped by the lane count. Batch endpoints use
+ * neither and give no ordering against single webhooks for the same key.
+ */
+@Service
+public class KeyedLaneExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyedLaneExecutor.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${signalroot.inbound.lanes.count:16}")
+    private int laneCount = 16;
+
+    @Value("${signalroot.inbound.lanes.capacity:256}")
+    private int laneCapacity = 256;
+
+    @Value("${signalroot.inbound.lanes.sync-timeout-seconds:30}")
+    private long syncTimeoutSeconds = 30;
+
+    @Value("${signalroot.inbound.lanes.sync-stripes:1024}")
+    private int syncStripes = 1024;
+
+    private ThreadPoolExecutor[] lanes;
+    private Counter[] executedCounters;
+    private ReentrantLock[] keyLocks;
+    private Counter syncTimeoutCounter;
+
+    @PostConstruct
+    public void start() {
+        lanes = new ThreadPoolExecutor[laneCount];
+        executedCounters = new Counter[laneCount];
+
+        for (int i = 0; i < laneCount; i++) {
+            String name = "inbound-lane-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(laneCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+            String lane = String.valueOf(i);
+            Gauge.builder("signalroot.inbound.lane.depth", lanes[i], e -> e.getQueue().size())
+                .description("Inbound webhooks waiting on one lane")
+                .tag("lane", lane)
+                .register(meterRegistry);
+            executedCounters[i] = Counter.builder("signalroot.inbound.lane.executed")
+                .tag("lane", lane)
+                .register(meterRegistry);
+        }
+
+        Gauge.builder("signalroot.inbound.lanes.skew", this, KeyedLaneExecutor::skew)
+            .description("Deepest lane over the mean lane depth; 1 is even, 0 is idle")
+            .register(meterRegistry);
+
+        keyLocks = new ReentrantLock[syncStripes];
+        for (int i = 0; i < syncStripes; i++) {
+            // Fair, so waiters for one key take their turn in arrival order
+            keyLocks[i] = new ReentrantLock(true);
+        }
+        syncTimeoutCounter = Counter.builder("signalroot.inbound.lane.sync.timeouts")
+            .description("Synchronous webhooks turned away after waiting on an earlier event for the same key")
+            .register(meterRegistry);
+
+        logger.info("Inbound processing lanes: {} lanes, {} queued per lane, {} sync key stripes",
+                    laneCount, laneCapacity, syncStripes);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (lanes == null) {
+            return;
+        }
+
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                logger.warn("Inbound lanes did not drain in time, {} webhooks still queued", queuedCount());
+                break;
+            }
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue a task on the key's lane.
+     *
+     * @throws RejectedExecutionException when that lane's queue is full
+     */
+    public CompletableFuture<Void> submit(Organization organization, String source, String externalId, Runnable task) {
+        int lane = laneOf(organization, source, externalId);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        lanes[lane].execute(() -> {
+            try {
+                task.run();
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                executedCounters[lane].increment();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Run a task on the calling thread once earlier events for the same key have
+     * finished, for the synchronous inbound mode. Returns false without running the
+     * task when the key stays busy for the sync timeout, so the caller can ask the
+     * sender to retry. Exceptions thrown by the task are rethrown to the caller.
+     */
+    public boolean run(Organization organization, String source, String externalId, Runnable task) {
+        ReentrantLock lock = keyLocks[Math.floorMod(keyHash(organization, source, externalId), keyLocks.length)];
+        try {
+            if (!lock.tryLock(syncTimeoutSeconds, TimeUnit.SECONDS)) {
+                syncTimeoutCounter.increment();
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + source + " event " + externalId);
+        }
+
+        try {
+            task.run();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int laneOf(Organization organization, String source, String externalId) {
+        return Math.floorMod(keyHash(organization, source, externalId), lanes.length);
+    }
+
+    private static int keyHash(Organization organization, String source, String externalId) {
+        int hash = 31 * (31 * organization.getId().hashCode() + source.hashCode()) + Objects.hashCode(externalId);
+        // Spread the high bits so keys that differ only there do not share a lane
+        return hash ^ (hash >>> 16);
+    }
+
+    public int laneCount() {
+        return laneCount;
+    }
+
+    public int capacity() {
+        return laneCount * laneCapacity;
+    }
+
+    public int queuedCount() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    public int activeCount() {
+        int active = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            active += lane.getActiveCount();
+        }
+        return active;
+    }
+
+    double skew() {
+        int deepest = 0;
+        int total = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            int depth = lane.getQueue().size() + lane.getActiveCount();
+            deepest = Math.max(deepest, depth);
+            total += depth;
+        }
+        return total == 0 ? 0.0 : (double) deepest * lanes.length / total;
+    }
+
+    /**
+     * Queued and executed counts per lane, plus the current skew.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int[] depths = new int[lanes.length];
+        long[] executed = new long[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            depths[i] = lanes[i].getQueue().size();
+            executed[i] = lanes[i].getCompletedTaskCount();
+        }
+        stats.put("lanes", lanes.length);
+        stats.put("capacityPerLane", laneCapacity);
+        stats.put("depths", depths);
+        stats.put("executed", executed);
+        stats.put("skew", skew());
+        return stats;
+    }
+}
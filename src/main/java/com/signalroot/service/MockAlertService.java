@@ -20,21 +20,15 @@ public class MockAlertService {
     @Autowired
     private IdempotencyService idempotencyService;
     
+    @Autowired
+    private MockLatencyModel latencyModel;
+    
     public void processPagerDutyAlert(PagerDutyWebhookDTO webhook) {
         String externalId = webhook.getPayload().getIncident().getId();
         String source = "pagerduty";
         
-        // Idempotency check
-        if (!idempotencyService.shouldProcessWebhook(webhook.getWebhookId(), source, externalId)) {
-            return;
-        }
-        
-        // Mark webhook as processed
-        idempotencyService.markWebhookProcessed(webhook.getWebhookId(), source, externalId);
-        
-        // Check if incident should be created
-        if (!idempotencyService.shouldCreateIncident(externalId, source)) {
-            logger.info("Alert {} already has incident, skipping", externalId);
+        // Idempotency check; a duplicate or concurrent delivery is skipped
+        if (idempotencyService.tryAcquire(source, externalId) != AcquireResult.ACQUIRED) {
             return;
         }
         
@@ -43,13 +37,16 @@ public class MockAlertService {
         // Simulate alert processing
         alertStore.put(source + ":" + externalId, LocalDateTime.now());
         
-        // Simulate delay
+        // Simulated downstream latency and injected failures
         try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            latencyModel.simulate("mock-alert.pagerduty", "constant:100");
+        } catch (RuntimeException e) {
+            idempotencyService.fail(source, externalId);
+            throw e;
         }
         
+        idempotencyService.complete(source, externalId);
+        
         logger.info("PagerDuty alert processed successfully: {}", externalId);
     }
     
@@ -57,17 +54,8 @@ public class MockAlertService {
         String externalId = webhook.getId();
         String source = "cloudwatch";
         
-        // Idempotency check
-        if (!idempotencyService.shouldProcessWebhook(webhook.getId(), source, externalId)) {
-            return;
-        }
-        
-        // Mark webhook as processed
-        idempotencyService.markWebhookProcessed(webhook.getId(), source, externalId);
-        
-        // Check if incident should be created
-        if (!idempotencyService.shouldCreateIncident(externalId, source)) {
-            logger.info("Alert {} already has incident, skipping", externalId);
+        // Idempotency check; a duplicate or concurrent delivery is skipped
+        if (idempotencyService.tryAcquire(source, externalId) != AcquireResult.ACQUIRED) {
             return;
         }
         
@@ -76,13 +64,16 @@ public class MockAlertService {
         // Simulate alert processing
         alertStore.put(source + ":" + externalId, LocalDateTime.now());
         
-        // Simulate delay
+        // Simulated downstream latency and injected failures
         try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            latencyModel.simulate("mock-alert.cloudwatch", "constant:100");
+        } catch (RuntimeException e) {
+            idempotencyService.fail(source, externalId);
+            throw e;
         }
         
+        idempotencyService.complete(source, externalId);
+        
         logger.info("CloudWatch alert processed successfully: {}", externalId);
     }
     
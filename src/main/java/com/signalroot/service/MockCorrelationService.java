@@ -5,15 +5,20 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class MockCorrelationService {
     
     private static final Logger logger = LoggerFactory.getLogger(MockCorrelationService.class);
+    private static final int SIMILAR_CANDIDATES = 20;
     private final Map<String, MockIncident> incidentStore = new ConcurrentHashMap<>();
     
     @Autowired
@@ -22,7 +27,13 @@ public class MockCorrelationService {
     @Autowired
     private IdempotencyService idempotencyService;
     
-    public void processAlert(String externalAlertId, String source) {
+    @Autowired
+    private CorrelationEngine correlationEngine;
+    
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+    
+    public void processAlert(String externalAlertId, String source, String serviceName, String title, String severity) {
         logger.info("Processing correlation for alert: {} from {}", externalAlertId, source);
         
         // Check if incident should be created for this alert
@@ -31,19 +42,34 @@ public class MockCorrelationService {
             return;
         }
         
+        LocalDateTime startedAt = LocalDateTime.now();
+        
         // Create mock incident
         MockIncident incident = new MockIncident();
         incident.setId(UUID.randomUUID().toString());
-        incident.setTitle("Mock Alert: " + externalAlertId);
-        incident.setService("mock-service");
-        incident.setSeverity("HIGH");
+        incident.setTitle(title);
+        incident.setService(serviceName);
+        incident.setSeverity(severity);
         incident.setStatus("ACTIVE");
-        incident.setStartedAt(LocalDateTime.now());
+        incident.setStartedAt(startedAt);
+        
+        // Correlate against indexed deploys and earlier incidents for the same service and severity
+        long correlationStarted = System.nanoTime();
+        CorrelationEngine.Enrichment<MockIncident> enrichment;
+        try {
+            enrichment = correlationEngine.correlate(
+                DeployTimelineIndex.mockKey(serviceName), serviceName, title, severity, startedAt,
+                () -> recentIncidents(serviceName, severity), MockIncident::getTitle);
+        } catch (RuntimeException e) {
+            pipelineMetrics.record(PipelineMetrics.Stage.CORRELATION, source, PipelineMetrics.Outcome.FAILURE, correlationStarted);
+            throw e;
+        }
+        pipelineMetrics.record(PipelineMetrics.Stage.CORRELATION, source, PipelineMetrics.Outcome.SUCCESS, correlationStarted);
         
-        // Simulate correlation logic
-        incident.setRecentDeploy("GitHub deploy #123 (15 mins ago) - payment-service v2.4.1");
-        incident.setSimilarIncident("Similar incident 2 days ago - Same service, same error pattern");
-        incident.setSuggestedChecks("1. Check payment-service health endpoints\n2. Review recent error logs\n3. Verify database connection\n4. Check Redis cache status");
+        incident.setRecentDeploy(describeDeploy(enrichment.deploy()));
+        incident.setSimilarIncident(describeSimilar(enrichment.similarIncident()));
+        incident.setSuggestedChecks(enrichment.suggestedChecks());
+        incident.setPartial(enrichment.partial());
         
         // Associate alert with incident
         idempotencyService.associateAlertWithIncident(externalAlertId, source, incident.getId());
@@ -51,18 +77,48 @@ public class MockCorrelationService {
         incidentStore.put(incident.getId(), incident);
         
         // Send notification (with idempotency check)
+        long notificationStarted = System.nanoTime();
         try {
             if (idempotencyService.shouldSendNotification(incident.getId())) {
                 notificationService.sendEnrichedNotification(incident);
                 idempotencyService.markNotificationSent(incident.getId());
+                pipelineMetrics.record(PipelineMetrics.Stage.NOTIFICATION, source, PipelineMetrics.Outcome.SUCCESS, notificationStarted);
             } else {
                 logger.info("Skipping duplicate notification for incident: {}", incident.getId());
+                pipelineMetrics.record(PipelineMetrics.Stage.NOTIFICATION, source, PipelineMetrics.Outcome.REJECTED, notificationStarted);
             }
         } catch (Exception e) {
             logger.error("Failed to send notification", e);
+            pipelineMetrics.record(PipelineMetrics.Stage.NOTIFICATION, source, PipelineMetrics.Outcome.FAILURE, notificationStarted);
         }
         
-        logger.info("Correlation completed for incident: {}", incident.getId());
+        logger.info("Correlation completed for incident: {} in {} µs {}", incident.getId(),
+                   enrichment.totalMicros(), enrichment.stageMicros());
+    }
+    
+    private List<MockIncident> recentIncidents(String serviceName, String severity) {
+        return incidentStore.values().stream()
+            .filter(i -> serviceName.equals(i.getService()) && severity.equals(i.getSeverity()))
+            .sorted(Comparator.comparing(MockIncident::getStartedAt).reversed())
+            .limit(SIMILAR_CANDIDATES)
+            .collect(Collectors.toList());
+    }
+    
+    private String describeDeploy(CorrelationEngine.RankedDeploy ranked) {
+        if (ranked == null) {
+            return "No deploys in the lookback window";
+        }
+        DeployTimelineIndex.Deploy deploy = ranked.deploy();
+        return String.format("%s deploy %s (%d mins ago) - %s", deploy.source(), deploy.externalId(),
+            ranked.age().toMinutes(), deploy.version() != null ? deploy.version() : deploy.status());
+    }
+    
+    private String describeSimilar(MockIncident similar) {
+        if (similar == null) {
+            return "No similar incidents";
+        }
+        long minutesAgo = Duration.between(similar.getStartedAt(), LocalDateTime.now()).toMinutes();
+        return String.format("Similar incident %d mins ago - %s", minutesAgo, similar.getTitle());
     }
     
     public MockIncident getIncident(String id) {
@@ -79,6 +135,7 @@ public class MockCorrelationService {
         private String recentDeploy;
         private String similarIncident;
         private String suggestedChecks;
+        private boolean partial;
         
         // Getters and setters
         public String getId() { return id; }
@@ -99,5 +156,7 @@ public class MockCorrelationService {
         public void setSimilarIncident(String similarIncident) { this.similarIncident = similarIncident; }
         public String getSuggestedChecks() { return suggestedChecks; }
         public void setSuggestedChecks(String suggestedChecks) { this.suggestedChecks = suggestedChecks; }
+        public boolean isPartial() { return partial; }
+        public void setPartial(boolean partial) { this.partial = partial; }
     }
 }
@@ -4,6 +4,7 @@ import com.signalroot.dto.GitHubDeployWebhookDTO;
 import com.signalroot.dto.JenkinsDeployWebhookDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -16,6 +17,9 @@ public class MockDeployService {
     private static final Logger logger = LoggerFactory.getLogger(MockDeployService.class);
     private final Map<String, LocalDateTime> deployStore = new ConcurrentHashMap<>();
     
+    @Autowired
+    private MockLatencyModel latencyModel;
+    
     public void processGitHubDeploy(GitHubDeployWebhookDTO webhook) {
         String deployId = webhook.getDeployment().getId();
         logger.info("Processing GitHub deploy: {} for {}", deployId, webhook.getRepository().getName());
@@ -23,12 +27,8 @@ public class MockDeployService {
         // Simulate deploy processing
         deployStore.put("github:" + deployId, LocalDateTime.now());
         
-        // Simulate delay
-        try {
-            Thread.sleep(150);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        // Simulated downstream latency and injected failures
+        latencyModel.simulate("mock-deploy.github", "constant:150");
         
         logger.info("GitHub deploy processed successfully: {}", deployId);
     }
@@ -40,12 +40,8 @@ public class MockDeployService {
         // Simulate deploy processing
         deployStore.put("jenkins:" + deployId, LocalDateTime.now());
         
-        // Simulate delay
-        try {
-            Thread.sleep(150);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        // Simulated downstream latency and injected failures
+        latencyModel.simulate("mock-deploy.jenkins", "constant:150");
         
         logger.info("Jenkins deploy processed successfully: {}", deployId);
     }
@@ -4,8 +4,11 @@ import com.signalroot.dto.GitHubDeployWebhookDTO;
 import com.signalroot.dto.JenkinsDeployWebhookDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.concurrent.ConcurrentHashMap;
@@ -17,6 +20,15 @@ public class MockGitHubService {
     private static final Logger logger = LoggerFactory.getLogger(MockGitHubService.class);
     private final Map<String, GitHubDeploy> deployStore = new ConcurrentHashMap<>();
     
+    @Autowired
+    private DeployTimelineIndex timelineIndex;
+    
+    @Autowired
+    private MockLatencyModel latencyModel;
+    
+    @Value("${signalroot.correlation.deploy-lookback-minutes:120}")
+    private long deployLookbackMinutes = 120;
+    
     public void processGitHubDeploy(GitHubDeployWebhookDTO webhook) {
         GitHubDeployWebhookDTO.Deployment deployment = webhook.getDeployment();
         
@@ -39,13 +51,11 @@ public class MockGitHubService {
         
         // Store in mock database
         deployStore.put(deployment.getId(), deploy);
+        timelineIndex.record(DeployTimelineIndex.mockKey(deploy.repository),
+            new DeployTimelineIndex.Deploy(null, "github", deploy.id, deploy.version, deploy.status, deploy.startedAt));
         
-        // Simulate processing delay
-        try {
-            Thread.sleep(200);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        // Simulated downstream latency and injected failures
+        latencyModel.simulate("mock-github.github", "constant:200");
         
         logger.info("✅ GitHub deploy processed successfully");
         logger.info("   Stored deploy: {} for {}", deployment.getId(), webhook.getRepository().getName());
@@ -57,22 +67,26 @@ public class MockGitHubService {
         // Mock Jenkins processing
         String deployId = webhook.getJob().getName() + "-" + webhook.getBuild().getNumber();
         
-        try {
-            Thread.sleep(150);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        JenkinsDeployWebhookDTO.Build build = webhook.getBuild();
+        timelineIndex.record(DeployTimelineIndex.mockKey(webhook.getJob().getName()),
+            new DeployTimelineIndex.Deploy(null, "jenkins", deployId, build.getNumber(), build.getStatus().name(),
+                build.getTimestamp().atZone(ZoneId.systemDefault()).toLocalDateTime()));
+        
+        // Simulated downstream latency and injected failures
+        latencyModel.simulate("mock-github.jenkins", "constant:150");
         
         logger.info("Jenkins deploy processed successfully: {}", deployId);
     }
     
     public GitHubDeploy getRecentDeploy(String serviceName) {
-        // Return most recent deploy for the service
-        return deployStore.values().stream()
-            .filter(d -> d.repository.equals(serviceName))
-            .sorted((a, b) -> b.startedAt.compareTo(a.startedAt))
-            .findFirst()
-            .orElse(null);
+        // Newest GitHub deploy in the lookback window; Jenkins deploys share the timeline and are skipped
+        for (DeployTimelineIndex.Deploy deploy : timelineIndex.deploysBefore(DeployTimelineIndex.mockKey(serviceName),
+                LocalDateTime.now(), Duration.ofMinutes(deployLookbackMinutes))) {
+            if ("github".equals(deploy.source())) {
+                return deployStore.get(deploy.externalId());
+            }
+        }
+        return null;
     }
     
     public static class GitHubDeploy {
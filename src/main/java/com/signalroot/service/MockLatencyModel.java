@@ -0,0 +1,228 @@
+package com.signalroot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulated downstream latency and failures for the mock services, configured
+ * per operation so capacity tests in mock mode see realistic behaviour rather
+ * than a fixed sleep.
+ *
+ * signalroot.mock.latency.OPERATION=DISTRIBUTION[;error-rate=P][;spike-rate=P][;spike-millis=MS]
+ *
+ * Distributions, in milliseconds:
+ *   none
+ *   constant:100
+ *   uniform:50-150
+ *   lognormal:80,0.6           median and sigma
+ *   histogram:/path/file.hgrm  sampled from recorded percentiles ("value percentile" per line,
+ *                              as printed by HdrHistogram outputPercentileDistribution)
+ *
+ * A spike adds spike-millis on top of the sampled delay; an injected error throws
+ * IllegalStateException after the delay. Operations without a property use the
+ * default the calling service passes in.
+ */
+@Service
+public class MockLatencyModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(MockLatencyModel.class);
+
+    private static final String PREFIX = "signalroot.mock.latency.";
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Sleep for one sample of the operation's latency, then throw if an error was drawn.
+     */
+    public void simulate(String operation, String defaultSpec) {
+        Operation model = operations.computeIfAbsent(operation, name -> configure(name, defaultSpec));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        double millis = model.distribution.sample(random);
+        if (model.spikeRate > 0 && random.nextDouble() < model.spikeRate) {
+            millis += model.spikeMillis;
+            model.spikes.increment();
+        }
+
+        long micros = (long) (millis * 1000);
+        if (micros > 0) {
+            try {
+                TimeUnit.MICROSECONDS.sleep(micros);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            model.delay.record(micros, TimeUnit.MICROSECONDS);
+        }
+
+        if (model.errorRate > 0 && random.nextDouble() < model.errorRate) {
+            model.errors.increment();
+            throw new IllegalStateException("Injected failure in mock " + operation);
+        }
+    }
+
+    private Operation configure(String operation, String defaultSpec) {
+        String spec = environment.getProperty(PREFIX + operation, defaultSpec);
+        Operation model = parse(spec);
+        model.delay = Timer.builder("signalroot.mock.latency")
+            .tag("operation", operation)
+            .register(meterRegistry);
+        model.errors = Counter.builder("signalroot.mock.latency.errors").tag("operation", operation).register(meterRegistry);
+        model.spikes = Counter.builder("signalroot.mock.latency.spikes").tag("operation", operation).register(meterRegistry);
+
+        logger.info("Mock latency for {}: {}", operation, spec);
+        return model;
+    }
+
+    static Operation parse(String spec) {
+        String[] parts = spec.split(";");
+        Operation model = new Operation(distribution(parts[0].trim()));
+
+        for (int i = 1; i < parts.length; i++) {
+            String[] option = parts[i].split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Invalid mock latency option: " + parts[i]);
+            }
+            double value = Double.parseDouble(option[1].trim());
+            switch (option[0].trim()) {
+                case "error-rate" -> model.errorRate = value;
+                case "spike-rate" -> model.spikeRate = value;
+                case "spike-millis" -> model.spikeMillis = value;
+                default -> throw new IllegalArgumentException("Unknown mock latency option: " + option[0]);
+            }
+        }
+        return model;
+    }
+
+    private static Distribution distribution(String spec) {
+        String[] kindAndArgs = spec.split(":", 2);
+        String args = kindAndArgs.length == 2 ? kindAndArgs[1].trim() : "";
+
+        switch (kindAndArgs[0].trim()) {
+            case "none":
+                return random -> 0;
+            case "constant": {
+                double millis = Double.parseDouble(args);
+                return random -> millis;
+            }
+            case "uniform": {
+                String[] bounds = args.split("-", 2);
+                double low = Double.parseDouble(bounds[0].trim());
+                double high = Double.parseDouble(bounds[1].trim());
+                return random -> low + random.nextDouble() * (high - low);
+            }
+            case "lognormal": {
+                String[] params = args.split(",", 2);
+                double median = Double.parseDouble(params[0].trim());
+                double sigma = Double.parseDouble(params[1].trim());
+                return random -> median * Math.exp(sigma * random.nextGaussian());
+            }
+            case "histogram":
+                return RecordedDistribution.load(args);
+            default:
+                throw new IllegalArgumentException("Unknown mock latency distribution: " + spec);
+        }
+    }
+
+    @FunctionalInterface
+    interface Distribution {
+        double sample(ThreadLocalRandom random);
+    }
+
+    static final class Operation {
+        private final Distribution distribution;
+        private double errorRate;
+        private double spikeRate;
+        private double spikeMillis;
+        private Timer delay;
+        private Counter errors;
+        private Counter spikes;
+
+        Operation(Distribution distribution) {
+            this.distribution = distribution;
+        }
+    }
+
+    /**
+     * Inverse CDF built from recorded (value, percentile) points, interpolated linearly between them.
+     */
+    static final class RecordedDistribution implements Distribution {
+        private final double[] values;
+        private final double[] percentiles;
+
+        private RecordedDistribution(double[] values, double[] percentiles) {
+            this.values = values;
+            this.percentiles = percentiles;
+        }
+
+        static RecordedDistribution load(String path) {
+            List<double[]> points = new ArrayList<>();
+            try {
+                for (String line : Files.readAllLines(Paths.get(path))) {
+                    String[] columns = line.trim().split("\\s+");
+                    // Header, comment and summary lines do not start with two numbers
+                    if (columns.length < 2 || !Character.isDigit(columns[0].charAt(0))) {
+                        continue;
+                    }
+                    try {
+                        points.add(new double[] {Double.parseDouble(columns[0]), Double.parseDouble(columns[1])});
+                    } catch (NumberFormatException e) {
+                        // Not a data line
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read latency histogram " + path, e);
+            }
+            if (points.isEmpty()) {
+                throw new IllegalArgumentException("No percentile lines in latency histogram " + path);
+            }
+
+            points.sort((a, b) -> Double.compare(a[1], b[1]));
+            double[] values = new double[points.size()];
+            double[] percentiles = new double[points.size()];
+            for (int i = 0; i < points.size(); i++) {
+                values[i] = points.get(i)[0];
+                percentiles[i] = points.get(i)[1];
+            }
+            return new RecordedDistribution(values, percentiles);
+        }
+
+        @Override
+        public double sample(ThreadLocalRandom random) {
+            double p = random.nextDouble();
+            if (p <= percentiles[0]) {
+                return values[0];
+            }
+            for (int i = 1; i < percentiles.length; i++) {
+                if (p <= percentiles[i]) {
+                    double span = percentiles[i] - percentiles[i - 1];
+                    double fraction = span == 0 ? 1 : (p - percentiles[i - 1]) / span;
+                    return values[i - 1] + fraction * (values[i] - values[i - 1]);
+                }
+            }
+            return values[values.length - 1];
+        }
+    }
+}
@@ -27,6 +27,9 @@ public class MockNotificationService {
                    getSeverityEmoji(incident.getSeverity()), 
                    incident.getService(), 
                    incident.getTitle());
+        if (incident.isPartial()) {
+            logger.info("⚠️ _Partial enrichment: some lookups timed out_");
+        }
         logger.info("");
         logger.info("🔍 **What to check first:**");
         logger.info("   {}", incident.getSuggestedChecks());
@@ -7,14 +7,13 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service("mockOrganizationService")
 public class MockOrganizationService implements OrganizationServiceInterface {
     
     private static final Logger logger = LoggerFactory.getLogger(MockOrganizationService.class);
     
-    private final Map<String, Organization> organizations = new ConcurrentHashMap<>();
+    private final TenantRegistry registry = new TenantRegistry();
     
     public MockOrganizationService() {
         initializeMockOrganizations();
@@ -29,7 +28,7 @@ public class MockOrganizationService implements OrganizationServiceInterface {
         acmeCorp.setWebhookSecret("a1b2c3d4e5f6g7h8i9j0k1l2m3n4o5p6");
         acmeCorp.setCreatedAt(LocalDateTime.now());
         acmeCorp.setUpdatedAt(LocalDateTime.now());
-        organizations.put("acme-corp", acmeCorp);
+        registry.put(acmeCorp);
         
         Organization techStart = new Organization();
         techStart.setId(UUID.fromString("660f9511-f3ac-52e5-b827-557766551111"));
@@ -38,7 +37,7 @@ public class MockOrganizationService implements OrganizationServiceInterface {
         techStart.setWebhookSecret("b2c3d4e5f6g7h8i9j0k1l2m3n4o5p6q7");
         techStart.setCreatedAt(LocalDateTime.now());
         techStart.setUpdatedAt(LocalDateTime.now());
-        organizations.put("tech-start", techStart);
+        registry.put(techStart);
         
         Organization dataFlow = new Organization();
         dataFlow.setId(UUID.fromString("77106222-f4bd-63f6-c938-668877662222"));
@@ -47,9 +46,9 @@ public class MockOrganizationService implements OrganizationServiceInterface {
         dataFlow.setWebhookSecret("c3d4e5f6g7h8i9j0k1l2m3n4o5p6q7r8");
         dataFlow.setCreatedAt(LocalDateTime.now());
         dataFlow.setUpdatedAt(LocalDateTime.now());
-        organizations.put("dataflow", dataFlow);
+        registry.put(dataFlow);
         
-        logger.info("Initialized {} mock organizations", organizations.size());
+        logger.info("Initialized {} mock organizations", registry.size());
     }
     
     public Organization createOrganization(String name) {
@@ -66,25 +65,30 @@ public class MockOrganizationService implements OrganizationServiceInterface {
         organization.setCreatedAt(LocalDateTime.now());
         organization.setUpdatedAt(LocalDateTime.now());
         
-        organizations.put(organizationKey, organization);
+        registry.put(organization);
         logger.info("Created organization: {} with key: {}", organization.getName(), organization.getOrganizationKey());
         
         return organization;
     }
     
     public Organization findByOrganizationKey(String organizationKey) {
-        return organizations.get(organizationKey);
+        return registry.byKey(organizationKey);
     }
     
     public Organization findById(UUID id) {
-        return organizations.values().stream()
-            .filter(org -> org.getId().equals(id))
-            .findFirst()
-            .orElse(null);
+        return registry.byId(id);
+    }
+    
+    public Organization findByWebhookSecret(String webhookSecret) {
+        return registry.byWebhookSecret(webhookSecret);
+    }
+    
+    public Organization findBySlackWorkspaceId(String slackWorkspaceId) {
+        return registry.bySlackWorkspaceId(slackWorkspaceId);
     }
     
     public List<Organization> findAll() {
-        return new ArrayList<>(organizations.values());
+        return new ArrayList<>(registry.all());
     }
     
     public Organization updateOrganization(UUID id, String name) {
@@ -95,6 +99,7 @@ public class MockOrganizationService implements OrganizationServiceInterface {
         
         organization.setName(name);
         organization.setUpdatedAt(LocalDateTime.now());
+        registry.put(organization);
         
         return organization;
     }
@@ -105,12 +110,12 @@ public class MockOrganizationService implements OrganizationServiceInterface {
             throw new IllegalArgumentException("Organization not found: " + id);
         }
         
-        organizations.remove(organization.getOrganizationKey());
+        registry.remove(id);
         logger.info("Deleted organization: {}", id);
     }
     
     public boolean existsByOrganizationKey(String organizationKey) {
-        return organizations.containsKey(organizationKey);
+        return registry.byKey(organizationKey) != null;
     }
     
     private String generateOrganizationKey(String name) {
@@ -145,6 +150,7 @@ public class MockOrganizationService implements OrganizationServiceInterface {
         organization.setSlackConnectedAt(LocalDateTime.now());
         organization.setSlackEnabled(true);
         organization.setUpdatedAt(LocalDateTime.now());
+        registry.put(organization);
         
         logger.info("Connected Slack workspace: {} to organization: {}", workspaceName, organization.getName());
         
@@ -163,6 +169,7 @@ public class MockOrganizationService implements OrganizationServiceInterface {
         organization.setSlackConnectedAt(null);
         organization.setSlackEnabled(false);
         organization.setUpdatedAt(LocalDateTime.now());
+        registry.put(organization);
         
         logger.info("Disconnected Slack from organization: {}", organization.getName());
         
@@ -177,6 +184,7 @@ public class MockOrganizationService implements OrganizationServiceInterface {
         
         organization.setSlackChannel(channel);
         organization.setUpdatedAt(LocalDateTime.now());
+        registry.put(organization);
         
         logger.info("Updated Slack channel to: {} for organization: {}", channel, organization.getName());
         
@@ -1,5 +1,9 @@
 package com.signalroot.service;
 
+import com.signalroot.dto.BatchItemResult;
+import com.signalroot.dto.BatchRecord;
+import com.signalroot.dto.CloudWatchAlarmEvent;
+import com.signalroot.dto.PagerDutyAlertEvent;
 import com.signalroot.entity.Alert;
 import com.signalroot.entity.Organization;
 import org.slf4j.Logger;
@@ -8,6 +12,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -21,48 +27,87 @@ public class MockTenantAlertService implements TenantAlertServiceInterface {
     @Autowired
     private IdempotencyService idempotencyService;
     
-    public void processPagerDutyAlert(Map<String, Object> payload, Organization organization) {
+    @Autowired
+    private MockLatencyModel latencyModel;
+    
+    public void processPagerDutyAlert(PagerDutyAlertEvent event, Organization organization) {
+        storePagerDutyAlert(event, organization);
+    }
+    
+    public void processCloudWatchAlert(CloudWatchAlarmEvent event, Organization organization) {
+        storeCloudWatchAlert(event, organization);
+    }
+    
+    public List<BatchItemResult> processPagerDutyAlerts(List<BatchRecord<PagerDutyAlertEvent>> records, Organization organization) {
+        List<BatchItemResult> results = new ArrayList<>(records.size());
+        for (BatchRecord<PagerDutyAlertEvent> record : records) {
+            String externalId = record.event().incidentId();
+            try {
+                results.add(storePagerDutyAlert(record.event(), organization)
+                    ? BatchItemResult.processed(record.index(), externalId)
+                    : BatchItemResult.duplicate(record.index(), externalId));
+            } catch (Exception e) {
+                results.add(BatchItemResult.failed(record.index(), externalId, e.getMessage()));
+            }
+        }
+        return results;
+    }
+    
+    public List<BatchItemResult> processCloudWatchAlerts(List<BatchRecord<CloudWatchAlarmEvent>> records, Organization organization) {
+        List<BatchItemResult> results = new ArrayList<>(records.size());
+        for (BatchRecord<CloudWatchAlarmEvent> record : records) {
+            String externalId = record.event().id();
+            try {
+                results.add(storeCloudWatchAlert(record.event(), organization)
+                    ? BatchItemResult.processed(record.index(), externalId)
+                    : BatchItemResult.duplicate(record.index(), externalId));
+            } catch (Exception e) {
+                results.add(BatchItemResult.failed(record.index(), externalId, e.getMessage()));
+            }
+        }
+        return results;
+    }
+    
+    private boolean storePagerDutyAlert(PagerDutyAlertEvent event, Organization organization) {
         logger.info("🚨 Processing PagerDuty alert for organization: {}", organization.getName());
         
         try {
-            Map<String, Object> incident = (Map<String, Object>) payload.get("incident");
-            String externalId = (String) incident.get("id");
+            String externalId = event.incidentId();
             String source = "pagerduty";
             
-            // Idempotency check
-            if (!idempotencyService.shouldProcessWebhook((String) payload.get("webhookId"), source, externalId)) {
-                return;
+            // Idempotency check; a duplicate or concurrent delivery is skipped
+            if (idempotencyService.tryAcquire(source, externalId) != AcquireResult.ACQUIRED) {
+                return false;
             }
             
-            // Mark webhook as processed
-            idempotencyService.markWebhookProcessed((String) payload.get("webhookId"), source, externalId);
-            
-            // Check if incident should be created
-            if (!idempotencyService.shouldCreateIncident(externalId, source)) {
-                logger.info("Alert {} already has incident, skipping", externalId);
-                return;
+            try {
+                // Create mock alert
+                Alert alert = new Alert();
+                alert.setId(UUID.randomUUID());
+                alert.setExternalId(externalId);
+                alert.setSource(source);
+                alert.setOrganization(organization);
+                alert.setSeverity(WebhookFieldMapper.pagerDutySeverity(event.severity()));
+                alert.setTitle(event.title());
+                alert.setStatus(WebhookFieldMapper.pagerDutyStatus(event.status()));
+                alert.setStartedAt(LocalDateTime.now());
+                alert.setCreatedAt(LocalDateTime.now());
+                alert.setUpdatedAt(LocalDateTime.now());
+                
+                latencyModel.simulate("tenant-alert.pagerduty", "none");
+                
+                // Store in mock database
+                alertStore.put(source + ":" + externalId, alert);
+                
+                // Record the alert as processed with its incident
+                idempotencyService.complete(source, externalId, alert.getId().toString());
+            } catch (RuntimeException e) {
+                idempotencyService.fail(source, externalId);
+                throw e;
             }
             
-            // Create mock alert
-            Alert alert = new Alert();
-            alert.setId(UUID.randomUUID());
-            alert.setExternalId(externalId);
-            alert.setSource(source);
-            alert.setOrganization(organization);
-            alert.setSeverity(mapPagerDutySeverity((String) incident.get("severity")));
-            alert.setTitle((String) incident.get("title"));
-            alert.setStatus(mapPagerDutyStatus((String) incident.get("status")));
-            alert.setStartedAt(LocalDateTime.now());
-            alert.setCreatedAt(LocalDateTime.now());
-            alert.setUpdatedAt(LocalDateTime.now());
-            
-            // Store in mock database
-            alertStore.put(source + ":" + externalId, alert);
-            
-            // Associate alert with incident
-            idempotencyService.associateAlertWithIncident(externalId, source, alert.getId().toString());
-            
             logger.info("✅ PagerDuty alert processed: {} for organization: {}", externalId, organization.getName());
+            return true;
             
         } catch (Exception e) {
             logger.error("❌ Failed to process PagerDuty alert for organization: {}", organization.getName(), e);
@@ -70,81 +115,50 @@ public class MockTenantAlertService implements TenantAlertServiceInterface {
         }
     }
     
-    public void processCloudWatchAlert(Map<String, Object> payload, Organization organization) {
+    private boolean storeCloudWatchAlert(CloudWatchAlarmEvent event, Organization organization) {
         logger.info("☁️ Processing CloudWatch alert for organization: {}", organization.getName());
         
         try {
-            String externalId = (String) payload.get("id");
+            String externalId = event.id();
             String source = "cloudwatch";
             
-            // Idempotency check
-            if (!idempotencyService.shouldProcessWebhook(externalId, source, externalId)) {
-                return;
+            // Idempotency check; a duplicate or concurrent delivery is skipped
+            if (idempotencyService.tryAcquire(source, externalId) != AcquireResult.ACQUIRED) {
+                return false;
             }
             
-            // Mark webhook as processed
-            idempotencyService.markWebhookProcessed(externalId, source, externalId);
-            
-            // Check if incident should be created
-            if (!idempotencyService.shouldCreateIncident(externalId, source)) {
-                logger.info("Alert {} already has incident, skipping", externalId);
-                return;
+            try {
+                // Create mock alert
+                Alert alert = new Alert();
+                alert.setId(UUID.randomUUID());
+                alert.setExternalId(externalId);
+                alert.setSource(source);
+                alert.setOrganization(organization);
+                alert.setSeverity(WebhookFieldMapper.cloudWatchSeverity(event.state()));
+                alert.setTitle(event.alarmName());
+                alert.setStatus(Alert.AlertStatus.FIRING);
+                alert.setStartedAt(LocalDateTime.now());
+                alert.setCreatedAt(LocalDateTime.now());
+                alert.setUpdatedAt(LocalDateTime.now());
+                
+                latencyModel.simulate("tenant-alert.cloudwatch", "none");
+                
+                // Store in mock database
+                alertStore.put(source + ":" + externalId, alert);
+                
+                // Record the alert as processed with its incident
+                idempotencyService.complete(source, externalId, alert.getId().toString());
+            } catch (RuntimeException e) {
+                idempotencyService.fail(source, externalId);
+                throw e;
             }
             
-            // Create mock alert
-            Alert alert = new Alert();
-            alert.setId(UUID.randomUUID());
-            alert.setExternalId(externalId);
-            alert.setSource(source);
-            alert.setOrganization(organization);
-            
-            Map<String, Object> detail = (Map<String, Object>) payload.get("detail");
-            alert.setSeverity(mapCloudWatchSeverity((String) detail.get("state")));
-            alert.setTitle((String) detail.get("alarmName"));
-            alert.setStatus(Alert.AlertStatus.FIRING);
-            alert.setStartedAt(LocalDateTime.now());
-            alert.setCreatedAt(LocalDateTime.now());
-            alert.setUpdatedAt(LocalDateTime.now());
-            
-            // Store in mock database
-            alertStore.put(source + ":" + externalId, alert);
-            
-            // Associate alert with incident
-            idempotencyService.associateAlertWithIncident(externalId, source, alert.getId().toString());
-            
             logger.info("✅ CloudWatch alert processed: {} for organization: {}", externalId, organization.getName());
+            return true;
             
         } catch (Exception e) {
             logger.error("❌ Failed to process CloudWatch alert for organization: {}", organization.getName(), e);
             throw e;
         }
     }
-    
-    private Alert.AlertSeverity mapPagerDutySeverity(String severity) {
-        return switch (severity.toLowerCase()) {
-            case "critical" -> Alert.AlertSeverity.CRITICAL;
-            case "high" -> Alert.AlertSeverity.HIGH;
-            case "warning" -> Alert.AlertSeverity.MEDIUM;
-            case "info" -> Alert.AlertSeverity.LOW;
-            default -> Alert.AlertSeverity.MEDIUM;
-        };
-    }
-    
-    private Alert.AlertStatus mapPagerDutyStatus(String status) {
-        return switch (status.toLowerCase()) {
-            case "triggered" -> Alert.AlertStatus.FIRING;
-            case "resolved" -> Alert.AlertStatus.RESOLVED;
-            case "acknowledged" -> Alert.AlertStatus.FIRING;
-            default -> Alert.AlertStatus.FIRING;
-        };
-    }
-    
-    private Alert.AlertSeverity mapCloudWatchSeverity(String state) {
-        return switch (state.toUpperCase()) {
-            case "ALARM" -> Alert.AlertSeverity.HIGH;
-            case "OK" -> Alert.AlertSeverity.LOW;
-            case "INSUFFICIENT_DATA" -> Alert.AlertSeverity.MEDIUM;
-            default -> Alert.AlertSeverity.MEDIUM;
-        };
-    }
 }
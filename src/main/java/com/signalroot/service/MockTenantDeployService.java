@@ -1,5 +1,9 @@
 package com.signalroot.service;
 
+import com.signalroot.dto.BatchItemResult;
+import com.signalroot.dto.BatchRecord;
+import com.signalroot.dto.GitHubDeploymentEvent;
+import com.signalroot.dto.JenkinsBuildEvent;
 import com.signalroot.entity.DeployEvent;
 import com.signalroot.entity.Organization;
 import org.slf4j.Logger;
@@ -8,6 +12,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -21,40 +27,89 @@ public class MockTenantDeployService implements TenantDeployServiceInterface {
     @Autowired
     private IdempotencyService idempotencyService;
     
-    public void processGitHubDeploy(Map<String, Object> payload, Organization organization) {
+    @Autowired
+    private MockLatencyModel latencyModel;
+    
+    @Autowired
+    private DeployTimelineIndex timelineIndex;
+    
+    public void processGitHubDeploy(GitHubDeploymentEvent event, Organization organization) {
+        storeGitHubDeploy(event, organization);
+    }
+    
+    public void processJenkinsDeploy(JenkinsBuildEvent event, Organization organization) {
+        storeJenkinsDeploy(event, organization);
+    }
+    
+    public List<BatchItemResult> processGitHubDeploys(List<BatchRecord<GitHubDeploymentEvent>> records, Organization organization) {
+        List<BatchItemResult> results = new ArrayList<>(records.size());
+        for (BatchRecord<GitHubDeploymentEvent> record : records) {
+            String externalId = record.event().deploymentId();
+            try {
+                results.add(storeGitHubDeploy(record.event(), organization)
+                    ? BatchItemResult.processed(record.index(), externalId)
+                    : BatchItemResult.duplicate(record.index(), externalId));
+            } catch (Exception e) {
+                results.add(BatchItemResult.failed(record.index(), externalId, e.getMessage()));
+            }
+        }
+        return results;
+    }
+    
+    public List<BatchItemResult> processJenkinsDeploys(List<BatchRecord<JenkinsBuildEvent>> records, Organization organization) {
+        List<BatchItemResult> results = new ArrayList<>(records.size());
+        for (BatchRecord<JenkinsBuildEvent> record : records) {
+            String externalId = record.event().externalId();
+            try {
+                results.add(storeJenkinsDeploy(record.event(), organization)
+                    ? BatchItemResult.processed(record.index(), externalId)
+                    : BatchItemResult.duplicate(record.index(), externalId));
+            } catch (Exception e) {
+                results.add(BatchItemResult.failed(record.index(), externalId, e.getMessage()));
+            }
+        }
+        return results;
+    }
+    
+    private boolean storeGitHubDeploy(GitHubDeploymentEvent event, Organization organization) {
         logger.info("🐙 Processing GitHub deploy for organization: {}", organization.getName());
         
         try {
-            Map<String, Object> deployment = (Map<String, Object>) payload.get("deployment");
-            String externalId = (String) deployment.get("id");
+            String externalId = event.deploymentId();
             String source = "github";
             
-            // Idempotency check
-            if (!idempotencyService.shouldProcessWebhook(externalId, source, externalId)) {
-                return;
+            // Idempotency check; a duplicate or concurrent delivery is skipped
+            if (idempotencyService.tryAcquire(source, externalId) != AcquireResult.ACQUIRED) {
+                return false;
             }
             
-            // Mark webhook as processed
-            idempotencyService.markWebhookProcessed(externalId, source, externalId);
-            
-            // Create mock deploy event
-            DeployEvent deployEvent = new DeployEvent();
-            deployEvent.setId(UUID.randomUUID());
-            deployEvent.setOrganization(organization);
-            deployEvent.setSource(source);
-            deployEvent.setExternalId(externalId);
-            deployEvent.setVersion((String) deployment.get("environment"));
-            
-            Map<String, Object> status = (Map<String, Object>) deployment.get("status");
-            deployEvent.setStatus(mapGitHubStatus((String) status.get("state")));
-            
-            String createdAt = (String) deployment.get("created_at");
-            deployEvent.setStartedAt(LocalDateTime.parse(createdAt.replace("Z", "")));
+            try {
+                // Create mock deploy event
+                DeployEvent deployEvent = new DeployEvent();
+                deployEvent.setId(UUID.randomUUID());
+                deployEvent.setOrganization(organization);
+                deployEvent.setSource(source);
+                deployEvent.setExternalId(externalId);
+                deployEvent.setVersion(event.environment());
+                deployEvent.setStatus(WebhookFieldMapper.gitHubStatus(event.state()));
+                
+                String createdAt = event.createdAt();
+                deployEvent.setStartedAt(LocalDateTime.parse(createdAt.replace("Z", "")));
+                
+                latencyModel.simulate("tenant-deploy.github", "none");
+                
+                // Store in mock database
+                deployStore.put(source + ":" + externalId, deployEvent);
+                indexDeploy(event.repositoryName(), deployEvent);
+            } catch (RuntimeException e) {
+                idempotencyService.fail(source, externalId);
+                throw e;
+            }
             
-            // Store in mock database
-            deployStore.put(source + ":" + externalId, deployEvent);
+            idempotencyService.complete(source, externalId);
             
             logger.info("✅ GitHub deploy processed: {} for organization: {}", externalId, organization.getName());
+            return true;
             
         } catch (Exception e) {
             logger.error("❌ Failed to process GitHub deploy for organization: {}", organization.getName(), e);
@@ -62,40 +117,45 @@ public class MockTenantDeployService implements TenantDeployServiceInterface {
         }
     }
     
-    public void processJenkinsDeploy(Map<String, Object> payload, Organization organization) {
+    private boolean storeJenkinsDeploy(JenkinsBuildEvent event, Organization organization) {
         logger.info("🔧 Processing Jenkins deploy for organization: {}", organization.getName());
         
         try {
-            Map<String, Object> build = (Map<String, Object>) payload.get("build");
-            String externalId = (String) build.get("number") + "-" + (String) build.get("timestamp");
+            String externalId = event.externalId();
             String source = "jenkins";
             
-            // Idempotency check
-            if (!idempotencyService.shouldProcessWebhook(externalId, source, externalId)) {
-                return;
+            // Idempotency check; a duplicate or concurrent delivery is skipped
+            if (idempotencyService.tryAcquire(source, externalId) != AcquireResult.ACQUIRED) {
+                return false;
             }
             
-            // Mark webhook as processed
-            idempotencyService.markWebhookProcessed(externalId, source, externalId);
-            
-            // Create mock deploy event
-            DeployEvent deployEvent = new DeployEvent();
-            deployEvent.setId(UUID.randomUUID());
-            deployEvent.setOrganization(organization);
-            deployEvent.setSource(source);
-            deployEvent.setExternalId(externalId);
-            
-            Map<String, Object> artifact = (Map<String, Object>) build.get("artifact");
-            deployEvent.setVersion((String) artifact.get("version"));
-            deployEvent.setStatus(mapJenkinsStatus((String) build.get("status")));
-            
-            String timestamp = (String) build.get("timestamp");
-            deployEvent.setStartedAt(LocalDateTime.parse(timestamp.replace("Z", "")));
+            try {
+                // Create mock deploy event
+                DeployEvent deployEvent = new DeployEvent();
+                deployEvent.setId(UUID.randomUUID());
+                deployEvent.setOrganization(organization);
+                deployEvent.setSource(source);
+                deployEvent.setExternalId(externalId);
+                deployEvent.setVersion(event.artifactVersion());
+                deployEvent.setStatus(WebhookFieldMapper.jenkinsStatus(event.status()));
+                
+                String timestamp = event.timestamp();
+                deployEvent.setStartedAt(LocalDateTime.parse(timestamp.replace("Z", "")));
+                
+                latencyModel.simulate("tenant-deploy.jenkins", "none");
+                
+                // Store in mock database
+                deployStore.put(source + ":" + externalId, deployEvent);
+                indexDeploy(event.jobName(), deployEvent);
+            } catch (RuntimeException e) {
+                idempotencyService.fail(source, externalId);
+                throw e;
+            }
             
-            // Store in mock database
-            deployStore.put(source + ":" + externalId, deployEvent);
+            idempotencyService.complete(source, externalId);
             
             logger.info("✅ Jenkins deploy processed: {} for organization: {}", externalId, organization.getName());
+            return true;
             
         } catch (Exception e) {
             logger.error("❌ Failed to process Jenkins deploy for organization: {}", organization.getName(), e);
@@ -103,21 +163,9 @@ public class MockTenantDeployService implements TenantDeployServiceInterface {
         }
     }
     
-    private DeployEvent.DeployStatus mapGitHubStatus(String state) {
-        return switch (state.toLowerCase()) {
-            case "success" -> DeployEvent.DeployStatus.SUCCESS;
-            case "failure", "error" -> DeployEvent.DeployStatus.FAILURE;
-            case "pending" -> DeployEvent.DeployStatus.IN_PROGRESS;
-            default -> DeployEvent.DeployStatus.IN_PROGRESS;
-        };
-    }
-    
-    private DeployEvent.DeployStatus mapJenkinsStatus(String status) {
-        return switch (status.toUpperCase()) {
-            case "SUCCESS" -> DeployEvent.DeployStatus.SUCCESS;
-            case "FAILURE", "ABORTED" -> DeployEvent.DeployStatus.FAILURE;
-            case "UNSTABLE" -> DeployEvent.DeployStatus.PARTIAL;
-            default -> DeployEvent.DeployStatus.IN_PROGRESS;
-        };
+    // Mock correlation is not organization-scoped, so mock deploys use the shared mock key
+    private void indexDeploy(String serviceName, DeployEvent deployEvent) {
+        timelineIndex.record(DeployTimelineIndex.mockKey(serviceName), new DeployTimelineIndex.Deploy(deployEvent.getId(), deployEvent.getSource(), deployEvent.getExternalId(),
+            deployEvent.getVersion(), deployEvent.getStatus().name(), deployEvent.getStartedAt()));
     }
 }
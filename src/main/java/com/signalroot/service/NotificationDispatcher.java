@@ -0,0 +1,355 @@
+package com.signalroot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends incident notifications off the caller's thread, with a bounded queue and
+ * worker pool per channel so a slow Slack API cannot hold up email or the
+ * inbound pipeline. Failed sends are retried with exponential backoff and full
+ * jitter; retries wait on a scheduler rather than a worker. Notifications that
+ * run out of attempts, or find their queue full, go to a bounded dead-letter
+ * list that can be inspected and retried over the API.
+ *
+ * Called inside a transaction, dispatch waits for the commit, so notifier I/O
+ * never runs while a database transaction is open.
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    public enum Channel {
+        SLACK, EMAIL
+    }
+
+    @Autowired(required = false)
+    private SlackNotifier slackNotifier;
+
+    @Autowired(required = false)
+    private EmailNotifier emailNotifier;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${signalroot.notifications.dispatch.slack.workers:2}")
+    private int slackWorkers = 2;
+
+    @Value("${signalroot.notifications.dispatch.slack.queue-capacity:1000}")
+    private int slackQueueCapacity = 1000;
+
+    @Value("${signalroot.notifications.dispatch.email.workers:2}")
+    private int emailWorkers = 2;
+
+    @Value("${signalroot.notifications.dispatch.email.queue-capacity:1000}")
+    private int emailQueueCapacity = 1000;
+
+    @Value("${signalroot.notifications.dispatch.max-attempts:6}")
+    private int maxAttempts = 6;
+
+    @Value("${signalroot.notifications.dispatch.initial-backoff-millis:500}")
+    private long initialBackoffMillis = 500;
+
+    @Value("${signalroot.notifications.dispatch.max-backoff-millis:60000}")
+    private long maxBackoffMillis = 60_000;
+
+    @Value("${signalroot.notifications.dispatch.dead-letter-capacity:1000}")
+    private int deadLetterCapacity = 1000;
+
+    private final Map<Channel, ChannelWorkers> channels = new EnumMap<>(Channel.class);
+    private final ConcurrentLinkedDeque<DeadLetter> deadLetters = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger deadLetterCount = new AtomicInteger();
+    private final AtomicLong deadLetterIds = new AtomicLong();
+    private ScheduledThreadPoolExecutor retryScheduler;
+
+    @PostConstruct
+    public void start() {
+        if (slackNotifier != null) {
+            channels.put(Channel.SLACK, new ChannelWorkers(Channel.SLACK, slackWorkers, slackQueueCapacity));
+        }
+        if (emailNotifier != null) {
+            channels.put(Channel.EMAIL, new ChannelWorkers(Channel.EMAIL, emailWorkers, emailQueueCapacity));
+        }
+
+        retryScheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "notification-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        retryScheduler.setRemoveOnCancelPolicy(true);
+
+        Gauge.builder("signalroot.notifications.dead-letters", deadLetterCount, AtomicInteger::get)
+            .description("Notifications that gave up and are waiting in the dead-letter list")
+            .register(meterRegistry);
+
+        logger.info("Notification dispatcher channels: {}", channels.keySet());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        for (ChannelWorkers workers : channels.values()) {
+            workers.executor.shutdown();
+        }
+        for (ChannelWorkers workers : channels.values()) {
+            if (!workers.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("{} notifications still queued at shutdown", workers.executor.getQueue().size());
+                workers.executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Queue an incident's notification on every enabled channel. Returns at once;
+     * inside a transaction the notification is queued after commit and dropped on rollback.
+     */
+    public void dispatch(String incidentId, Object incident, String source) {
+        if (channels.isEmpty()) {
+            return;
+        }
+        if (!idempotencyService.shouldSendNotification(incidentId)) {
+            logger.info("Skipping duplicate notification for incident: {}", incidentId);
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(incidentId, incident, source);
+                }
+            });
+        } else {
+            enqueue(incidentId, incident, source);
+        }
+    }
+
+    private void enqueue(String incidentId, Object incident, String source) {
+        long queuedAt = System.nanoTime();
+        for (Channel channel : channels.keySet()) {
+            submit(new Delivery(channel, incidentId, incident, source, queuedAt));
+        }
+        idempotencyService.markNotificationSent(incidentId);
+    }
+
+    private void submit(Delivery delivery) {
+        ChannelWorkers workers = channels.get(delivery.channel);
+        try {
+            workers.executor.execute(() -> attempt(delivery));
+        } catch (RejectedExecutionException e) {
+            workers.rejected.increment();
+            deadLetter(delivery, "queue full");
+        }
+    }
+
+    private void attempt(Delivery delivery) {
+        delivery.attempts++;
+        ChannelWorkers workers = channels.get(delivery.channel);
+        try {
+            send(delivery);
+            workers.sent.increment();
+            pipelineMetrics.record(PipelineMetrics.Stage.NOTIFICATION, delivery.source,
+                                   PipelineMetrics.Outcome.SUCCESS, delivery.queuedAt);
+        } catch (Exception e) {
+            if (delivery.attempts >= maxAttempts || !retryable(e)) {
+                logger.error("❌ Giving up on {} notification for incident {} after {} attempts",
+                           delivery.channel, delivery.incidentId, delivery.attempts, e);
+                deadLetter(delivery, e.getMessage());
+                return;
+            }
+
+            long delay = backoffMillis(delivery.attempts);
+            logger.warn("⏳ {} notification for incident {} failed (attempt {}), retrying in {} ms: {}",
+                       delivery.channel, delivery.incidentId, delivery.attempts, delay, e.getMessage());
+            workers.retried.increment();
+            try {
+                retryScheduler.schedule(() -> submit(delivery), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shuttingDown) {
+                deadLetter(delivery, "shut down before retry");
+            }
+        }
+    }
+
+    private void send(Delivery delivery) {
+        switch (delivery.channel) {
+            case SLACK -> slackNotifier.sendIncidentNotification(delivery.incident);
+            case EMAIL -> emailNotifier.sendIncidentNotification(delivery.incident);
+        }
+    }
+
+    // Client errors other than 429 will fail the same way on every attempt
+    private static boolean retryable(Exception e) {
+        if (e instanceof HttpClientErrorException clientError) {
+            return clientError.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        return true;
+    }
+
+    // Full jitter: uniform between zero and the capped exponential delay
+    private long backoffMillis(int attempts) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempts - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void deadLetter(Delivery delivery, String reason) {
+        channels.get(delivery.channel).deadLettered.increment();
+        pipelineMetrics.record(PipelineMetrics.Stage.NOTIFICATION, delivery.source,
+                               PipelineMetrics.Outcome.FAILURE, delivery.queuedAt);
+
+        deadLetters.addFirst(new DeadLetter(deadLetterIds.incrementAndGet(), delivery, reason, Instant.now()));
+        // Oldest entries are dropped once the list is full
+        if (deadLetterCount.incrementAndGet() > deadLetterCapacity && deadLetters.pollLast() != null) {
+            deadLetterCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Dead letters, newest first.
+     */
+    public List<Map<String, Object>> getDeadLetters() {
+        List<Map<String, Object>> view = new ArrayList<>();
+        for (DeadLetter deadLetter : deadLetters) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", deadLetter.id);
+            entry.put("channel", deadLetter.delivery.channel);
+            entry.put("incidentId", deadLetter.delivery.incidentId);
+            entry.put("source", deadLetter.delivery.source);
+            entry.put("attempts", deadLetter.delivery.attempts);
+            entry.put("reason", deadLetter.reason);
+            entry.put("failedAt", deadLetter.failedAt);
+            view.add(entry);
+        }
+        return view;
+    }
+
+    /**
+     * Take a dead letter off the list and queue it again with a fresh set of attempts.
+     * Returns false if no dead letter has that id.
+     */
+    public boolean retryDeadLetter(long id) {
+        Iterator<DeadLetter> iterator = deadLetters.iterator();
+        while (iterator.hasNext()) {
+            DeadLetter deadLetter = iterator.next();
+            if (deadLetter.id == id && deadLetters.remove(deadLetter)) {
+                deadLetterCount.decrementAndGet();
+                Delivery delivery = deadLetter.delivery;
+                submit(new Delivery(delivery.channel, delivery.incidentId, delivery.incident, delivery.source, System.nanoTime()));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int clearDeadLetters() {
+        int cleared = 0;
+        while (deadLetters.pollFirst() != null) {
+            deadLetterCount.decrementAndGet();
+            cleared++;
+        }
+        return cleared;
+    }
+
+    /**
+     * Queue depth and delivery counts per channel.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        channels.forEach((channel, workers) -> {
+            Map<String, Object> channelStats = new LinkedHashMap<>();
+            channelStats.put("queued", workers.executor.getQueue().size());
+            channelStats.put("active", workers.executor.getActiveCount());
+            channelStats.put("sent", (long) workers.sent.count());
+            channelStats.put("retried", (long) workers.retried.count());
+            channelStats.put("rejected", (long) workers.rejected.count());
+            channelStats.put("deadLettered", (long) workers.deadLettered.count());
+            stats.put(channel.name().toLowerCase(), channelStats);
+        });
+        stats.put("deadLetters", deadLetterCount.get());
+        stats.put("retriesPending", retryScheduler.getQueue().size());
+        return stats;
+    }
+
+    private final class ChannelWorkers {
+        private final ThreadPoolExecutor executor;
+        private final Counter sent;
+        private final Counter retried;
+        private final Counter rejected;
+        private final Counter deadLettered;
+
+        ChannelWorkers(Channel channel, int workers, int queueCapacity) {
+            String name = channel.name().toLowerCase();
+            AtomicInteger threadCounter = new AtomicInteger();
+            executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "notify-" + name + "-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+            Gauge.builder("signalroot.notifications.queue.depth", executor, e -> e.getQueue().size())
+                .description("Notifications waiting for a channel worker")
+                .tag("channel", name)
+                .register(meterRegistry);
+            sent = Counter.builder("signalroot.notifications.sent").tag("channel", name).register(meterRegistry);
+            retried = Counter.builder("signalroot.notifications.retried").tag("channel", name).register(meterRegistry);
+            rejected = Counter.builder("signalroot.notifications.rejected").tag("channel", name).register(meterRegistry);
+            deadLettered = Counter.builder("signalroot.notifications.dead-lettered").tag("channel", name).register(meterRegistry);
+        }
+    }
+
+    private static final class Delivery {
+        private final Channel channel;
+        private final String incidentId;
+        private final Object incident;
+        private final String source;
+        private final long queuedAt;
+        // Only touched by the one worker running the delivery at a time
+        private volatile int attempts;
+
+        Delivery(Channel channel, String incidentId, Object incident, String source, long queuedAt) {
+            this.channel = channel;
+            this.incidentId = incidentId;
+            this.incident = incident;
+            this.source = source;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    private record DeadLetter(long id, Delivery delivery, String reason, Instant failedAt) {
+    }
+}
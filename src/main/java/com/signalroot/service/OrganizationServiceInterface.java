@@ -8,6 +8,8 @@ public interface OrganizationServiceInterface {
     Organization createOrganization(String name);
     Organization findByOrganizationKey(String organizationKey);
     Organization findById(UUID id);
+    Organization findByWebhookSecret(String webhookSecret);
+    Organization findBySlackWorkspaceId(String slackWorkspaceId);
     List<Organization> findAll();
     Organization updateOrganization(UUID id, String name);
     void deleteOrganization(UUID id);
@@ -0,0 +1,116 @@
+package com.signalroot.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage timers for the inbound pipeline, exported as signalroot.pipeline.stage
+ * tagged by stage, source and outcome. Every combination is registered up front
+ * and looked up by index, so recording builds no tag lists and allocates nothing.
+ * Each timer's count doubles as the stage's event counter.
+ */
+@Service
+public class PipelineMetrics {
+
+    public enum Stage {
+        ORG_LOOKUP("org_lookup"),
+        DEDUPE("dedupe"),
+        EXTRACTION("extraction"),
+        SERVICE_RESOLUTION("service_resolution"),
+        PERSISTENCE("persistence"),
+        CORRELATION("correlation"),
+        NOTIFICATION("notification");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * REJECTED is an expected early exit (unknown organization, malformed payload,
+     * duplicate delivery); FAILURE is an exception.
+     */
+    public enum Outcome {
+        SUCCESS("success"),
+        REJECTED("rejected"),
+        FAILURE("failure");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final String[] SOURCES = {"pagerduty", "cloudwatch", "github", "jenkins"};
+    private static final Stage[] STAGES = Stage.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${signalroot.metrics.pipeline.percentile-histogram:true}")
+    private boolean percentileHistogram = true;
+
+    private Timer[] timers;
+
+    @PostConstruct
+    public void register() {
+        timers = new Timer[STAGES.length * SOURCES.length * OUTCOMES.length];
+        for (Stage stage : STAGES) {
+            for (int source = 0; source < SOURCES.length; source++) {
+                for (Outcome outcome : OUTCOMES) {
+                    timers[index(stage, source, outcome)] = Timer.builder("signalroot.pipeline.stage")
+                        .description("Time spent in one stage of the inbound webhook pipeline")
+                        .tag("stage", stage.tag)
+                        .tag("source", SOURCES[source])
+                        .tag("outcome", outcome.tag)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .publishPercentileHistogram(percentileHistogram)
+                        // Dedupe and extraction run in microseconds, persistence can take seconds
+                        .minimumExpectedValue(Duration.ofNanos(10_000))
+                        .maximumExpectedValue(Duration.ofSeconds(30))
+                        .register(meterRegistry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Record a stage that started at startNanos (from System.nanoTime) and has just
+     * ended. Sources other than the four webhook sources are ignored.
+     */
+    public void record(Stage stage, String source, Outcome outcome, long startNanos) {
+        int sourceIndex = sourceIndex(source);
+        if (sourceIndex < 0) {
+            return;
+        }
+        timers[index(stage, sourceIndex, outcome)].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static int index(Stage stage, int source, Outcome outcome) {
+        return (stage.ordinal() * SOURCES.length + source) * OUTCOMES.length + outcome.ordinal();
+    }
+
+    private static int sourceIndex(String source) {
+        if (source == null) {
+            return -1;
+        }
+        return switch (source) {
+            case "pagerduty" -> 0;
+            case "cloudwatch" -> 1;
+            case "github" -> 2;
+            case "jenkins" -> 3;
+            default -> -1;
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package com.signalroot.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared dedupe table so every replica sees the same claims. Keys are claimed
+ * with INSERT ... ON CONFLICT DO NOTHING; a row whose lease or window has
+ * lapsed is taken over with a conditional UPDATE. Deadlines use the database
+ * clock so replicas with skewed clocks agree on expiry.
+ *
+ * Table: idempotency_keys. init.sql only runs when Docker first initialises the
+ * database and Hibernate does not manage this table, so it is also created here
+ * at startup if missing.
+ */
+@Service
+@ConditionalOnProperty(name = "signalroot.idempotency.backend", havingValue = "postgres")
+public class PostgresIdempotencyBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresIdempotencyBackend.class);
+
+    private static final int IN_FLIGHT = 1;
+    private static final int DONE = 2;
+
+    private static final String CLAIM_SQL =
+        "INSERT INTO idempotency_keys (source, external_id, state, expires_at) " +
+        "VALUES (?, ?, " + IN_FLIGHT + ", now() + ? * interval '1 millisecond') " +
+        "ON CONFLICT (source, external_id) DO NOTHING";
+
+    private static final String TAKE_OVER_SQL =
+        "UPDATE idempotency_keys SET state = " + IN_FLIGHT + ", expires_at = now() + ? * interval '1 millisecond' " +
+        "WHERE source = ? AND external_id = ? AND expires_at <= now()";
+
+    private static final String STATE_SQL =
+        "SELECT state FROM idempotency_keys WHERE source = ? AND external_id = ?";
+
+    private static final String COMPLETE_SQL =
+        "INSERT INTO idempotency_keys (source, external_id, state, expires_at) " +
+        "VALUES (?, ?, " + DONE + ", now() + ? * interval '1 millisecond') " +
+        "ON CONFLICT (source, external_id) DO UPDATE SET state = EXCLUDED.state, expires_at = EXCLUDED.expires_at";
+
+    private static final String RELEASE_SQL =
+        "DELETE FROM idempotency_keys WHERE source = ? AND external_id = ? AND state = " + IN_FLIGHT;
+
+    private static final String[] SCHEMA_SQL = {
+        "CREATE TABLE IF NOT EXISTS idempotency_keys (" +
+        "source VARCHAR(32) NOT NULL, external_id VARCHAR(255) NOT NULL, state SMALLINT NOT NULL, " +
+        "expires_at TIMESTAMPTZ NOT NULL, PRIMARY KEY (source, external_id))",
+        "CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at)"
+    };
+
+    private static final String PURGE_SQL =
+        "DELETE FROM idempotency_keys WHERE expires_at <= now()";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LongAdder claims = new LongAdder();
+
+    @PostConstruct
+    public void ensureSchema() {
+        for (String statement : SCHEMA_SQL) {
+            jdbcTemplate.execute(statement);
+        }
+    }
+
+    /**
+     * Claim the key across all replicas, taking over a lapsed lease or window if needed.
+     */
+    public AcquireResult tryAcquire(String source, String externalId, long leaseMillis) {
+        claims.increment();
+
+        if (jdbcTemplate.update(CLAIM_SQL, source, externalId, leaseMillis) == 1) {
+            return AcquireResult.ACQUIRED;
+        }
+
+        if (jdbcTemplate.update(TAKE_OVER_SQL, leaseMillis, source, externalId) == 1) {
+            return AcquireResult.ACQUIRED;
+        }
+
+        List<Integer> states = jdbcTemplate.queryForList(STATE_SQL, Integer.class, source, externalId);
+        // A row purged between the statements is reported as in flight; the sender's retry will claim it
+        return !states.isEmpty() && states.get(0) == DONE ? AcquireResult.DUPLICATE : AcquireResult.IN_FLIGHT;
+    }
+
+    public void complete(String source, String externalId, long windowMillis) {
+        jdbcTemplate.update(COMPLETE_SQL, source, externalId, windowMillis);
+    }
+
+    public boolean release(String source, String externalId) {
+        return jdbcTemplate.update(RELEASE_SQL, source, externalId) > 0;
+    }
+
+    /**
+     * Delete rows whose lease or window has lapsed. Returns the number of rows removed.
+     */
+    public int purgeExpired() {
+        int removed = jdbcTemplate.update(PURGE_SQL);
+        if (removed > 0) {
+            logger.info("Purged {} expired idempotency keys", removed);
+        }
+        return removed;
+    }
+
+    public long getClaims() {
+        return claims.sum();
+    }
+}
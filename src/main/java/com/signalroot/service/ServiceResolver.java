@@ -0,0 +1,171 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Organization;
+import com.signalroot.repository.ServiceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves a service name to its Service row for an organization.
+ *
+ * Services are looked up in a per-organization LRU cache first; on a miss the
+ * row is created or found with a single statement that inserts with ON CONFLICT
+ * DO NOTHING on the (organization_id, name) unique constraint and falls back to
+ * selecting the existing row, so concurrent webhooks for a new service cannot
+ * insert it twice and existing rows are never rewritten. The returned Service is
+ * an unloaded JPA reference: use it as an association or for its id only.
+ */
+@Service
+@ConditionalOnProperty(name = "signalroot.service.mode", havingValue = "real")
+public class ServiceResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceResolver.class);
+
+    private static final String INSERT_OR_SELECT_SQL =
+        "WITH inserted AS (" +
+        "INSERT INTO services (id, name, organization_id, created_at, updated_at) " +
+        "VALUES (?, ?, ?, now(), now()) " +
+        "ON CONFLICT (organization_id, name) DO NOTHING " +
+        "RETURNING id) " +
+        "SELECT id FROM inserted " +
+        "UNION ALL SELECT id FROM services WHERE organization_id = ? AND name = ? " +
+        "LIMIT 1";
+
+    private static final String SELECT_SQL = "SELECT id FROM services WHERE organization_id = ? AND name = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${signalroot.services.cache.max-per-organization:1024}")
+    private int maxPerOrganization = 1024;
+
+    private final Map<UUID, ServiceCache> caches = new ConcurrentHashMap<>();
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        hitCounter = Counter.builder("signalroot.services.cache.hits").register(meterRegistry);
+        missCounter = Counter.builder("signalroot.services.cache.misses").register(meterRegistry);
+        Gauge.builder("signalroot.services.cache.size", this, ServiceResolver::size)
+            .description("Services cached across all organizations")
+            .register(meterRegistry);
+        Gauge.builder("signalroot.services.cache.hit-ratio", this, ServiceResolver::hitRatio)
+            .register(meterRegistry);
+    }
+
+    public com.signalroot.entity.Service resolve(String serviceName, Organization organization) {
+        ServiceCache cache = caches.computeIfAbsent(organization.getId(), id -> new ServiceCache(maxPerOrganization));
+        UUID serviceId = cache.get(serviceName);
+        if (serviceId != null) {
+            hitCounter.increment();
+        } else {
+            missCounter.increment();
+            serviceId = insertOrSelect(serviceName, organization.getId());
+            cacheAfterCommit(cache, serviceName, serviceId);
+        }
+
+        return serviceRepository.getReferenceById(serviceId);
+    }
+
+    /**
+     * Drop every cached service of an organization, e.g. when it is deleted.
+     */
+    public void evictOrganization(UUID organizationId) {
+        if (caches.remove(organizationId) != null) {
+            logger.info("Evicted cached services for organization: {}", organizationId);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (ServiceCache cache : caches.values()) {
+            size += cache.size();
+        }
+        return size;
+    }
+
+    public double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    private UUID insertOrSelect(String serviceName, UUID organizationId) {
+        List<UUID> ids = jdbcTemplate.queryForList(INSERT_OR_SELECT_SQL, UUID.class,
+                                                   UUID.randomUUID(), serviceName, organizationId, organizationId, serviceName);
+        if (ids.isEmpty()) {
+            // A concurrent insert committed after this statement's snapshot was taken
+            ids = jdbcTemplate.queryForList(SELECT_SQL, UUID.class, organizationId, serviceName);
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Service " + serviceName + " was neither inserted nor found");
+        }
+        return ids.get(0);
+    }
+
+    private void cacheAfterCommit(ServiceCache cache, String serviceName, UUID serviceId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.put(serviceName, serviceId);
+            return;
+        }
+        // Inside a transaction the row only exists once it commits
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(serviceName, serviceId);
+            }
+        });
+    }
+
+    /**
+     * Access-ordered LRU of service name to id for one organization.
+     */
+    private static final class ServiceCache {
+        private final LinkedHashMap<String, UUID> entries;
+
+        ServiceCache(int maxEntries) {
+            entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, UUID> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized UUID get(String serviceName) {
+            return entries.get(serviceName);
+        }
+
+        synchronized void put(String serviceName, UUID serviceId) {
+            entries.put(serviceName, serviceId);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -4,19 +4,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Posts incident notifications to a Slack incoming webhook. Failures are thrown
+ * so NotificationDispatcher can retry them; call through the dispatcher rather
+ * than from a request or transaction.
+ */
 @Service
-@Transactional
+@ConditionalOnProperty(name = "signalroot.notifications.slack.enabled", havingValue = "true")
 public class SlackNotifier {
     
     private static final Logger logger = LoggerFactory.getLogger(SlackNotifier.class);
@@ -36,24 +41,18 @@ public class SlackNotifier {
     public void sendIncidentNotification(Object incident) {
         logger.info("Sending Slack notification for incident: {}", incident);
         
-        try {
-            Map<String, Object> payload = buildSlackPayload(incident);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
-            ResponseEntity<String> response = restTemplate.postForEntity(webhookUrl, request, String.class);
-            
-            if (response.getStatusCode().is2xxSuccessful()) {
-                logger.info("Slack notification sent successfully for incident: {}", incident);
-            } else {
-                logger.error("Failed to send Slack notification. Status: {}, Response: {}", 
-                           response.getStatusCode(), response.getBody());
-            }
-        } catch (Exception e) {
-            logger.error("Error sending Slack notification for incident: {}", incident, e);
+        Map<String, Object> payload = buildSlackPayload(incident);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        
+        HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
+        ResponseEntity<String> response = restTemplate.postForEntity(webhookUrl, request, String.class);
+        
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new IllegalStateException("Slack returned " + response.getStatusCode() + ": " + response.getBody());
         }
+        logger.info("Slack notification sent successfully for incident: {}", incident);
     }
     
     private Map<String, Object> buildSlackPayload(Object incident) {
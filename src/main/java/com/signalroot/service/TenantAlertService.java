@@ -1,17 +1,31 @@
 package com.signalroot.service;
 
+import com.signalroot.dto.BatchItemResult;
+import com.signalroot.dto.BatchRecord;
+import com.signalroot.dto.CloudWatchAlarmEvent;
+import com.signalroot.dto.PagerDutyAlertEvent;
 import com.signalroot.entity.Alert;
 import com.signalroot.entity.Organization;
 import com.signalroot.repository.AlertRepository;
-import com.signalroot.repository.ServiceRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.Map;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Service
 @ConditionalOnProperty(name = "signalroot.service.mode", havingValue = "real")
@@ -19,58 +33,97 @@ public class TenantAlertService implements TenantAlertServiceInterface {
     
     private static final Logger logger = LoggerFactory.getLogger(TenantAlertService.class);
     
+    /**
+     * What a preparer decided for one event: a new unsaved alert to store, or why
+     * nothing needs storing. The alert's service is an unloaded reference, so its
+     * name travels alongside for correlation. A coalesced firing carries the alert
+     * it would have stored, unsaved, so callers can complete it and match it to
+     * the alert leading its storm.
+     */
+    private record Prepared(Outcome outcome, Alert alert, String serviceName) {
+        
+        enum Outcome {
+            // A new alert to persist
+            CREATE,
+            // Duplicate delivery, or a lifecycle event older than the last one applied
+            SKIPPED,
+            // A lifecycle event was applied to the existing alert
+            UPDATED,
+            // The firing was folded into an open alert storm
+            COALESCED
+        }
+        
+        static final Prepared SKIPPED = new Prepared(Outcome.SKIPPED, null, null);
+        static final Prepared UPDATED = new Prepared(Outcome.UPDATED, null, null);
+        
+        static Prepared create(Alert alert, String serviceName) {
+            return new Prepared(Outcome.CREATE, alert, serviceName);
+        }
+        
+        static Prepared coalesced(Alert firing) {
+            return new Prepared(Outcome.COALESCED, firing, null);
+        }
+    }
+    
+    // Identifies a storm within one organization's batch of one source
+    private record StormLeader(UUID serviceId, String title) {
+        
+        static StormLeader of(Alert alert) {
+            return new StormLeader(alert.getService().getId(), alert.getTitle());
+        }
+    }
+    
     @Autowired
     private AlertRepository alertRepository;
     
     @Autowired
-    private ServiceRepository serviceRepository;
+    private ServiceResolver serviceResolver;
+    
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
     
     @Autowired
     private IdempotencyService idempotencyService;
     
-    public void processPagerDutyAlert(Map<String, Object> payload, Organization organization) {
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private IncidentCorrelationService incidentCorrelationService;
+    
+    @Autowired
+    private AlertStormCoalescer stormCoalescer;
+    
+    @Autowired
+    private AlertLifecycleService lifecycleService;
+    
+    @Value("${signalroot.inbound.batch.chunk-size:500}")
+    private int batchChunkSize;
+    
+    public void processPagerDutyAlert(PagerDutyAlertEvent event, Organization organization) {
         logger.info("🚨 Processing PagerDuty alert for organization: {}", organization.getName());
         
         try {
-            Map<String, Object> incident = (Map<String, Object>) payload.get("incident");
-            String externalId = (String) incident.get("id");
-            String source = "pagerduty";
-            
-            // Idempotency check
-            if (!idempotencyService.shouldProcessWebhook((String) payload.get("webhookId"), source, externalId)) {
+            Prepared prepared = preparePagerDutyAlert(event, organization);
+            if (prepared.outcome() != Prepared.Outcome.CREATE) {
                 return;
             }
+            Alert alert = prepared.alert();
             
-            // Mark webhook as processed
-            idempotencyService.markWebhookProcessed((String) payload.get("webhookId"), source, externalId);
-            
-            // Check if incident should be created
-            if (!idempotencyService.shouldCreateIncident(externalId, source)) {
-                logger.info("Alert {} already has incident, skipping", externalId);
-                return;
+            long persistStarted = System.nanoTime();
+            try {
+                alertRepository.save(alert);
+                pipelineMetrics.record(PipelineMetrics.Stage.PERSISTENCE, alert.getSource(), PipelineMetrics.Outcome.SUCCESS, persistStarted);
+            } catch (RuntimeException e) {
+                pipelineMetrics.record(PipelineMetrics.Stage.PERSISTENCE, alert.getSource(), PipelineMetrics.Outcome.FAILURE, persistStarted);
+                idempotencyService.fail(alert.getSource(), alert.getExternalId());
+                throw e;
             }
             
-            // Find or create service
-            Map<String, Object> serviceData = (Map<String, Object>) incident.get("service");
-            String serviceName = (String) serviceData.get("name");
-            com.signalroot.entity.Service service = findOrCreateService(serviceName, organization);
-            
-            // Create alert
-            Alert alert = new Alert();
-            alert.setExternalId(externalId);
-            alert.setSource(source);
-            alert.setService(service);
-            alert.setOrganization(organization);
-            alert.setSeverity(mapPagerDutySeverity((String) incident.get("severity")));
-            alert.setTitle((String) incident.get("title"));
-            alert.setStatus(mapPagerDutyStatus((String) incident.get("status")));
-            
-            alertRepository.save(alert);
-            
-            // Associate alert with incident
-            idempotencyService.associateAlertWithIncident(externalId, source, alert.getId().toString());
+            // Record the alert as processed with its incident
+            idempotencyService.complete(alert.getSource(), alert.getExternalId(), openIncident(prepared));
             
-            logger.info("✅ PagerDuty alert processed: {} for organization: {}", externalId, organization.getName());
+            logger.info("✅ PagerDuty alert processed: {} for organization: {}", alert.getExternalId(), organization.getName());
             
         } catch (Exception e) {
             logger.error("❌ Failed to process PagerDuty alert for organization: {}", organization.getName(), e);
@@ -78,98 +131,294 @@ public class TenantAlertService implements TenantAlertServiceInterface {
         }
     }
     
-    public void processCloudWatchAlert(Map<String, Object> payload, Organization organization) {
+    public void processCloudWatchAlert(CloudWatchAlarmEvent event, Organization organization) {
         logger.info("☁️ Processing CloudWatch alert for organization: {}", organization.getName());
         
         try {
-            String externalId = (String) payload.get("id");
-            String source = "cloudwatch";
-            
-            // Idempotency check
-            if (!idempotencyService.shouldProcessWebhook(externalId, source, externalId)) {
+            Prepared prepared = prepareCloudWatchAlert(event, organization);
+            if (prepared.outcome() == Prepared.Outcome.COALESCED) {
+                idempotencyService.complete(prepared.alert().getSource(), prepared.alert().getExternalId());
+                logger.info("🌪️ CloudWatch alarm {} coalesced into open alert storm for organization: {}",
+                           event.alarmName(), organization.getName());
+                return;
+            }
+            if (prepared.outcome() != Prepared.Outcome.CREATE) {
                 return;
             }
+            Alert alert = prepared.alert();
             
-            // Mark webhook as processed
-            idempotencyService.markWebhookProcessed(externalId, source, externalId);
+            long persistStarted = System.nanoTime();
+            try {
+                alertRepository.save(alert);
+                pipelineMetrics.record(PipelineMetrics.Stage.PERSISTENCE, alert.getSource(), PipelineMetrics.Outcome.SUCCESS, persistStarted);
+            } catch (RuntimeException e) {
+                pipelineMetrics.record(PipelineMetrics.Stage.PERSISTENCE, alert.getSource(), PipelineMetrics.Outcome.FAILURE, persistStarted);
+                stormCoalescer.abandon(alert);
+                idempotencyService.fail(alert.getSource(), alert.getExternalId());
+                throw e;
+            }
+            stormCoalescer.opened(alert);
             
-            // Check if incident should be created
-            if (!idempotencyService.shouldCreateIncident(externalId, source)) {
-                logger.info("Alert {} already has incident, skipping", externalId);
-                return;
+            // Record the alert as processed with its incident
+            idempotencyService.complete(alert.getSource(), alert.getExternalId(), openIncident(prepared));
+            
+            logger.info("✅ CloudWatch alert processed: {} for organization: {}", alert.getExternalId(), organization.getName());
+            
+        } catch (Exception e) {
+            logger.error("❌ Failed to process CloudWatch alert for organization: {}", organization.getName(), e);
+            throw e;
+        }
+    }
+    
+    public List<BatchItemResult> processPagerDutyAlerts(List<BatchRecord<PagerDutyAlertEvent>> records, Organization organization) {
+        logger.info("🚨 Processing batch of {} PagerDuty alerts for organization: {}", records.size(), organization.getName());
+        return persistBatch(records, organization, this::preparePagerDutyAlert, PagerDutyAlertEvent::incidentId);
+    }
+    
+    public List<BatchItemResult> processCloudWatchAlerts(List<BatchRecord<CloudWatchAlarmEvent>> records, Organization organization) {
+        logger.info("☁️ Processing batch of {} CloudWatch alerts for organization: {}", records.size(), organization.getName());
+        return persistBatch(records, organization, this::prepareCloudWatchAlert, CloudWatchAlarmEvent::id);
+    }
+    
+    /**
+     * Build an unsaved alert for the first event of a PagerDuty incident. Later events
+     * (acknowledge, resolve, re-trigger) update the stored alert in place and return
+     * UPDATED, or SKIPPED if they are older than the last applied event.
+     */
+    private Prepared preparePagerDutyAlert(PagerDutyAlertEvent event, Organization organization) {
+        String externalId = event.incidentId();
+        String source = "pagerduty";
+        Alert.AlertStatus status = WebhookFieldMapper.pagerDutyStatus(event.status());
+        LocalDateTime occurredAt = parseEventTime(event.occurredAt());
+        
+        AcquireResult lease = idempotencyService.tryAcquire(source, externalId);
+        if (lease == AcquireResult.IN_FLIGHT) {
+            // The first event is still being stored; fail so the sender redelivers this one
+            throw new IllegalStateException("PagerDuty incident " + externalId + " is still being recorded, retry later");
+        }
+        if (lease == AcquireResult.DUPLICATE) {
+            return applyLifecycle(organization, source, externalId, status, occurredAt);
+        }
+        
+        try {
+            if (status != Alert.AlertStatus.FIRING) {
+                // Not a trigger: the alert may be older than this node's idempotency window
+                AlertLifecycleService.Transition transition =
+                    lifecycleService.apply(organization, source, externalId, status, occurredAt);
+                if (transition != AlertLifecycleService.Transition.NOT_FOUND) {
+                    idempotencyService.complete(source, externalId);
+                    return transition == AlertLifecycleService.Transition.APPLIED ? Prepared.UPDATED : Prepared.SKIPPED;
+                }
             }
             
+            // Find or create service
+            com.signalroot.entity.Service service = findOrCreateService(event.serviceName(), organization, source);
+            
+            Alert alert = new Alert();
+            alert.setExternalId(externalId);
+            alert.setSource(source);
+            alert.setService(service);
+            alert.setOrganization(organization);
+            alert.setSeverity(WebhookFieldMapper.pagerDutySeverity(event.severity()));
+            alert.setTitle(event.title());
+            alert.setStatus(status);
+            alert.setStartedAt(occurredAt);
+            alert.setLastEventAt(occurredAt);
+            return Prepared.create(alert, event.serviceName());
+        } catch (RuntimeException e) {
+            idempotencyService.fail(source, externalId);
+            throw e;
+        }
+    }
+    
+    /**
+     * Run the idempotency checks and build an unsaved alert, or return SKIPPED for a duplicate
+     * and COALESCED for a repeat firing inside an open storm window. A coalesced firing's
+     * lease is left for the caller to complete once the storm's leading alert is stored.
+     */
+    private Prepared prepareCloudWatchAlert(CloudWatchAlarmEvent event, Organization organization) {
+        String externalId = event.id();
+        String source = "cloudwatch";
+        
+        // Idempotency check; a duplicate or concurrent delivery is skipped
+        if (idempotencyService.tryAcquire(source, externalId) != AcquireResult.ACQUIRED) {
+            return Prepared.SKIPPED;
+        }
+        
+        try {
             // Extract service name from alarm name
-            Map<String, Object> detail = (Map<String, Object>) payload.get("detail");
-            String alarmName = (String) detail.get("alarmName");
-            String serviceName = extractServiceNameFromAlarm(alarmName);
+            String alarmName = event.alarmName();
+            String serviceName = WebhookFieldMapper.serviceName(alarmName);
             
-            com.signalroot.entity.Service service = findOrCreateService(serviceName, organization);
+            com.signalroot.entity.Service service = findOrCreateService(serviceName, organization, source);
             
-            // Create alert
             Alert alert = new Alert();
             alert.setExternalId(externalId);
             alert.setSource(source);
             alert.setService(service);
             alert.setOrganization(organization);
-            alert.setSeverity(mapCloudWatchSeverity((String) detail.get("state")));
+            alert.setSeverity(WebhookFieldMapper.cloudWatchSeverity(event.state()));
             alert.setTitle(alarmName);
             alert.setStatus(Alert.AlertStatus.FIRING);
             
-            alertRepository.save(alert);
+            // Repeat firings of a flapping alarm only bump the open alert's counter; OK and
+            // INSUFFICIENT_DATA transitions are never absorbed so recoveries are always stored
+            if (isFiring(event) && stormCoalescer.absorb(organization, source, service.getId(), alarmName)) {
+                return Prepared.coalesced(alert);
+            }
+            return Prepared.create(alert, serviceName);
+        } catch (RuntimeException e) {
+            idempotencyService.fail(source, externalId);
+            throw e;
+        }
+    }
+    
+    /**
+     * Prepare each record, then persist the new alerts with one saveAll per chunk so
+     * Hibernate can send them as JDBC batches inside a single transaction.
+     */
+    private <T> List<BatchItemResult> persistBatch(List<BatchRecord<T>> records, Organization organization,
+                                                   BiFunction<T, Organization, Prepared> preparer,
+                                                   Function<T, String> externalIdOf) {
+        List<BatchItemResult> results = new ArrayList<>(records.size());
+        
+        for (int start = 0; start < records.size(); start += batchChunkSize) {
+            List<BatchRecord<T>> chunk = records.subList(start, Math.min(records.size(), start + batchChunkSize));
+            List<Prepared> pending = new ArrayList<>(chunk.size());
+            List<Integer> pendingIndexes = new ArrayList<>(chunk.size());
+            // Firings absorbed into a storm led by an alert in this chunk share that chunk's fate
+            Set<StormLeader> leaders = new HashSet<>();
+            List<Prepared> absorbed = new ArrayList<>();
+            List<Integer> absorbedIndexes = new ArrayList<>();
             
-            // Associate alert with incident
-            idempotencyService.associateAlertWithIncident(externalId, source, alert.getId().toString());
+            for (BatchRecord<T> record : chunk) {
+                String externalId = externalIdOf.apply(record.event());
+                try {
+                    Prepared prepared = preparer.apply(record.event(), organization);
+                    switch (prepared.outcome()) {
+                        case SKIPPED -> results.add(BatchItemResult.duplicate(record.index(), externalId));
+                        case COALESCED -> {
+                            if (leaders.contains(StormLeader.of(prepared.alert()))) {
+                                absorbed.add(prepared);
+                                absorbedIndexes.add(record.index());
+                            } else {
+                                idempotencyService.complete(prepared.alert().getSource(), externalId);
+                                results.add(BatchItemResult.coalesced(record.index(), externalId));
+                            }
+                        }
+                        case UPDATED -> results.add(BatchItemResult.updated(record.index(), externalId));
+                        case CREATE -> {
+                            pending.add(prepared);
+                            pendingIndexes.add(record.index());
+                            leaders.add(StormLeader.of(prepared.alert()));
+                        }
+                    }
+                } catch (Exception e) {
+                    logger.warn("Failed to prepare batch record {} ({})", record.index(), externalId, e);
+                    results.add(BatchItemResult.failed(record.index(), externalId, e.getMessage()));
+                }
+            }
             
-            logger.info("✅ CloudWatch alert processed: {} for organization: {}", externalId, organization.getName());
+            if (pending.isEmpty()) {
+                continue;
+            }
             
-        } catch (Exception e) {
-            logger.error("❌ Failed to process CloudWatch alert for organization: {}", organization.getName(), e);
-            throw e;
+            // One sample per chunk; a chunk's records all share a source
+            List<Alert> alerts = pending.stream().map(Prepared::alert).toList();
+            String source = alerts.get(0).getSource();
+            long persistStarted = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status -> alertRepository.saveAll(alerts));
+                pipelineMetrics.record(PipelineMetrics.Stage.PERSISTENCE, source, PipelineMetrics.Outcome.SUCCESS, persistStarted);
+                
+                for (int i = 0; i < pending.size(); i++) {
+                    Alert alert = alerts.get(i);
+                    stormCoalescer.opened(alert);
+                    idempotencyService.complete(alert.getSource(), alert.getExternalId(), openIncident(pending.get(i)));
+                    results.add(BatchItemResult.processed(pendingIndexes.get(i), alert.getExternalId()));
+                }
+                for (int i = 0; i < absorbed.size(); i++) {
+                    Alert firing = absorbed.get(i).alert();
+                    idempotencyService.complete(firing.getSource(), firing.getExternalId());
+                    results.add(BatchItemResult.coalesced(absorbedIndexes.get(i), firing.getExternalId()));
+                }
+            } catch (Exception e) {
+                logger.error("❌ Failed to persist batch chunk of {} alerts for organization: {}", pending.size(), organization.getName(), e);
+                pipelineMetrics.record(PipelineMetrics.Stage.PERSISTENCE, source, PipelineMetrics.Outcome.FAILURE, persistStarted);
+                for (int i = 0; i < pending.size(); i++) {
+                    Alert alert = alerts.get(i);
+                    stormCoalescer.abandon(alert);
+                    idempotencyService.fail(alert.getSource(), alert.getExternalId());
+                    results.add(BatchItemResult.failed(pendingIndexes.get(i), alert.getExternalId(), "Persistence failed"));
+                }
+                // abandon() dropped their storm, so the sender's retry is stored or coalesced afresh
+                for (int i = 0; i < absorbed.size(); i++) {
+                    Alert firing = absorbed.get(i).alert();
+                    idempotencyService.fail(firing.getSource(), firing.getExternalId());
+                    results.add(BatchItemResult.failed(absorbedIndexes.get(i), firing.getExternalId(), "Leading alert was not stored"));
+                }
+            }
         }
+        
+        return results;
     }
     
-    private com.signalroot.entity.Service findOrCreateService(String serviceName, Organization organization) {
-        return serviceRepository.findByNameAndOrganization(serviceName, organization)
-            .orElseGet(() -> {
-                com.signalroot.entity.Service newService = new com.signalroot.entity.Service(serviceName, organization);
-                return serviceRepository.save(newService);
-            });
+    /**
+     * Apply a lifecycle event to an alert this node has already seen. Returns UPDATED,
+     * or SKIPPED if the event was out of order.
+     */
+    private Prepared applyLifecycle(Organization organization, String source, String externalId,
+                                 Alert.AlertStatus status, LocalDateTime occurredAt) {
+        AlertLifecycleService.Transition transition = lifecycleService.apply(organization, source, externalId, status, occurredAt);
+        if (transition == AlertLifecycleService.Transition.NOT_FOUND) {
+            logger.warn("No stored alert for {} incident {}, dropping {} event", source, externalId, status);
+        }
+        return transition == AlertLifecycleService.Transition.APPLIED ? Prepared.UPDATED : Prepared.SKIPPED;
     }
     
-    private Alert.AlertSeverity mapPagerDutySeverity(String severity) {
-        return switch (severity.toLowerCase()) {
-            case "critical" -> Alert.AlertSeverity.CRITICAL;
-            case "high" -> Alert.AlertSeverity.HIGH;
-            case "warning" -> Alert.AlertSeverity.MEDIUM;
-            case "info" -> Alert.AlertSeverity.LOW;
-            default -> Alert.AlertSeverity.MEDIUM;
-        };
+    private static boolean isFiring(CloudWatchAlarmEvent event) {
+        return "ALARM".equalsIgnoreCase(event.state());
     }
     
-    private Alert.AlertStatus mapPagerDutyStatus(String status) {
-        return switch (status.toLowerCase()) {
-            case "triggered" -> Alert.AlertStatus.FIRING;
-            case "resolved" -> Alert.AlertStatus.RESOLVED;
-            case "acknowledged" -> Alert.AlertStatus.FIRING;
-            default -> Alert.AlertStatus.FIRING;
-        };
+    // PagerDuty timestamps are ISO-8601 with an offset; fall back to the receipt time
+    private LocalDateTime parseEventTime(String occurredAt) {
+        if (occurredAt != null) {
+            try {
+                return OffsetDateTime.parse(occurredAt).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            } catch (DateTimeParseException e) {
+                logger.warn("Unparseable PagerDuty event time {}, using receipt time", occurredAt);
+            }
+        }
+        return LocalDateTime.now();
     }
     
-    private Alert.AlertSeverity mapCloudWatchSeverity(String state) {
-        return switch (state.toUpperCase()) {
-            case "ALARM" -> Alert.AlertSeverity.HIGH;
-            case "OK" -> Alert.AlertSeverity.LOW;
-            case "INSUFFICIENT_DATA" -> Alert.AlertSeverity.MEDIUM;
-            default -> Alert.AlertSeverity.MEDIUM;
-        };
+    /**
+     * Open and enrich the incident for a stored alert. The alert is kept even if this fails,
+     * so a failure is logged rather than released for redelivery. Alerts first seen
+     * already resolved get no incident.
+     */
+    private String openIncident(Prepared prepared) {
+        Alert alert = prepared.alert();
+        if (alert.getStatus() == Alert.AlertStatus.RESOLVED) {
+            return null;
+        }
+        try {
+            return incidentCorrelationService.openIncident(alert, prepared.serviceName()).getId().toString();
+        } catch (Exception e) {
+            logger.error("❌ Failed to open incident for alert: {}", alert.getExternalId(), e);
+            return null;
+        }
     }
     
-    private String extractServiceNameFromAlarm(String alarmName) {
-        // Extract service name from alarm name like "PaymentService-HighCPU"
-        if (alarmName.contains("-")) {
-            return alarmName.split("-")[0].toLowerCase();
+    private com.signalroot.entity.Service findOrCreateService(String serviceName, Organization organization, String source) {
+        long started = System.nanoTime();
+        try {
+            com.signalroot.entity.Service service = serviceResolver.resolve(serviceName, organization);
+            pipelineMetrics.record(PipelineMetrics.Stage.SERVICE_RESOLUTION, source, PipelineMetrics.Outcome.SUCCESS, started);
+            return service;
+        } catch (RuntimeException e) {
+            pipelineMetrics.record(PipelineMetrics.Stage.SERVICE_RESOLUTION, source, PipelineMetrics.Outcome.FAILURE, started);
+            throw e;
         }
-        return alarmName.toLowerCase();
     }
 }
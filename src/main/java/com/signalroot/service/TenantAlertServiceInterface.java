@@ -1,9 +1,24 @@
 package com.signalroot.service;
 
+import com.signalroot.dto.BatchItemResult;
+import com.signalroot.dto.BatchRecord;
+import com.signalroot.dto.CloudWatchAlarmEvent;
+import com.signalroot.dto.PagerDutyAlertEvent;
 import com.signalroot.entity.Organization;
+import java.util.List;
 import java.util.Map;
 
 public interface TenantAlertServiceInterface {
-    void processPagerDutyAlert(Map<String, Object> payload, Organization organization);
-    void processCloudWatchAlert(Map<String, Object> payload, Organization organization);
+    void processPagerDutyAlert(PagerDutyAlertEvent event, Organization organization);
+    void processCloudWatchAlert(CloudWatchAlarmEvent event, Organization organization);
+    List<BatchItemResult> processPagerDutyAlerts(List<BatchRecord<PagerDutyAlertEvent>> records, Organization organization);
+    List<BatchItemResult> processCloudWatchAlerts(List<BatchRecord<CloudWatchAlarmEvent>> records, Organization organization);
+    
+    default void processPagerDutyAlert(Map<String, Object> payload, Organization organization) {
+        processPagerDutyAlert(PagerDutyAlertEvent.fromMap(payload), organization);
+    }
+    
+    default void processCloudWatchAlert(Map<String, Object> payload, Organization organization) {
+        processCloudWatchAlert(CloudWatchAlarmEvent.fromMap(payload), organization);
+    }
 }
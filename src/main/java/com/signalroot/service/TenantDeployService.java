@@ -1,18 +1,26 @@
 package com.signalroot.service;
 
+import com.signalroot.dto.BatchItemResult;
+import com.signalroot.dto.BatchRecord;
+import com.signalroot.dto.GitHubDeploymentEvent;
+import com.signalroot.dto.JenkinsBuildEvent;
 import com.signalroot.entity.DeployEvent;
 import com.signalroot.entity.Organization;
 import com.signalroot.repository.DeployEventRepository;
-import com.signalroot.repository.ServiceRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Service
 @ConditionalOnProperty(name = "signalroot.service.mode", havingValue = "real")
@@ -24,146 +32,241 @@ public class TenantDeployService implements TenantDeployServiceInterface {
     private DeployEventRepository deployEventRepository;
     
     @Autowired
-    private ServiceRepository serviceRepository;
+    private ServiceResolver serviceResolver;
+    
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
     
     @Autowired
     private IdempotencyService idempotencyService;
     
-    public void processGitHubDeploy(Map<String, Object> payload, Organization organization) {
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private DeployTimelineIndex timelineIndex;
+    
+    @Value("${signalroot.inbound.batch.chunk-size:500}")
+    private int batchChunkSize;
+    
+    public void processGitHubDeploy(GitHubDeploymentEvent event, Organization organization) {
         logger.info("🐙 Processing GitHub deploy for organization: {}", organization.getName());
         
         try {
-            Map<String, Object> deployment = (Map<String, Object>) payload.get("deployment");
-            String externalId = (String) deployment.get("id");
-            String source = "github";
+            DeployEvent deployEvent = prepareGitHubDeploy(event, organization);
+            if (deployEvent == null) {
+                return;
+            }
             
-            // Idempotency check
-            if (!idempotencyService.shouldProcessWebhook(externalId, source, externalId)) {
+            long persistStarted = System.nanoTime();
+            try {
+                deployEventRepository.save(deployEvent);
+                pipelineMetrics.record(PipelineMetrics.Stage.PERSISTENCE, deployEvent.getSource(), PipelineMetrics.Outcome.SUCCESS, persistStarted);
+            } catch (RuntimeException e) {
+                pipelineMetrics.record(PipelineMetrics.Stage.PERSISTENCE, deployEvent.getSource(), PipelineMetrics.Outcome.FAILURE, persistStarted);
+                idempotencyService.fail(deployEvent.getSource(), deployEvent.getExternalId());
+                throw e;
+            }
+            
+            idempotencyService.complete(deployEvent.getSource(), deployEvent.getExternalId());
+            indexDeploy(deployEvent);
+            
+            logger.info("✅ GitHub deploy processed: {} for organization: {}", deployEvent.getExternalId(), organization.getName());
+            
+        } catch (Exception e) {
+            logger.error("❌ Failed to process GitHub deploy for organization: {}", organization.getName(), e);
+            throw e;
+        }
+    }
+    
+    public void processJenkinsDeploy(JenkinsBuildEvent event, Organization organization) {
+        logger.info("🔧 Processing Jenkins deploy for organization: {}", organization.getName());
+        
+        try {
+            DeployEvent deployEvent = prepareJenkinsDeploy(event, organization);
+            if (deployEvent == null) {
                 return;
             }
             
-            // Mark webhook as processed
-            idempotencyService.markWebhookProcessed(externalId, source, externalId);
+            long persistStarted = System.nanoTime();
+            try {
+                deployEventRepository.save(deployEvent);
+                pipelineMetrics.record(PipelineMetrics.Stage.PERSISTENCE, deployEvent.getSource(), PipelineMetrics.Outcome.SUCCESS, persistStarted);
+            } catch (RuntimeException e) {
+                pipelineMetrics.record(PipelineMetrics.Stage.PERSISTENCE, deployEvent.getSource(), PipelineMetrics.Outcome.FAILURE, persistStarted);
+                idempotencyService.fail(deployEvent.getSource(), deployEvent.getExternalId());
+                throw e;
+            }
+            
+            idempotencyService.complete(deployEvent.getSource(), deployEvent.getExternalId());
+            indexDeploy(deployEvent);
             
+            logger.info("✅ Jenkins deploy processed: {} for organization: {}", deployEvent.getExternalId(), organization.getName());
+            
+        } catch (Exception e) {
+            logger.error("❌ Failed to process Jenkins deploy for organization: {}", organization.getName(), e);
+            throw e;
+        }
+    }
+    
+    public List<BatchItemResult> processGitHubDeploys(List<BatchRecord<GitHubDeploymentEvent>> records, Organization organization) {
+        logger.info("🐙 Processing batch of {} GitHub deploys for organization: {}", records.size(), organization.getName());
+        return persistBatch(records, organization, this::prepareGitHubDeploy, GitHubDeploymentEvent::deploymentId);
+    }
+    
+    public List<BatchItemResult> processJenkinsDeploys(List<BatchRecord<JenkinsBuildEvent>> records, Organization organization) {
+        logger.info("🔧 Processing batch of {} Jenkins deploys for organization: {}", records.size(), organization.getName());
+        return persistBatch(records, organization, this::prepareJenkinsDeploy, JenkinsBuildEvent::externalId);
+    }
+    
+    /**
+     * Run the idempotency check and build an unsaved deploy event, or return null for a duplicate
+     */
+    private DeployEvent prepareGitHubDeploy(GitHubDeploymentEvent event, Organization organization) {
+        String externalId = event.deploymentId();
+        String source = "github";
+        
+        // Idempotency check; a duplicate or concurrent delivery is skipped
+        if (idempotencyService.tryAcquire(source, externalId) != AcquireResult.ACQUIRED) {
+            return null;
+        }
+        
+        try {
             // Extract repository name
-            Map<String, Object> repository = (Map<String, Object>) payload.get("repository");
-            String repositoryName = (String) repository.get("name");
-            String serviceName = extractServiceNameFromRepo(repositoryName);
+            String serviceName = WebhookFieldMapper.serviceName(event.repositoryName());
             
             // Find or create service
-            com.signalroot.entity.Service service = findOrCreateService(serviceName, organization);
+            com.signalroot.entity.Service service = findOrCreateService(serviceName, organization, source);
             
-            // Create deploy event
             DeployEvent deployEvent = new DeployEvent();
             deployEvent.setService(service);
             deployEvent.setOrganization(organization);
             deployEvent.setSource(source);
             deployEvent.setExternalId(externalId);
-            deployEvent.setVersion((String) deployment.get("environment"));
-            
-            Map<String, Object> status = (Map<String, Object>) deployment.get("status");
-            deployEvent.setStatus(mapGitHubStatus((String) status.get("state")));
+            deployEvent.setVersion(event.environment());
+            deployEvent.setStatus(WebhookFieldMapper.gitHubStatus(event.state()));
             
-            String createdAt = (String) deployment.get("created_at");
+            String createdAt = event.createdAt();
             deployEvent.setStartedAt(LocalDateTime.parse(createdAt.replace("Z", "")));
-            
-            deployEventRepository.save(deployEvent);
-            
-            logger.info("✅ GitHub deploy processed: {} for organization: {}", externalId, organization.getName());
-            
-        } catch (Exception e) {
-            logger.error("❌ Failed to process GitHub deploy for organization: {}", organization.getName(), e);
+            return deployEvent;
+        } catch (RuntimeException e) {
+            idempotencyService.fail(source, externalId);
             throw e;
         }
     }
     
-    public void processJenkinsDeploy(Map<String, Object> payload, Organization organization) {
-        logger.info("🔧 Processing Jenkins deploy for organization: {}", organization.getName());
+    /**
+     * Run the idempotency check and build an unsaved deploy event, or return null for a duplicate
+     */
+    private DeployEvent prepareJenkinsDeploy(JenkinsBuildEvent event, Organization organization) {
+        String externalId = event.externalId();
+        String source = "jenkins";
+        
+        // Idempotency check; a duplicate or concurrent delivery is skipped
+        if (idempotencyService.tryAcquire(source, externalId) != AcquireResult.ACQUIRED) {
+            return null;
+        }
         
         try {
-            Map<String, Object> build = (Map<String, Object>) payload.get("build");
-            String externalId = (String) build.get("number") + "-" + (String) build.get("timestamp");
-            String source = "jenkins";
-            
-            // Idempotency check
-            if (!idempotencyService.shouldProcessWebhook(externalId, source, externalId)) {
-                return;
-            }
-            
-            // Mark webhook as processed
-            idempotencyService.markWebhookProcessed(externalId, source, externalId);
-            
             // Extract service name
-            Map<String, Object> job = (Map<String, Object>) payload.get("job");
-            String jobName = (String) job.get("name");
-            String serviceName = extractServiceNameFromJob(jobName);
+            String serviceName = WebhookFieldMapper.serviceName(event.jobName());
             
             // Find or create service
-            com.signalroot.entity.Service service = findOrCreateService(serviceName, organization);
+            com.signalroot.entity.Service service = findOrCreateService(serviceName, organization, source);
             
-            // Create deploy event
             DeployEvent deployEvent = new DeployEvent();
             deployEvent.setService(service);
             deployEvent.setOrganization(organization);
             deployEvent.setSource(source);
             deployEvent.setExternalId(externalId);
+            deployEvent.setVersion(event.artifactVersion());
+            deployEvent.setStatus(WebhookFieldMapper.jenkinsStatus(event.status()));
             
-            Map<String, Object> artifact = (Map<String, Object>) build.get("artifact");
-            deployEvent.setVersion((String) artifact.get("version"));
-            deployEvent.setStatus(mapJenkinsStatus((String) build.get("status")));
-            
-            String timestamp = (String) build.get("timestamp");
+            String timestamp = event.timestamp();
             deployEvent.setStartedAt(LocalDateTime.parse(timestamp.replace("Z", "")));
-            
-            deployEventRepository.save(deployEvent);
-            
-            logger.info("✅ Jenkins deploy processed: {} for organization: {}", externalId, organization.getName());
-            
-        } catch (Exception e) {
-            logger.error("❌ Failed to process Jenkins deploy for organization: {}", organization.getName(), e);
+            return deployEvent;
+        } catch (RuntimeException e) {
+            idempotencyService.fail(source, externalId);
             throw e;
         }
     }
     
-    private com.signalroot.entity.Service findOrCreateService(String serviceName, Organization organization) {
-        return serviceRepository.findByNameAndOrganization(serviceName, organization)
-            .orElseGet(() -> {
-                com.signalroot.entity.Service newService = new com.signalroot.entity.Service(serviceName, organization);
-                return serviceRepository.save(newService);
-            });
-    }
-    
-    private DeployEvent.DeployStatus mapGitHubStatus(String state) {
-        return switch (state.toLowerCase()) {
-            case "success" -> DeployEvent.DeployStatus.SUCCESS;
-            case "failure", "error" -> DeployEvent.DeployStatus.FAILURE;
-            case "pending" -> DeployEvent.DeployStatus.IN_PROGRESS;
-            default -> DeployEvent.DeployStatus.IN_PROGRESS;
-        };
-    }
-    
-    private DeployEvent.DeployStatus mapJenkinsStatus(String status) {
-        return switch (status.toUpperCase()) {
-            case "SUCCESS" -> DeployEvent.DeployStatus.SUCCESS;
-            case "FAILURE", "ABORTED" -> DeployEvent.DeployStatus.FAILURE;
-            case "UNSTABLE" -> DeployEvent.DeployStatus.PARTIAL;
-            default -> DeployEvent.DeployStatus.IN_PROGRESS;
-        };
+    /**
+     * Prepare each record, then persist the new deploy events with one saveAll per chunk so
+     * Hibernate can send them as JDBC batches inside a single transaction.
+     */
+    private <T> List<BatchItemResult> persistBatch(List<BatchRecord<T>> records, Organization organization,
+                                                   BiFunction<T, Organization, DeployEvent> preparer,
+                                                   Function<T, String> externalIdOf) {
+        List<BatchItemResult> results = new ArrayList<>(records.size());
+        
+        for (int start = 0; start < records.size(); start += batchChunkSize) {
+            List<BatchRecord<T>> chunk = records.subList(start, Math.min(records.size(), start + batchChunkSize));
+            List<DeployEvent> pending = new ArrayList<>(chunk.size());
+            List<Integer> pendingIndexes = new ArrayList<>(chunk.size());
+            
+            for (BatchRecord<T> record : chunk) {
+                String externalId = externalIdOf.apply(record.event());
+                try {
+                    DeployEvent deployEvent = preparer.apply(record.event(), organization);
+                    if (deployEvent == null) {
+                        results.add(BatchItemResult.duplicate(record.index(), externalId));
+                    } else {
+                        pending.add(deployEvent);
+                        pendingIndexes.add(record.index());
+                    }
+                } catch (Exception e) {
+                    logger.warn("Failed to prepare batch record {} ({})", record.index(), externalId, e);
+                    results.add(BatchItemResult.failed(record.index(), externalId, e.getMessage()));
+                }
+            }
+            
+            if (pending.isEmpty()) {
+                continue;
+            }
+            
+            // One sample per chunk; a chunk's records all share a source
+            String source = pending.get(0).getSource();
+            long persistStarted = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status -> deployEventRepository.saveAll(pending));
+                pipelineMetrics.record(PipelineMetrics.Stage.PERSISTENCE, source, PipelineMetrics.Outcome.SUCCESS, persistStarted);
+                
+                for (int i = 0; i < pending.size(); i++) {
+                    DeployEvent deployEvent = pending.get(i);
+                    idempotencyService.complete(deployEvent.getSource(), deployEvent.getExternalId());
+                    indexDeploy(deployEvent);
+                    results.add(BatchItemResult.processed(pendingIndexes.get(i), deployEvent.getExternalId()));
+                }
+            } catch (Exception e) {
+                logger.error("❌ Failed to persist batch chunk of {} deploys for organization: {}", pending.size(), organization.getName(), e);
+                pipelineMetrics.record(PipelineMetrics.Stage.PERSISTENCE, source, PipelineMetrics.Outcome.FAILURE, persistStarted);
+                for (int i = 0; i < pending.size(); i++) {
+                    DeployEvent deployEvent = pending.get(i);
+                    idempotencyService.fail(deployEvent.getSource(), deployEvent.getExternalId());
+                    results.add(BatchItemResult.failed(pendingIndexes.get(i), deployEvent.getExternalId(), "Persistence failed"));
+                }
+            }
+        }
+        
+        return results;
     }
     
-    private String extractServiceNameFromRepo(String repositoryName) {
-        // Extract service name from repository name like "payment-service-api"
-        if (repositoryName.contains("-")) {
-            return repositoryName.split("-")[0].toLowerCase();
-        }
-        return repositoryName.toLowerCase();
+    private void indexDeploy(DeployEvent deployEvent) {
+        String key = DeployTimelineIndex.key(deployEvent.getOrganization().getId().toString(), deployEvent.getService().getId().toString());
+        timelineIndex.record(key, new DeployTimelineIndex.Deploy(deployEvent.getId(), deployEvent.getSource(), deployEvent.getExternalId(),
+            deployEvent.getVersion(), deployEvent.getStatus().name(), deployEvent.getStartedAt()));
     }
     
-    private String extractServiceNameFromJob(String jobName) {
-        // Extract service name from job name like "payment-service-deploy"
-        if (jobName.contains("-")) {
-            return jobName.split("-")[0].toLowerCase();
+    private com.signalroot.entity.Service findOrCreateService(String serviceName, Organization organization, String source) {
+        long started = System.nanoTime();
+        try {
+            com.signalroot.entity.Service service = serviceResolver.resolve(serviceName, organization);
+            pipelineMetrics.record(PipelineMetrics.Stage.SERVICE_RESOLUTION, source, PipelineMetrics.Outcome.SUCCESS, started);
+            return service;
+        } catch (RuntimeException e) {
+            pipelineMetrics.record(PipelineMetrics.Stage.SERVICE_RESOLUTION, source, PipelineMetrics.Outcome.FAILURE, started);
+            throw e;
         }
-        return jobName.toLowerCase();
     }
 }
@@ -1,9 +1,24 @@
 package com.signalroot.service;
 
+import com.signalroot.dto.BatchItemResult;
+import com.signalroot.dto.BatchRecord;
+import com.signalroot.dto.GitHubDeploymentEvent;
+import com.signalroot.dto.JenkinsBuildEvent;
 import com.signalroot.entity.Organization;
+import java.util.List;
 import java.util.Map;
 
 public interface TenantDeployServiceInterface {
-    void processGitHubDeploy(Map<String, Object> payload, Organization organization);
-    void processJenkinsDeploy(Map<String, Object> payload, Organization organization);
+    void processGitHubDeploy(GitHubDeploymentEvent event, Organization organization);
+    void processJenkinsDeploy(JenkinsBuildEvent event, Organization organization);
+    List<BatchItemResult> processGitHubDeploys(List<BatchRecord<GitHubDeploymentEvent>> records, Organization organization);
+    List<BatchItemResult> processJenkinsDeploys(List<BatchRecord<JenkinsBuildEvent>> records, Organization organization);
+    
+    default void processGitHubDeploy(Map<String, Object> payload, Organization organization) {
+        processGitHubDeploy(GitHubDeploymentEvent.fromMap(payload), organization);
+    }
+    
+    default void processJenkinsDeploy(Map<String, Object> payload, Organization organization) {
+        processJenkinsDeploy(JenkinsBuildEvent.fromMap(payload), organization);
+    }
 }
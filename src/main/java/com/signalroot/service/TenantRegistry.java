@@ -0,0 +1,114 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Organization;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Copy-on-write set of organizations indexed by id, organization key, webhook
+ * secret and Slack workspace id.
+ *
+ * Readers get an immutable snapshot through a single volatile read, so lookups
+ * take no lock and allocate nothing. Writers are serialized and publish a newly
+ * built snapshot; this is cheap because tenants change rarely. Organizations
+ * are mutable entities, so after changing one in place call put() again to
+ * re-index it.
+ */
+public final class TenantRegistry {
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public Organization byId(UUID id) {
+        return id == null ? null : snapshot.byId.get(id);
+    }
+
+    public Organization byKey(String organizationKey) {
+        return organizationKey == null ? null : snapshot.byKey.get(organizationKey);
+    }
+
+    public Organization byWebhookSecret(String webhookSecret) {
+        return webhookSecret == null ? null : snapshot.byWebhookSecret.get(webhookSecret);
+    }
+
+    public Organization bySlackWorkspaceId(String slackWorkspaceId) {
+        return slackWorkspaceId == null ? null : snapshot.bySlackWorkspaceId.get(slackWorkspaceId);
+    }
+
+    /**
+     * Immutable view of all organizations at the time of the call.
+     */
+    public Collection<Organization> all() {
+        return snapshot.byId.values();
+    }
+
+    public int size() {
+        return snapshot.byId.size();
+    }
+
+    /**
+     * Add or re-index an organization, replacing any entry with the same id.
+     */
+    public synchronized void put(Organization organization) {
+        Map<UUID, Organization> organizations = new HashMap<>(snapshot.byId);
+        organizations.put(organization.getId(), organization);
+        snapshot = Snapshot.of(organizations.values());
+    }
+
+    public synchronized Organization remove(UUID id) {
+        Organization removed = snapshot.byId.get(id);
+        if (removed != null) {
+            Map<UUID, Organization> organizations = new HashMap<>(snapshot.byId);
+            organizations.remove(id);
+            snapshot = Snapshot.of(organizations.values());
+        }
+        return removed;
+    }
+
+    public synchronized void replaceAll(Collection<Organization> organizations) {
+        snapshot = Snapshot.of(new ArrayList<>(organizations));
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = of(List.of());
+
+        final Map<UUID, Organization> byId;
+        final Map<String, Organization> byKey;
+        final Map<String, Organization> byWebhookSecret;
+        final Map<String, Organization> bySlackWorkspaceId;
+
+        private Snapshot(Map<UUID, Organization> byId, Map<String, Organization> byKey,
+                         Map<String, Organization> byWebhookSecret, Map<String, Organization> bySlackWorkspaceId) {
+            this.byId = byId;
+            this.byKey = byKey;
+            this.byWebhookSecret = byWebhookSecret;
+            this.bySlackWorkspaceId = bySlackWorkspaceId;
+        }
+
+        static Snapshot of(Collection<Organization> organizations) {
+            Map<UUID, Organization> byId = new HashMap<>();
+            Map<String, Organization> byKey = new HashMap<>();
+            Map<String, Organization> byWebhookSecret = new HashMap<>();
+            Map<String, Organization> bySlackWorkspaceId = new HashMap<>();
+
+            for (Organization organization : organizations) {
+                byId.put(organization.getId(), organization);
+                byKey.put(organization.getOrganizationKey(), organization);
+                if (organization.getWebhookSecret() != null) {
+                    byWebhookSecret.put(organization.getWebhookSecret(), organization);
+                }
+                if (organization.getSlackWorkspaceId() != null) {
+                    bySlackWorkspaceId.put(organization.getSlackWorkspaceId(), organization);
+                }
+            }
+
+            // Map.copyOf gives compact immutable tables whose get() does not allocate
+            return new Snapshot(Map.copyOf(byId), Map.copyOf(byKey),
+                                Map.copyOf(byWebhookSecret), Map.copyOf(bySlackWorkspaceId));
+        }
+    }
+}
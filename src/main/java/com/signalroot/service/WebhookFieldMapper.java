@@ -0,0 +1,71 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Alert;
+import com.signalroot.entity.DeployEvent;
+
+/**
+ * Maps the severity, status and service-name fields of inbound webhooks onto
+ * SignalRoot's own values. Shared by the real and in-memory tenant services.
+ */
+public final class WebhookFieldMapper {
+
+    private WebhookFieldMapper() {
+    }
+
+    public static Alert.AlertSeverity pagerDutySeverity(String severity) {
+        return switch (severity.toLowerCase()) {
+            case "critical" -> Alert.AlertSeverity.CRITICAL;
+            case "high" -> Alert.AlertSeverity.HIGH;
+            case "warning" -> Alert.AlertSeverity.MEDIUM;
+            case "info" -> Alert.AlertSeverity.LOW;
+            default -> Alert.AlertSeverity.MEDIUM;
+        };
+    }
+
+    public static Alert.AlertStatus pagerDutyStatus(String status) {
+        return switch (status.toLowerCase()) {
+            case "triggered" -> Alert.AlertStatus.FIRING;
+            case "resolved" -> Alert.AlertStatus.RESOLVED;
+            case "acknowledged" -> Alert.AlertStatus.ACKNOWLEDGED;
+            default -> Alert.AlertStatus.FIRING;
+        };
+    }
+
+    public static Alert.AlertSeverity cloudWatchSeverity(String state) {
+        return switch (state.toUpperCase()) {
+            case "ALARM" -> Alert.AlertSeverity.HIGH;
+            case "OK" -> Alert.AlertSeverity.LOW;
+            case "INSUFFICIENT_DATA" -> Alert.AlertSeverity.MEDIUM;
+            default -> Alert.AlertSeverity.MEDIUM;
+        };
+    }
+
+    public static DeployEvent.DeployStatus gitHubStatus(String state) {
+        return switch (state.toLowerCase()) {
+            case "success" -> DeployEvent.DeployStatus.SUCCESS;
+            case "failure", "error" -> DeployEvent.DeployStatus.FAILURE;
+            case "pending" -> DeployEvent.DeployStatus.IN_PROGRESS;
+            default -> DeployEvent.DeployStatus.IN_PROGRESS;
+        };
+    }
+
+    public static DeployEvent.DeployStatus jenkinsStatus(String status) {
+        return switch (status.toUpperCase()) {
+            case "SUCCESS" -> DeployEvent.DeployStatus.SUCCESS;
+            case "FAILURE", "ABORTED" -> DeployEvent.DeployStatus.FAILURE;
+            case "UNSTABLE" -> DeployEvent.DeployStatus.PARTIAL;
+            default -> DeployEvent.DeployStatus.IN_PROGRESS;
+        };
+    }
+
+    /**
+     * Service name from a repository, job or alarm name: the part before the first
+     * dash, lower-cased ("payment-service-api" and "Payment-HighCPU" give "payment").
+     */
+    public static String serviceName(String name) {
+        if (name.contains("-")) {
+            return name.split("-")[0].toLowerCase();
+        }
+        return name.toLowerCase();
+    }
+}
@@ -0,0 +1,279 @@
+package com.signalroot.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.signalroot.dto.BatchRecord;
+import com.signalroot.dto.CloudWatchAlarmEvent;
+import com.signalroot.dto.GitHubDeploymentEvent;
+import com.signalroot.dto.JenkinsBuildEvent;
+import com.signalroot.dto.PagerDutyAlertEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pulls the handful of fields each webhook source needs straight off a streaming
+ * JsonParser. Subtrees that cannot contain a wanted path are skipped without
+ * being materialized, so large payloads never become Map trees.
+ *
+ * Wanted paths are split into segments once. While parsing, each object level
+ * carries a bitmask of the paths whose leading segments match the fields seen
+ * so far, so a field is matched by comparing its name against one segment per
+ * candidate path and no path strings are built.
+ */
+@Component
+public class WebhookPayloadExtractor {
+
+    private static final PathSet PAGERDUTY_PATHS = new PathSet(
+        "webhookId", "incident.id", "incident.title", "incident.severity", "incident.status", "incident.service.name",
+        "occurredAt", "incident.last_status_change_at");
+
+    private static final PathSet CLOUDWATCH_PATHS = new PathSet(
+        "id", "detail.alarmName", "detail.state");
+
+    private static final PathSet GITHUB_PATHS = new PathSet(
+        "deployment.id", "deployment.environment", "deployment.status.state", "deployment.created_at", "repository.name");
+
+    private static final PathSet JENKINS_PATHS = new PathSet(
+        "build.number", "build.timestamp", "build.status", "build.artifact.version", "job.name");
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    public JsonFactory getJsonFactory() {
+        return jsonFactory;
+    }
+
+    public PagerDutyAlertEvent readPagerDuty(byte[] body) throws IOException {
+        long started = System.nanoTime();
+        boolean extracted = false;
+        try (JsonParser parser = openObject(body)) {
+            PagerDutyAlertEvent event = readPagerDuty(parser);
+            extracted = true;
+            return event;
+        } catch (JsonProcessingException e) {
+            throw malformed(e);
+        } finally {
+            recordExtraction("pagerduty", extracted, started);
+        }
+    }
+
+    public CloudWatchAlarmEvent readCloudWatch(byte[] body) throws IOException {
+        long started = System.nanoTime();
+        boolean extracted = false;
+        try (JsonParser parser = openObject(body)) {
+            CloudWatchAlarmEvent event = readCloudWatch(parser);
+            extracted = true;
+            return event;
+        } catch (JsonProcessingException e) {
+            throw malformed(e);
+        } finally {
+            recordExtraction("cloudwatch", extracted, started);
+        }
+    }
+
+    public GitHubDeploymentEvent readGitHub(byte[] body) throws IOException {
+        long started = System.nanoTime();
+        boolean extracted = false;
+        try (JsonParser parser = openObject(body)) {
+            GitHubDeploymentEvent event = readGitHub(parser);
+            extracted = true;
+            return event;
+        } catch (JsonProcessingException e) {
+            throw malformed(e);
+        } finally {
+            recordExtraction("github", extracted, started);
+        }
+    }
+
+    public JenkinsBuildEvent readJenkins(byte[] body) throws IOException {
+        long started = System.nanoTime();
+        boolean extracted = false;
+        try (JsonParser parser = openObject(body)) {
+            JenkinsBuildEvent event = readJenkins(parser);
+            extracted = true;
+            return event;
+        } catch (JsonProcessingException e) {
+            throw malformed(e);
+        } finally {
+            recordExtraction("jenkins", extracted, started);
+        }
+    }
+
+    /**
+     * Read one PagerDuty event from a parser positioned on its START_OBJECT.
+     */
+    public PagerDutyAlertEvent readPagerDuty(JsonParser parser) throws IOException {
+        String[] v = readPaths(parser, PAGERDUTY_PATHS);
+        requireField(v[1], "incident.id");
+        return new PagerDutyAlertEvent(v[0], v[1], v[2], v[3], v[4], v[5], v[6] != null ? v[6] : v[7]);
+    }
+
+    /**
+     * Read one CloudWatch event from a parser positioned on its START_OBJECT.
+     */
+    public CloudWatchAlarmEvent readCloudWatch(JsonParser parser) throws IOException {
+        String[] v = readPaths(parser, CLOUDWATCH_PATHS);
+        requireField(v[0], "id");
+        return new CloudWatchAlarmEvent(v[0], v[1], v[2]);
+    }
+
+    /**
+     * Read one GitHub deployment event from a parser positioned on its START_OBJECT.
+     */
+    public GitHubDeploymentEvent readGitHub(JsonParser parser) throws IOException {
+        String[] v = readPaths(parser, GITHUB_PATHS);
+        requireField(v[0], "deployment.id");
+        return new GitHubDeploymentEvent(v[0], v[1], v[2], v[3], v[4]);
+    }
+
+    /**
+     * Read one Jenkins build event from a parser positioned on its START_OBJECT.
+     */
+    public JenkinsBuildEvent readJenkins(JsonParser parser) throws IOException {
+        String[] v = readPaths(parser, JENKINS_PATHS);
+        requireField(v[0], "build.number");
+        return new JenkinsBuildEvent(v[0], v[1], v[2], v[3], v[4]);
+    }
+
+    /**
+     * Read a batch body that is either a JSON array of events or newline-delimited JSON.
+     * Records missing required fields are returned as invalid instead of failing the batch.
+     */
+    public <T> List<BatchRecord<T>> readBatch(InputStream body, EventReader<T> reader, int maxRecords) throws IOException {
+        List<BatchRecord<T>> records = new ArrayList<>();
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+
+            int index = 0;
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (index >= maxRecords) {
+                    throw new IllegalArgumentException("Batch exceeds the limit of " + maxRecords + " records");
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Batch record " + index + " is not a JSON object");
+                }
+
+                try {
+                    records.add(BatchRecord.of(index, reader.read(parser)));
+                } catch (IllegalArgumentException e) {
+                    records.add(BatchRecord.invalid(index, e.getMessage()));
+                }
+
+                index++;
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            throw malformed(e);
+        }
+
+        return records;
+    }
+
+    private JsonParser openObject(byte[] body) throws IOException {
+        JsonParser parser = jsonFactory.createParser(body);
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            parser.close();
+            throw new IllegalArgumentException("Webhook body must be a JSON object");
+        }
+        return parser;
+    }
+
+    private void recordExtraction(String source, boolean extracted, long started) {
+        // Unset when constructed outside Spring, as the benchmarks do
+        if (pipelineMetrics != null) {
+            pipelineMetrics.record(PipelineMetrics.Stage.EXTRACTION, source,
+                                   extracted ? PipelineMetrics.Outcome.SUCCESS : PipelineMetrics.Outcome.REJECTED, started);
+        }
+    }
+
+    static IllegalArgumentException malformed(JsonProcessingException e) {
+        return new IllegalArgumentException("Malformed webhook JSON: " + e.getOriginalMessage(), e);
+    }
+
+    private static void requireField(String value, String path) {
+        if (value == null) {
+            throw new IllegalArgumentException("Webhook payload is missing " + path);
+        }
+    }
+
+    static String[] readPaths(JsonParser parser, PathSet paths) throws IOException {
+        String[] values = new String[paths.segments.length];
+        readObject(parser, 0, paths.all, paths, values);
+        return values;
+    }
+
+    /**
+     * Read the fields of the object the parser has just entered at the given depth.
+     * Bit i of candidates is set if path i matches every enclosing field name.
+     */
+    private static void readObject(JsonParser parser, int depth, long candidates, PathSet paths, String[] values)
+            throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            long matched = 0;
+            int leaf = -1;
+            for (long bits = candidates; bits != 0; bits &= bits - 1) {
+                int i = Long.numberOfTrailingZeros(bits);
+                String[] segments = paths.segments[i];
+                if (segments[depth].equals(name)) {
+                    if (segments.length == depth + 1) {
+                        leaf = i;
+                    } else {
+                        matched |= 1L << i;
+                    }
+                }
+            }
+
+            if (token == JsonToken.START_OBJECT) {
+                if (matched != 0) {
+                    readObject(parser, depth + 1, matched, paths, values);
+                } else {
+                    parser.skipChildren();
+                }
+            } else if (token == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+            } else if (token != JsonToken.VALUE_NULL && leaf >= 0) {
+                values[leaf] = parser.getValueAsString();
+            }
+        }
+    }
+
+    /**
+     * Dotted field paths, pre-split into segments. At most 64 paths, one bit each.
+     */
+    static final class PathSet {
+        final String[][] segments;
+        final long all;
+
+        PathSet(String... paths) {
+            if (paths.length > Long.SIZE) {
+                throw new IllegalArgumentException("At most " + Long.SIZE + " paths per set: " + paths.length);
+            }
+            segments = new String[paths.length][];
+            for (int i = 0; i < paths.length; i++) {
+                segments[i] = paths[i].split("\\.");
+            }
+            all = paths.length == Long.SIZE ? -1L : (1L << paths.length) - 1;
+        }
+    }
+
+    @FunctionalInterface
+    public interface EventReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+}
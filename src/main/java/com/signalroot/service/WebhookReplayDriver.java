@@ -0,0 +1,225 @@
+package com.signalroot.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.signalroot.controller.InboundWebhookController;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a recorded NDJSON stream of inbound webhooks through the inbound
+ * controller in-process, so signature checks, rate limiting, journaling,
+ * lanes and the tenant services all run as they would for real traffic.
+ *
+ * One record per line:
+ *   {"source":"pagerduty","orgKey":"acme-corp","receivedAt":"2024-05-01T12:00:00Z","signature":"...","body":{...}}
+ * receivedAt may also be epoch milliseconds. body may be a JSON string holding
+ * the raw payload, which is needed for a recorded signature to still verify.
+ *
+ * Pacing is open-loop: each record has a due time, either from a fixed rate
+ * or from its original receive time divided by a speed factor, and latency is
+ * measured from that due time, so a slow pipeline shows up as latency rather
+ * than as a lower send rate. Without a rate or timestamps records are sent as
+ * fast as the sender threads allow.
+ *
+ * Note the per-organization rate limit still applies; replays at production
+ * rates against one organization need signalroot.ratelimit.overrides.
+ */
+@Service
+@ConditionalOnProperty(name = "signalroot.replay.enabled", havingValue = "true")
+public class WebhookReplayDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookReplayDriver.class);
+
+    @Autowired
+    private InboundWebhookController inboundController;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * How to pace a replay. A positive ratePerSecond wins over speed; orgKey, if set,
+     * sends every record to that organization; limit 0 replays the whole stream.
+     */
+    public record Options(double ratePerSecond, double speed, int concurrency, String orgKey, int limit) {
+    }
+
+    public Map<String, Object> replay(InputStream ndjson, Options options) throws IOException, InterruptedException {
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService senders = Executors.newFixedThreadPool(Math.max(1, options.concurrency()), runnable -> {
+            Thread thread = new Thread(runnable, "replay-sender-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<String, SourceStats> stats = new ConcurrentHashMap<>();
+
+        int sent = 0;
+        int skipped = 0;
+        long firstRecordedAt = -1;
+        long start = System.nanoTime();
+
+        logger.info("▶️ Starting webhook replay: rate {}/s, speed {}x, {} senders",
+                   options.ratePerSecond(), options.speed(), options.concurrency());
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null && (options.limit() <= 0 || sent < options.limit())) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                Recorded record;
+                try {
+                    record = parse(line, options.orgKey());
+                } catch (IOException | RuntimeException e) {
+                    skipped++;
+                    logger.warn("Skipping unreadable replay record: {}", e.getMessage());
+                    continue;
+                }
+
+                long offsetNanos = 0;
+                if (options.ratePerSecond() > 0) {
+                    offsetNanos = (long) (sent * 1e9 / options.ratePerSecond());
+                } else if (record.recordedAt() >= 0) {
+                    if (firstRecordedAt < 0) {
+                        firstRecordedAt = record.recordedAt();
+                    }
+                    double speed = options.speed() > 0 ? options.speed() : 1.0;
+                    offsetNanos = (long) (Math.max(0, record.recordedAt() - firstRecordedAt) * 1e6 / speed);
+                }
+
+                long due = start + offsetNanos;
+                parkUntil(due);
+                SourceStats sourceStats = stats.computeIfAbsent(record.source(), source -> new SourceStats());
+                senders.execute(() -> send(record, due, sourceStats));
+                sent++;
+            }
+        } finally {
+            senders.shutdown();
+        }
+
+        if (!senders.awaitTermination(10, TimeUnit.MINUTES)) {
+            senders.shutdownNow();
+            logger.warn("Replay senders did not finish in time, report is partial");
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        logger.info("⏹️ Replayed {} webhooks in {} ms ({} skipped)", sent, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), skipped);
+        return report(stats, sent, skipped, elapsedNanos, options);
+    }
+
+    private void send(Recorded record, long due, SourceStats stats) {
+        int status;
+        try {
+            ResponseEntity<?> response = switch (record.source()) {
+                case "pagerduty" -> inboundController.handlePagerDutyWebhook(record.orgKey(), record.body(), record.signature());
+                case "cloudwatch" -> inboundController.handleCloudWatchWebhook(record.orgKey(), record.body(), record.signature());
+                case "github" -> inboundController.handleGitHubWebhook(record.orgKey(), record.body(), record.signature());
+                case "jenkins" -> inboundController.handleJenkinsWebhook(record.orgKey(), record.body(), record.signature());
+                default -> ResponseEntity.badRequest().build();
+            };
+            status = response.getStatusCode().value();
+        } catch (Exception e) {
+            status = 500;
+        }
+
+        stats.latencyMicros.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due)));
+        stats.statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    private Recorded parse(String line, String orgKeyOverride) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        String source = node.path("source").asText(null);
+        String orgKey = orgKeyOverride != null ? orgKeyOverride : node.path("orgKey").asText(null);
+        JsonNode body = node.get("body");
+        if (source == null || orgKey == null || body == null) {
+            throw new IllegalArgumentException("record needs source, orgKey and body");
+        }
+
+        // Bodies may be recorded as JSON or as the raw string the sender posted
+        byte[] bytes = body.isTextual()
+            ? body.asText().getBytes(StandardCharsets.UTF_8)
+            : objectMapper.writeValueAsBytes(body);
+        return new Recorded(source, orgKey, node.path("signature").asText(null), bytes, recordedAt(node.get("receivedAt")));
+    }
+
+    private static long recordedAt(JsonNode receivedAt) {
+        if (receivedAt == null || receivedAt.isNull()) {
+            return -1;
+        }
+        return receivedAt.isNumber() ? receivedAt.asLong() : Instant.parse(receivedAt.asText()).toEpochMilli();
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static Map<String, Object> report(Map<String, SourceStats> stats, int sent, int skipped,
+                                              long elapsedNanos, Options options) {
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        Map<String, Object> sources = new TreeMap<>();
+        stats.forEach((source, sourceStats) -> {
+            Histogram latency = sourceStats.latencyMicros;
+            Map<String, Object> latencyMicros = new LinkedHashMap<>();
+            latencyMicros.put("mean", Math.round(latency.getMean()));
+            latencyMicros.put("p50", latency.getValueAtPercentile(50));
+            latencyMicros.put("p90", latency.getValueAtPercentile(90));
+            latencyMicros.put("p99", latency.getValueAtPercentile(99));
+            latencyMicros.put("p999", latency.getValueAtPercentile(99.9));
+            latencyMicros.put("max", latency.getMaxValue());
+
+            Map<String, Long> statuses = new TreeMap<>();
+            sourceStats.statuses.forEach((status, count) -> statuses.put(String.valueOf(status), count.sum()));
+
+            Map<String, Object> sourceReport = new LinkedHashMap<>();
+            sourceReport.put("count", latency.getTotalCount());
+            sourceReport.put("throughputPerSecond", latency.getTotalCount() / seconds);
+            sourceReport.put("latencyMicros", latencyMicros);
+            sourceReport.put("statuses", statuses);
+            sources.put(source, sourceReport);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("sent", sent);
+        report.put("skipped", skipped);
+        report.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.put("throughputPerSecond", sent / seconds);
+        report.put("pacing", options.ratePerSecond() > 0 ? options.ratePerSecond() + "/s" : options.speed() + "x recorded");
+        report.put("sources", sources);
+        return report;
+    }
+
+    private record Recorded(String source, String orgKey, String signature, byte[] body, long recordedAt) {
+    }
+
+    private static final class SourceStats {
+        // Auto-resizing, so slow outliers are never clipped
+        private final Histogram latencyMicros = new ConcurrentHistogram(3);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,207 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Organization;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Checks HMAC-SHA256 webhook signatures against Organization.webhookSecret over
+ * the raw request body, before anything is parsed, so forged or junk requests
+ * cost one hash.
+ *
+ * Header formats:
+ *   GITHUB     X-Hub-Signature-256: sha256=HEX
+ *   PAGERDUTY  X-PagerDuty-Webhook-Signature: v1=HEX[,v1=HEX...] (several during secret rotation)
+ *   GENERIC    X-SignalRoot-Signature: sha256=HEX (CloudWatch, Jenkins and batch forwarders)
+ *
+ * Mode (signalroot.inbound.signature.mode):
+ *   configured  (default) organizations with a webhookSecret must sign every
+ *               request; organizations without one are let through unsigned
+ *   required    every request must be signed; organizations without a secret are rejected
+ *   if-present  migration only: verifies signatures that are sent, lets unsigned requests through
+ *   off         skips verification
+ */
+@Service
+public class WebhookSignatureVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookSignatureVerifier.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int DIGEST_BYTES = 32;
+    // Per-thread Mac cache is cleared past this many organizations
+    private static final int MAX_MACS_PER_THREAD = 256;
+
+    public enum Scheme {
+        GITHUB, PAGERDUTY, GENERIC
+    }
+
+    // Reused per worker thread: Mac instances are not thread-safe and costly to create
+    private static final ThreadLocal<ThreadState> THREAD_STATE = ThreadLocal.withInitial(ThreadState::new);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${signalroot.inbound.signature.mode:configured}")
+    private String mode = "configured";
+
+    private Counter verifiedCounter;
+    private Counter rejectedCounter;
+    private Counter unsignedCounter;
+
+    @PostConstruct
+    public void init() {
+        verifiedCounter = Counter.builder("signalroot.inbound.signature.verified").register(meterRegistry);
+        rejectedCounter = Counter.builder("signalroot.inbound.signature.rejected")
+            .description("Webhooks rejected for a missing or wrong signature")
+            .register(meterRegistry);
+        unsignedCounter = Counter.builder("signalroot.inbound.signature.unsigned")
+            .description("Unsigned webhooks let through, for organizations without a secret or in if-present mode")
+            .register(meterRegistry);
+        if (!"configured".equals(mode) && !"required".equals(mode) && !"if-present".equals(mode) && !"off".equals(mode)) {
+            throw new IllegalStateException("Unknown signalroot.inbound.signature.mode: " + mode);
+        }
+        if ("if-present".equals(mode)) {
+            logger.warn("Webhook signature mode if-present accepts unsigned requests; use it only while senders are migrated");
+        }
+        logger.info("Webhook signature verification mode: {}", mode);
+    }
+
+    /**
+     * True if the request may be processed: the signature matches, or the mode lets it through unsigned.
+     */
+    public boolean verify(Scheme scheme, Organization organization, String signatureHeader, byte[] body) {
+        if ("off".equals(mode)) {
+            return true;
+        }
+
+        boolean unsigned = signatureHeader == null || signatureHeader.isBlank();
+        String secret = organization.getWebhookSecret();
+        if (unsigned || secret == null) {
+            if (requiresSignature(organization)) {
+                rejectedCounter.increment();
+                return false;
+            }
+            unsignedCounter.increment();
+            return true;
+        }
+
+        byte[] expected = digest(organization.getId(), secret, body);
+        boolean valid = scheme == Scheme.PAGERDUTY
+            ? matchesAny(signatureHeader, "v1=", expected)
+            : matches(signatureHeader, 0, signatureHeader.length(), "sha256=", expected);
+
+        if (valid) {
+            verifiedCounter.increment();
+        } else {
+            rejectedCounter.increment();
+        }
+        return valid;
+    }
+
+    /**
+     * True if an unsigned request for the organization is rejected.
+     */
+    public boolean requiresSignature(Organization organization) {
+        return switch (mode) {
+            case "required" -> true;
+            case "configured" -> organization.getWebhookSecret() != null;
+            default -> false;
+        };
+    }
+
+    private byte[] digest(UUID organizationId, String secret, byte[] body) {
+        ThreadState state = THREAD_STATE.get();
+        Mac mac = state.mac(organizationId, secret);
+        mac.update(body);
+        try {
+            mac.doFinal(state.digest, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException("Unexpected HMAC length", e);
+        }
+        return state.digest;
+    }
+
+    // PagerDuty may send several comma-separated signatures; any match is enough
+    private static boolean matchesAny(String header, String prefix, byte[] expected) {
+        boolean valid = false;
+        int start = 0;
+        while (start <= header.length()) {
+            int end = header.indexOf(',', start);
+            if (end < 0) {
+                end = header.length();
+            }
+            // Check every entry so the time taken does not depend on which one matched
+            valid |= matches(header, start, end, prefix, expected);
+            start = end + 1;
+        }
+        return valid;
+    }
+
+    private static boolean matches(String header, int start, int end, String prefix, byte[] expected) {
+        while (start < end && header.charAt(start) == ' ') {
+            start++;
+        }
+        if (!header.startsWith(prefix, start) || end - start - prefix.length() != DIGEST_BYTES * 2) {
+            return false;
+        }
+
+        byte[] provided = THREAD_STATE.get().provided;
+        int offset = start + prefix.length();
+        for (int i = 0; i < DIGEST_BYTES; i++) {
+            int high = Character.digit(header.charAt(offset + 2 * i), 16);
+            int low = Character.digit(header.charAt(offset + 2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            provided[i] = (byte) ((high << 4) | low);
+        }
+        return MessageDigest.isEqual(provided, expected);
+    }
+
+    private static final class ThreadState {
+        private final Map<UUID, KeyedMac> macs = new HashMap<>();
+        private final byte[] digest = new byte[DIGEST_BYTES];
+        private final byte[] provided = new byte[DIGEST_BYTES];
+
+        Mac mac(UUID organizationId, String secret) {
+            KeyedMac keyed = macs.get(organizationId);
+            if (keyed == null || !keyed.secret.equals(secret)) {
+                if (macs.size() >= MAX_MACS_PER_THREAD) {
+                    macs.clear();
+                }
+                keyed = new KeyedMac(secret, newMac(secret));
+                macs.put(organizationId, keyed);
+            }
+            return keyed.mac;
+        }
+
+        private static Mac newMac(String secret) {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        }
+    }
+
+    private record KeyedMac(String secret, Mac mac) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.signalroot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorrelationEngineTest {
+
+    private static final LocalDateTime ALERT_TIME = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private static final String KEY = DeployTimelineIndex.key("org-1", "svc-1");
+
+    private CorrelationEngine engine;
+    private DeployTimelineIndex index;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        index = new DeployTimelineIndex();
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new CorrelationEngine();
+        ReflectionTestUtils.setField(engine, "timelineIndex", index);
+        ReflectionTestUtils.setField(engine, "meterRegistry", meterRegistry);
+        engine.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void closerDeployOutranksOlderOneWithTheSameStatus() {
+        index.record(KEY, deploy("old", "SUCCESS", 60));
+        index.record(KEY, deploy("recent", "SUCCESS", 5));
+
+        CorrelationEngine.RankedDeploy ranked = engine.rankDeploys(KEY, ALERT_TIME);
+
+        assertEquals("recent", ranked.deploy().externalId());
+        assertEquals(5, ranked.age().toMinutes());
+    }
+
+    @Test
+    void failedDeployOutranksSlightlyCloserSuccess() {
+        index.record(KEY, deploy("failed", "FAILURE", 30));
+        index.record(KEY, deploy("succeeded", "SUCCESS", 5));
+
+        // 0.75 * 1.0 for the failure against 0.96 * 0.7 for the success
+        assertEquals("failed", engine.rankDeploys(KEY, ALERT_TIME).deploy().externalId());
+    }
+
+    @Test
+    void deploysAfterTheAlertOrOutsideTheLookbackAreIgnored() {
+        index.record(KEY, deploy("too-old", "FAILURE", 121));
+        index.record(KEY, deploy("after", "FAILURE", -1));
+
+        assertNull(engine.rankDeploys(KEY, ALERT_TIME));
+    }
+
+    @Test
+    void similarIncidentMustClearTheThreshold() {
+        // 1 shared token of 4 is 0.25, under the 0.3 threshold
+        assertNull(engine.mostSimilar("payment api latency", List.of("payment queue depth"), Function.identity()));
+        // 2 shared tokens of 4 is 0.5
+        assertEquals("payment api errors",
+            engine.mostSimilar("payment api latency", List.of("payment queue depth", "payment api errors"), Function.identity()));
+    }
+
+    @Test
+    void mostSimilarCandidateWins() {
+        List<String> candidates = List.of("checkout api latency high", "payment api latency high", "payment db down");
+
+        assertEquals("payment api latency high",
+            engine.mostSimilar("payment api latency high", candidates, Function.identity()));
+    }
+
+    @Test
+    void jaccardCountsSharedTokensOverTheUnion() {
+        assertEquals(0.5, CorrelationEngine.jaccard(Set.of("a1", "b1", "c1"), Set.of("b1", "c1", "d1")));
+        assertEquals(0.0, CorrelationEngine.jaccard(Set.of(), Set.of("a1")));
+    }
+
+    @Test
+    void correlateRecordsEveryStage() {
+        // Generous so a cold test JVM does not trip it; the deadline has its own tests
+        ReflectionTestUtils.setField(engine, "deadlineMillis", 10_000L);
+        index.record(KEY, deploy("d1", "FAILURE", 10));
+
+        CorrelationEngine.Enrichment<String> enrichment = engine.correlate(KEY, "payment", "payment api latency",
+            "CRITICAL", ALERT_TIME, () -> List.of("payment api latency spike"), Function.identity());
+
+        assertFalse(enrichment.partial());
+        assertTrue(enrichment.missedStages().isEmpty());
+        assertEquals(Set.of("deploy", "similar", "checks"), enrichment.stageMicros().keySet());
+        for (long micros : enrichment.stageMicros().values()) {
+            assertTrue(micros >= 0 && micros <= enrichment.totalMicros(), "stage " + micros);
+        }
+        assertEquals("d1", enrichment.deploy().deploy().externalId());
+        assertEquals("payment api latency spike", enrichment.similarIncident());
+        assertTrue(enrichment.suggestedChecks().contains("Consider rolling back"));
+        for (String stage : List.of("deploy", "similar", "checks")) {
+            assertEquals(1, meterRegistry.get("signalroot.correlation.stage").tag("stage", stage).timer().count());
+        }
+    }
+
+    @Test
+    void lookupOverrunningTheDeadlineIsDroppedAndFlaggedPartial() throws Exception {
+        warmUp();
+        ReflectionTestUtils.setField(engine, "deadlineMillis", 200L);
+        index.record(KEY, deploy("d1", "FAILURE", 10));
+        CountDownLatch slowSource = new CountDownLatch(1);
+
+        CorrelationEngine.Enrichment<String> enrichment;
+        try {
+            enrichment = engine.correlate(KEY, "payment", "payment api latency", "CRITICAL", ALERT_TIME, () -> {
+                await(slowSource);
+                return List.of("payment api latency spike");
+            }, Function.identity());
+        } finally {
+            slowSource.countDown();
+        }
+
+        assertTrue(enrichment.partial());
+        assertEquals(List.of("similar"), enrichment.missedStages());
+        assertNull(enrichment.similarIncident());
+        assertEquals(Set.of("deploy", "checks"), enrichment.stageMicros().keySet());
+        // The lookups that made it are still used
+        assertEquals("d1", enrichment.deploy().deploy().externalId());
+        assertFalse(enrichment.suggestedChecks().contains("similar incident"));
+        assertTrue(enrichment.totalMicros() < TimeUnit.SECONDS.toMicros(5), "waited " + enrichment.totalMicros());
+        assertEquals(1.0, meterRegistry.get("signalroot.correlation.missed").tag("stage", "similar").counter().count());
+        assertEquals(1.0, meterRegistry.get("signalroot.correlation.partial").counter().count());
+    }
+
+    @Test
+    void failedLookupIsReportedMissed() {
+        ReflectionTestUtils.setField(engine, "deadlineMillis", 10_000L);
+
+        CorrelationEngine.Enrichment<String> enrichment = engine.correlate(KEY, "payment", "payment api latency",
+            "CRITICAL", ALERT_TIME, () -> {
+                throw new IllegalStateException("incident store down");
+            }, Function.identity());
+
+        assertTrue(enrichment.partial());
+        assertEquals(List.of("similar"), enrichment.missedStages());
+        assertFalse(enrichment.stageMicros().containsKey("similar"));
+    }
+
+    // Runs one correlation with a loose deadline so class loading does not count against a tight one
+    private void warmUp() {
+        ReflectionTestUtils.setField(engine, "deadlineMillis", 10_000L);
+        engine.correlate(KEY, "payment", "warm up", "LOW", ALERT_TIME, List::<String>of, Function.identity());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static DeployTimelineIndex.Deploy deploy(String id, String status, int minutesBeforeAlert) {
+        return new DeployTimelineIndex.Deploy(UUID.randomUUID(), "github", id, null, status,
+                                              ALERT_TIME.minusMinutes(minutesBeforeAlert));
+    }
+}
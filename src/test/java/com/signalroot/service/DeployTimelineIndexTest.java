@@ -0,0 +1,108 @@
+package com.signalroot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeployTimelineIndexTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private static final String KEY = DeployTimelineIndex.key("org-1", "svc-1");
+
+    private DeployTimelineIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DeployTimelineIndex();
+        ReflectionTestUtils.setField(index, "capacityPerService", 4);
+    }
+
+    @Test
+    void windowQueryReturnsNewestFirst() {
+        for (int minute = 0; minute < 4; minute++) {
+            index.record(KEY, deploy("d" + minute, minute));
+        }
+
+        assertEquals(List.of("d3", "d2", "d1"), ids(index.deploysBefore(KEY, T0.plusMinutes(3), Duration.ofMinutes(2))));
+        assertEquals("d2", index.latestBefore(KEY, T0.plusMinutes(2).plusSeconds(30), Duration.ofMinutes(10)).externalId());
+        assertNull(index.latestBefore(KEY, T0.minusMinutes(1), Duration.ofMinutes(10)));
+        assertNull(index.latestBefore(KEY, T0.plusMinutes(30), Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void wrapsAroundKeepingTheNewestDeploys() {
+        for (int minute = 0; minute < 10; minute++) {
+            index.record(KEY, deploy("d" + minute, minute));
+        }
+
+        assertEquals(4, index.deployCount());
+        assertEquals(List.of("d9", "d8", "d7", "d6"), ids(index.deploysBefore(KEY, T0.plusHours(1), Duration.ofHours(2))));
+        assertEquals("d9", index.latest(KEY).externalId());
+    }
+
+    @Test
+    void outOfOrderDeploysAreInsertedInTimeOrder() {
+        index.record(KEY, deploy("d5", 5));
+        index.record(KEY, deploy("d1", 1));
+        index.record(KEY, deploy("d3", 3));
+        index.record(KEY, deploy("d4", 4));
+
+        assertEquals(List.of("d5", "d4", "d3", "d1"), ids(index.deploysBefore(KEY, T0.plusHours(1), Duration.ofHours(2))));
+    }
+
+    @Test
+    void outOfOrderDeployAfterWraparoundEvictsOldest() {
+        for (int minute = 0; minute < 6; minute++) {
+            index.record(KEY, deploy("d" + minute, minute * 2));
+        }
+        // Kept: minutes 4, 6, 8, 10; a late arrival at minute 7 pushes out minute 4
+        index.record(KEY, deploy("late", 7));
+
+        assertEquals(List.of("d5", "d4", "late", "d3"), ids(index.deploysBefore(KEY, T0.plusHours(1), Duration.ofHours(2))));
+    }
+
+    @Test
+    void deployOlderThanAFullTimelineIsDropped() {
+        for (int minute = 10; minute < 14; minute++) {
+            index.record(KEY, deploy("d" + minute, minute));
+        }
+        index.record(KEY, deploy("ancient", 1));
+
+        assertEquals(List.of("d13", "d12", "d11", "d10"), ids(index.deploysBefore(KEY, T0.plusHours(1), Duration.ofHours(2))));
+    }
+
+    @Test
+    void sameDeployIsIndexedOnce() {
+        index.record(KEY, deploy("d1", 1));
+        index.record(KEY, deploy("d1", 1));
+        index.record(KEY, deploy("d2", 1));
+
+        assertEquals(2, index.deployCount());
+    }
+
+    @Test
+    void servicesAreIndexedSeparately() {
+        String other = DeployTimelineIndex.key("org-2", "svc-1");
+        index.record(KEY, deploy("d1", 1));
+        index.record(other, deploy("d2", 2));
+
+        assertEquals(2, index.serviceCount());
+        assertEquals("d1", index.latest(KEY).externalId());
+        assertNull(index.latest(DeployTimelineIndex.key("org-3", "svc-1")));
+        assertTrue(index.deploysBefore("unknown", T0, Duration.ofHours(1)).isEmpty());
+    }
+
+    private static DeployTimelineIndex.Deploy deploy(String externalId, int minute) {
+        return new DeployTimelineIndex.Deploy(null, "github", externalId, "1.0." + minute, "SUCCESS", T0.plusMinutes(minute));
+    }
+
+    private static List<String> ids(List<DeployTimelineIndex.Deploy> deploys) {
+        return deploys.stream().map(DeployTimelineIndex.Deploy::externalId).toList();
+    }
+}
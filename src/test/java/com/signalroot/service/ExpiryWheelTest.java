@@ -0,0 +1,102 @@
+package com.signalroot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiryWheelTest {
+
+    @Test
+    void firesEntriesOnceTheirDeadlinePasses() {
+        ExpiryWheel wheel = new ExpiryWheel(100, 8, 16, 0);
+        long[] deadlines = new long[16];
+        List<Integer> fired = new ArrayList<>();
+        schedule(wheel, deadlines, 1, 250);
+        schedule(wheel, deadlines, 2, 120);
+
+        assertEquals(0, wheel.advance(100, record(wheel, deadlines, fired)));
+        assertEquals(1, wheel.advance(200, record(wheel, deadlines, fired)));
+        assertEquals(List.of(2), fired);
+        assertEquals(1, wheel.advance(300, record(wheel, deadlines, fired)));
+        assertEquals(List.of(2, 1), fired);
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void deadlinesBeyondSpanAreParkedAndRescheduledByTheHandler() {
+        ExpiryWheel wheel = new ExpiryWheel(100, 8, 16, 0);
+        long[] deadlines = new long[16];
+        List<Integer> fired = new ArrayList<>();
+        schedule(wheel, deadlines, 7, 2_000);
+
+        for (long now = 100; now < 2_000; now += 100) {
+            wheel.advance(now, record(wheel, deadlines, fired));
+            assertTrue(fired.isEmpty(), "fired early at " + now);
+            assertEquals(1, wheel.pending());
+        }
+        wheel.advance(2_000, record(wheel, deadlines, fired));
+        assertEquals(List.of(7), fired);
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextTick() {
+        ExpiryWheel wheel = new ExpiryWheel(100, 8, 16, 1_000);
+        long[] deadlines = new long[16];
+        List<Integer> fired = new ArrayList<>();
+        schedule(wheel, deadlines, 3, 500);
+
+        wheel.advance(1_100, record(wheel, deadlines, fired));
+        assertEquals(List.of(3), fired);
+    }
+
+    @Test
+    void everyKeyInOneBucketIsHandedOver() {
+        ExpiryWheel wheel = new ExpiryWheel(100, 8, 1000, 0);
+        long[] deadlines = new long[1000];
+        List<Integer> fired = new ArrayList<>();
+        for (int key = 0; key < 1000; key++) {
+            schedule(wheel, deadlines, key, 150);
+        }
+        assertEquals(1000, wheel.pending());
+
+        assertEquals(1000, wheel.advance(200, record(wheel, deadlines, fired)));
+        assertEquals(1000, fired.stream().distinct().count());
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void memoryIsFixedAtConstruction() {
+        ExpiryWheel wheel = new ExpiryWheel(100, 8, 1000, 0);
+        long empty = wheel.memoryBytes();
+        assertEquals((1000 + 8) * Integer.BYTES, empty);
+
+        for (int key = 0; key < 1000; key++) {
+            wheel.schedule(key, 150);
+        }
+        assertEquals(empty, wheel.memoryBytes());
+    }
+
+    @Test
+    void rejectsBucketCountThatIsNotAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpiryWheel(100, 12, 16, 0));
+    }
+
+    private static void schedule(ExpiryWheel wheel, long[] deadlines, int key, long deadline) {
+        deadlines[key] = deadline;
+        wheel.schedule(key, deadline);
+    }
+
+    // Handler that owns the deadlines, as IdempotencyStore does
+    private static ExpiryWheel.ExpiryHandler record(ExpiryWheel wheel, long[] deadlines, List<Integer> fired) {
+        return (key, now) -> {
+            if (deadlines[key] > now) {
+                wheel.schedule(key, deadlines[key]);
+                return false;
+            }
+            return fired.add(key);
+        };
+    }
+}
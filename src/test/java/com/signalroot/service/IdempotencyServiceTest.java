@@ -0,0 +1,90 @@
+package com.signalroot.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private IdempotencyService service;
+    private PostgresIdempotencyBackend sharedBackend;
+
+    @BeforeEach
+    void setUp() {
+        sharedBackend = mock(PostgresIdempotencyBackend.class);
+        service = new IdempotencyService();
+        ReflectionTestUtils.setField(service, "backend", "postgres");
+        ReflectionTestUtils.setField(service, "sharedBackend", sharedBackend);
+        ReflectionTestUtils.setField(service, "webhookCapacity", 1024);
+        ReflectionTestUtils.setField(service, "notificationCapacity", 1024);
+        ReflectionTestUtils.setField(service, "alertIncidentCapacity", 1024);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void nearCacheMissClaimsInSharedTable() {
+        when(sharedBackend.tryAcquire(eq("pagerduty"), eq("PD-1"), anyLong())).thenReturn(AcquireResult.ACQUIRED);
+
+        assertEquals(AcquireResult.ACQUIRED, service.tryAcquire("pagerduty", "PD-1"));
+
+        verify(sharedBackend).tryAcquire(eq("pagerduty"), eq("PD-1"), anyLong());
+        assertEquals(0, service.getStats().nearCacheHits);
+    }
+
+    @Test
+    void completedKeyIsAnsweredFromNearCache() {
+        when(sharedBackend.tryAcquire(eq("pagerduty"), eq("PD-1"), anyLong())).thenReturn(AcquireResult.ACQUIRED);
+        service.tryAcquire("pagerduty", "PD-1");
+        service.complete("pagerduty", "PD-1");
+
+        assertEquals(AcquireResult.DUPLICATE, service.tryAcquire("pagerduty", "PD-1"));
+
+        verify(sharedBackend).complete(eq("pagerduty"), eq("PD-1"), anyLong());
+        verify(sharedBackend, times(1)).tryAcquire(anyString(), anyString(), anyLong());
+        assertEquals(1, service.getStats().nearCacheHits);
+    }
+
+    @Test
+    void duplicateFromAnotherReplicaIsRememberedLocally() {
+        when(sharedBackend.tryAcquire(eq("pagerduty"), eq("PD-1"), anyLong())).thenReturn(AcquireResult.DUPLICATE);
+
+        assertEquals(AcquireResult.DUPLICATE, service.tryAcquire("pagerduty", "PD-1"));
+        assertEquals(AcquireResult.DUPLICATE, service.tryAcquire("pagerduty", "PD-1"));
+
+        verify(sharedBackend, times(1)).tryAcquire(anyString(), anyString(), anyLong());
+        assertEquals(1, service.getStats().nearCacheHits);
+    }
+
+    @Test
+    void inFlightElsewhereIsNotCachedLocally() {
+        when(sharedBackend.tryAcquire(eq("pagerduty"), eq("PD-1"), anyLong()))
+            .thenReturn(AcquireResult.IN_FLIGHT, AcquireResult.ACQUIRED);
+
+        assertEquals(AcquireResult.IN_FLIGHT, service.tryAcquire("pagerduty", "PD-1"));
+        assertEquals(AcquireResult.ACQUIRED, service.tryAcquire("pagerduty", "PD-1"));
+
+        verify(sharedBackend, times(2)).tryAcquire(anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void sharedFailureReleasesLocalClaim() {
+        when(sharedBackend.tryAcquire(eq("pagerduty"), eq("PD-1"), anyLong()))
+            .thenThrow(new IllegalStateException("database down"))
+            .thenReturn(AcquireResult.ACQUIRED);
+
+        assertThrows(IllegalStateException.class, () -> service.tryAcquire("pagerduty", "PD-1"));
+        assertEquals(AcquireResult.ACQUIRED, service.tryAcquire("pagerduty", "PD-1"));
+    }
+}
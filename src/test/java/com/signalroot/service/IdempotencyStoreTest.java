@@ -0,0 +1,180 @@
+package com.signalroot.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private static final long TTL = 60_000;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void duplicateIsDetectedUntilWindowCloses() {
+        IdempotencyStore store = new IdempotencyStore(1024, TTL);
+        store.put("github", "evt-1", START);
+
+        assertTrue(store.contains("github", "evt-1", START + TTL - 1));
+        assertFalse(store.contains("github", "evt-1", START + TTL));
+        assertFalse(store.contains("jenkins", "evt-1", START));
+        assertEquals(AcquireResult.DUPLICATE, store.tryAcquire("github", "evt-1", START + 1, 1000));
+        assertEquals(AcquireResult.ACQUIRED, store.tryAcquire("github", "evt-1", START + TTL, 1000));
+    }
+
+    @Test
+    void leaseBlocksOthersUntilItLapsesOrIsReleased() {
+        IdempotencyStore store = new IdempotencyStore(1024, TTL);
+
+        assertEquals(AcquireResult.ACQUIRED, store.tryAcquire("pagerduty", "a", START, 1000));
+        assertEquals(AcquireResult.IN_FLIGHT, store.tryAcquire("pagerduty", "a", START + 999, 1000));
+        assertEquals(AcquireResult.ACQUIRED, store.tryAcquire("pagerduty", "a", START + 1000, 1000));
+
+        assertTrue(store.release("pagerduty", "a"));
+        assertEquals(AcquireResult.ACQUIRED, store.tryAcquire("pagerduty", "a", START + 1001, 1000));
+
+        store.complete("pagerduty", "a", START + 1002, TTL);
+        assertFalse(store.release("pagerduty", "a"));
+        assertEquals(AcquireResult.DUPLICATE, store.tryAcquire("pagerduty", "a", START + 5000, 1000));
+    }
+
+    @Test
+    void fullProbeWindowEvictsEntryClosestToExpiry() {
+        // Keys sharing a home slot fill its 8-slot probe window
+        IdempotencyStore store = new IdempotencyStore(1, TTL);
+        String[] keys = keysInOneSegment(store, 9);
+
+        for (int i = 0; i < 8; i++) {
+            store.put("cloudwatch", keys[i], START + i);
+        }
+        store.put("cloudwatch", keys[8], START + 100);
+
+        assertEquals(1, store.evictions());
+        assertFalse(store.contains("cloudwatch", keys[0], START + 100));
+        for (int i = 1; i < 9; i++) {
+            assertTrue(store.contains("cloudwatch", keys[i], START + 100), keys[i]);
+        }
+        assertTrue(store.collisionRate() > 0);
+    }
+
+    @Test
+    void expiredSlotIsReusedWithoutEviction() {
+        IdempotencyStore store = new IdempotencyStore(1, TTL);
+        String[] keys = keysInOneSegment(store, 9);
+
+        for (int i = 0; i < 8; i++) {
+            store.put("cloudwatch", keys[i], START);
+        }
+        store.put("cloudwatch", keys[8], START + TTL);
+
+        assertEquals(0, store.evictions());
+        assertTrue(store.contains("cloudwatch", keys[8], START + TTL));
+    }
+
+    @Test
+    void wheelFreesSlotsAsWindowsClose() {
+        IdempotencyStore store = new IdempotencyStore(1024, TTL, 1000, 16, START);
+        store.put("github", "a", START);
+        store.put("github", "b", START + 30_000);
+
+        assertEquals(0, store.expireDue(START + TTL - 1));
+        assertEquals(1, store.expireDue(START + TTL));
+        assertEquals(1, store.size());
+        assertEquals(1, store.expireDue(START + 30_000 + TTL));
+        assertEquals(0, store.size());
+        assertEquals(0, store.getWheel().pending());
+    }
+
+    @Test
+    void refreshedKeyKeepsItsSlotAndIsRequeued() {
+        IdempotencyStore store = new IdempotencyStore(1024, TTL, 1000, 16, START);
+        assertEquals(AcquireResult.ACQUIRED, store.tryAcquire("github", "a", START, 5000));
+        store.complete("github", "a", START + 1000, TTL);
+
+        assertEquals(0, store.expireDue(START + 10_000));
+        assertTrue(store.contains("github", "a", START + 10_000));
+        assertEquals(1, store.getWheel().pending());
+        assertEquals(1, store.expireDue(START + 1000 + TTL));
+        assertEquals(0, store.getWheel().pending());
+    }
+
+    @Test
+    void wheelHoldsOneEntryPerSlotWhateverTheTraffic() {
+        IdempotencyStore store = new IdempotencyStore(1024, TTL, 1000, 16, START);
+        long now = START;
+        for (int round = 0; round < 50; round++) {
+            for (int key = 0; key < 100; key++) {
+                store.tryAcquire("github", "evt-" + key, now, 5000);
+                store.complete("github", "evt-" + key, now, TTL);
+            }
+            now += 1000;
+            store.expireDue(now);
+        }
+
+        assertEquals(100, store.getWheel().pending());
+        // 26 bytes of slot and a 4-byte wheel link per slot, plus the wheel's bucket heads
+        assertEquals((long) store.getCapacity() * 30 + 16 * Integer.BYTES, store.memoryBytes());
+
+        store.expireDue(now + TTL);
+        assertEquals(0, store.size());
+        assertEquals(0, store.getWheel().pending());
+    }
+
+    @Test
+    void releasedSlotReusedByAnotherKeyIsStillExpired() {
+        IdempotencyStore store = new IdempotencyStore(1, TTL, 1000, 16, START);
+        String[] keys = keysInOneSegment(store, 1);
+
+        store.tryAcquire("jenkins", keys[0], START, 5000);
+        store.release("jenkins", keys[0]);
+        store.put("jenkins", "other-" + keys[0], START + 1000);
+        store.put("jenkins", keys[0], START + 2000);
+
+        store.expireDue(START + 2000 + TTL);
+        assertEquals(0, store.size());
+        assertEquals(0, store.getWheel().pending());
+    }
+
+    @Test
+    void capacityIsNotRoundedToAPowerOfTwo() {
+        IdempotencyStore store = new IdempotencyStore(300_000, TTL, 1000, 4096, START);
+
+        assertEquals(300_000, store.getCapacity());
+        assertTrue(store.memoryBytes() < 32L * 300_000, "memory " + store.memoryBytes());
+    }
+
+    @Test
+    void purgeExpiredSweepsWholeTable() {
+        IdempotencyStore store = new IdempotencyStore(1024, TTL);
+        for (int i = 0; i < 10; i++) {
+            store.put("github", "evt-" + i, START + i * 10_000);
+        }
+
+        assertEquals(4, store.purgeExpired(START + TTL + 30_000));
+        assertEquals(6, store.size());
+        assertEquals(4, store.expirations());
+    }
+
+    /**
+     * Keys whose hashes land in the same segment and share a home slot.
+     */
+    private static String[] keysInOneSegment(IdempotencyStore store, int count) {
+        String[] keys = new String[count];
+        int found = 0;
+        long segment = -1;
+        long home = -1;
+        int slots = store.getCapacity() / 16;
+        for (int i = 0; found < count; i++) {
+            String key = "k" + i;
+            long hi = IdempotencyStore.hashHigh("cloudwatch", key);
+            long lo = IdempotencyStore.hashLow("cloudwatch", key);
+            if (segment < 0) {
+                segment = hi >>> 60;
+                home = IdempotencyStore.home(lo, slots);
+            }
+            if (hi >>> 60 == segment && IdempotencyStore.home(lo, slots) == home) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,229 @@
+package com.signalroot.service;
+
+import com.signalroot.dto.CloudWatchAlarmEvent;
+import com.signalroot.entity.Organization;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InboundJournalTest {
+
+    private Path directory;
+    private Organization organization;
+    private OrganizationServiceInterface organizationService;
+    private TenantAlertServiceInterface alertService;
+    private final List<String> replayedIds = new ArrayList<>();
+    private KeyedLaneExecutor lanes;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-test");
+        organization = new Organization();
+        organization.setId(UUID.randomUUID());
+
+        organizationService = mock(OrganizationServiceInterface.class);
+        when(organizationService.findById(organization.getId())).thenReturn(organization);
+        alertService = mock(TenantAlertServiceInterface.class);
+        doAnswer(invocation -> replayedIds.add(invocation.getArgument(0, CloudWatchAlarmEvent.class).id()))
+            .when(alertService).processCloudWatchAlert(any(CloudWatchAlarmEvent.class), any());
+
+        lanes = new KeyedLaneExecutor();
+        ReflectionTestUtils.setField(lanes, "meterRegistry", new SimpleMeterRegistry());
+        lanes.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, InterruptedException {
+        lanes.stop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void replaysOnlyUncommittedEntriesAfterRestart() throws Exception {
+        InboundJournal journal = open();
+        journal.journaled(organization, "cloudwatch", "payment-HighCPU", body("done"), () -> { }).run();
+        journal.journaled(organization, "cloudwatch", "payment-HighCPU", body("pending"), () -> { });
+        journal.journaled(organization, "cloudwatch", "payment-HighCPU", body("discarded"), () -> { }).discard();
+        journal.close();
+
+        InboundJournal restarted = open();
+        restarted.replay();
+        restarted.close();
+
+        assertEquals(List.of("pending"), replayedIds);
+    }
+
+    @Test
+    void failedProcessingStaysUncommittedForReplay() throws Exception {
+        InboundJournal journal = open();
+        InboundJournal.Entry entry = journal.journaled(organization, "cloudwatch", "payment-HighCPU", body("failed"), () -> {
+            throw new IllegalStateException("database down");
+        });
+        assertThrows(IllegalStateException.class, entry::run);
+        journal.close();
+
+        InboundJournal restarted = open();
+        restarted.replay();
+        restarted.close();
+
+        assertEquals(List.of("failed"), replayedIds);
+    }
+
+    @Test
+    void failedEntryIsRetriedAndCommitted() throws Exception {
+        InboundJournal journal = open();
+        int[] attempts = {0};
+        String[] retryThread = {null};
+        InboundJournal.Entry entry = journal.journaled(organization, "cloudwatch", "payment-HighCPU", body("flaky"), () -> {
+            if (attempts[0]++ == 0) {
+                throw new IllegalStateException("database down");
+            }
+            retryThread[0] = Thread.currentThread().getName();
+        });
+        assertThrows(IllegalStateException.class, entry::run);
+        journal.retryFailed();
+        lanes.stop();
+        journal.close();
+        assertEquals(2, attempts[0]);
+
+        // Retried on the lane that new events for the same key use
+        int lane = lanes.laneOf(organization, "cloudwatch", "payment-HighCPU");
+        assertEquals("inbound-lane-" + lane, retryThread[0]);
+
+        InboundJournal restarted = open();
+        restarted.replay();
+        restarted.close();
+
+        assertTrue(replayedIds.isEmpty());
+    }
+
+    @Test
+    void runOrDiscardDropsFailedEntry() throws Exception {
+        InboundJournal journal = open();
+        InboundJournal.Entry entry = journal.journaled(organization, "cloudwatch", "payment-HighCPU", body("sender-retries"), () -> {
+            throw new IllegalStateException("database down");
+        });
+        assertThrows(IllegalStateException.class, entry::runOrDiscard);
+        journal.close();
+
+        InboundJournal restarted = open();
+        restarted.replay();
+        restarted.close();
+
+        assertTrue(replayedIds.isEmpty());
+    }
+
+    @Test
+    void tornTailRecordIsIgnored() throws Exception {
+        InboundJournal journal = open();
+        journal.journaled(organization, "cloudwatch", "payment-HighCPU", body("intact"), () -> { });
+        journal.journaled(organization, "cloudwatch", "payment-HighCPU", body("torn"), () -> { });
+        journal.close();
+
+        // Flip a byte inside the last record so its checksum no longer matches
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.sorted().reduce((first, second) -> second).orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        int last = lastIndexOf(bytes, "torn".getBytes(StandardCharsets.UTF_8));
+        bytes[last] ^= 0x7f;
+        Files.write(segment, bytes);
+
+        InboundJournal restarted = open();
+        restarted.replay();
+        restarted.close();
+
+        assertEquals(List.of("intact"), replayedIds);
+    }
+
+    @Test
+    void commitInNewerSegmentSurvivesUntilOlderSegmentDrains() throws Exception {
+        InboundJournal journal = open(1024);
+        journal.journaled(organization, "cloudwatch", "payment-HighCPU", body("e1"), () -> { });
+        InboundJournal.Entry e2 = journal.journaled(organization, "cloudwatch", "payment-HighCPU", body("e2"), () -> { });
+
+        // e2's commit record lands in segment B while e1 keeps segment A alive
+        rollOver(journal);
+        e2.run();
+
+        // B drains and is sealed; deleting it would lose e2's commit
+        rollOver(journal);
+        journal.close();
+
+        InboundJournal restarted = open();
+        restarted.replay();
+        restarted.close();
+
+        assertEquals(List.of("e1"), replayedIds);
+    }
+
+    private InboundJournal open() throws IOException {
+        return open(64 * 1024);
+    }
+
+    private InboundJournal open(int segmentBytes) throws IOException {
+        InboundJournal journal = new InboundJournal();
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentBytes", segmentBytes);
+        ReflectionTestUtils.setField(journal, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(journal, "organizationService", organizationService);
+        ReflectionTestUtils.setField(journal, "alertService", alertService);
+        ReflectionTestUtils.setField(journal, "deployService", mock(TenantDeployServiceInterface.class));
+        ReflectionTestUtils.setField(journal, "payloadExtractor", new WebhookPayloadExtractor());
+        ReflectionTestUtils.setField(journal, "lanes", lanes);
+        journal.open();
+        return journal;
+    }
+
+    // Journals and commits filler webhooks until the journal starts a new segment
+    private void rollOver(InboundJournal journal) throws IOException {
+        Path before = latestSegment();
+        while (latestSegment().equals(before)) {
+            journal.journaled(organization, "cloudwatch", "payment-HighCPU", body("filler"), () -> { }).run();
+        }
+    }
+
+    private Path latestSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().reduce((first, second) -> second).orElseThrow();
+        }
+    }
+
+    private static byte[] body(String id) {
+        return ("{\"id\":\"" + id + "\",\"detail\":{\"alarmName\":\"payment-HighCPU\",\"state\":\"ALARM\"}}")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int lastIndexOf(byte[] bytes, byte[] pattern) {
+        for (int i = bytes.length - pattern.length; i >= 0; i--) {
+            int j = 0;
+            while (j < pattern.length && bytes[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("pattern not found");
+    }
+}
@@ -0,0 +1,163 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Organization;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestRateLimiterTest {
+
+    @Test
+    void bucketStartsFullAndEmptiesAfterBurst() {
+        IngestRateLimiter.Bucket bucket = new IngestRateLimiter.Bucket(10, 3_000, 0);
+
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+    }
+
+    @Test
+    void refillsAtConfiguredRateUpToBurst() {
+        IngestRateLimiter.Bucket bucket = new IngestRateLimiter.Bucket(10, 2_000, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        // 10 per second is one token per 100 ms
+        assertFalse(bucket.tryAcquire(99));
+        assertTrue(bucket.tryAcquire(100));
+        assertFalse(bucket.tryAcquire(150));
+
+        // A long pause refills only to the burst
+        assertTrue(bucket.tryAcquire(60_000));
+        assertTrue(bucket.tryAcquire(60_000));
+        assertFalse(bucket.tryAcquire(60_000));
+    }
+
+    @Test
+    void rateAboveBurstPerMillisecondStillRefills() {
+        // 5,000/s refills 5,000 units per millisecond, more than the 1-token burst
+        IngestRateLimiter.Bucket bucket = new IngestRateLimiter.Bucket(5_000, 1_000, 0);
+
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(1));
+        assertFalse(bucket.tryAcquire(1));
+    }
+
+    @Test
+    void clockStepBackwardsDoesNotRefill() {
+        IngestRateLimiter.Bucket bucket = new IngestRateLimiter.Bucket(10, 1_000, 1_000);
+
+        assertTrue(bucket.tryAcquire(1_000));
+        assertFalse(bucket.tryAcquire(500));
+        assertFalse(bucket.tryAcquire(1_099));
+        assertTrue(bucket.tryAcquire(1_100));
+    }
+
+    @Test
+    void concurrentCallersNeverTakeMoreThanTheBurst() throws Exception {
+        IngestRateLimiter.Bucket bucket = new IngestRateLimiter.Bucket(1, 500_000, 0);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 200; i++) {
+                    if (bucket.tryAcquire(0)) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(500, admitted.get());
+    }
+
+    @Test
+    void overridesApplyPerOrganization() {
+        IngestRateLimiter limiter = new IngestRateLimiter();
+        ReflectionTestUtils.setField(limiter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(limiter, "defaultPerSecond", 1L);
+        ReflectionTestUtils.setField(limiter, "defaultBurst", 1L);
+        ReflectionTestUtils.setField(limiter, "overrides", "big=100:3");
+        limiter.init();
+
+        Organization small = organization("small");
+        Organization big = organization("big");
+
+        assertTrue(limiter.tryAcquire(small));
+        assertFalse(limiter.tryAcquire(small));
+        assertTrue(limiter.retryAfterSeconds(small) >= 1);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(big));
+        }
+        assertEquals(3L, limiter.getStats().get("big").get("admitted"));
+        assertEquals(1L, limiter.getStats().get("small").get("rejected"));
+    }
+
+    @Test
+    void multiTokenAcquireIsAllOrNothing() {
+        IngestRateLimiter.Bucket bucket = new IngestRateLimiter.Bucket(10, 5_000, 0);
+
+        assertTrue(bucket.tryAcquire(0, 3));
+        assertFalse(bucket.tryAcquire(0, 3));
+        assertTrue(bucket.tryAcquire(0, 2));
+        assertFalse(bucket.tryAcquire(0));
+
+        // More than the burst never fits, however long the caller waits
+        assertFalse(bucket.tryAcquire(60_000, 6));
+        assertTrue(bucket.tryAcquire(60_000, 5));
+    }
+
+    @Test
+    void batchIsChargedPerRecord() {
+        IngestRateLimiter limiter = new IngestRateLimiter();
+        ReflectionTestUtils.setField(limiter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(limiter, "defaultPerSecond", 1L);
+        ReflectionTestUtils.setField(limiter, "defaultBurst", 10L);
+        limiter.init();
+        Organization org = organization("acme");
+
+        assertEquals(10, limiter.maxTokens(org));
+        assertTrue(limiter.tryAcquire(org, 8));
+        assertFalse(limiter.tryAcquire(org, 3));
+        assertTrue(limiter.retryAfterSeconds(org, 3) >= 1);
+        assertTrue(limiter.tryAcquire(org, 2));
+        assertEquals(10L, limiter.getStats().get("acme").get("admitted"));
+        assertEquals(3L, limiter.getStats().get("acme").get("rejected"));
+    }
+
+    @Test
+    void rejectsMalformedOverride() {
+        IngestRateLimiter limiter = new IngestRateLimiter();
+        ReflectionTestUtils.setField(limiter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(limiter, "overrides", "acme=100");
+
+        assertThrows(IllegalArgumentException.class, limiter::init);
+    }
+
+    private static Organization organization(String key) {
+        Organization organization = new Organization();
+        organization.setOrganizationKey(key);
+        return organization;
+    }
+}
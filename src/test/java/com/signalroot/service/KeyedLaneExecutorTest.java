@@ -0,0 +1,119 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Organization;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedLaneExecutorTest {
+
+    private KeyedLaneExecutor executor;
+    private Organization organization;
+
+    @BeforeEach
+    void setUp() {
+        executor = new KeyedLaneExecutor();
+        ReflectionTestUtils.setField(executor, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(executor, "syncTimeoutSeconds", 1L);
+        executor.start();
+
+        organization = new Organization();
+        organization.setId(UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.stop();
+    }
+
+    @Test
+    void syncRunsOnCallerThread() {
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        assertTrue(executor.run(organization, "github", "deploy-1", () -> ranOn.set(Thread.currentThread())));
+        assertSame(Thread.currentThread(), ranOn.get());
+    }
+
+    @Test
+    void syncWaitsForEarlierEventWithSameKey() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> executor.run(organization, "pagerduty", "inc-1", () -> {
+            started.countDown();
+            await(release);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicBoolean secondRan = new AtomicBoolean();
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(
+            () -> executor.run(organization, "pagerduty", "inc-1", () -> secondRan.set(true)));
+        Thread.sleep(100);
+        assertFalse(secondRan.get());
+
+        release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        assertTrue(secondRan.get());
+    }
+
+    @Test
+    void syncGivesUpWithoutRunningWhenKeyStaysBusy() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> executor.run(organization, "jenkins", "build-7", () -> {
+            started.countDown();
+            await(release);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicBoolean secondRan = new AtomicBoolean();
+        assertFalse(executor.run(organization, "jenkins", "build-7", () -> secondRan.set(true)));
+        release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertFalse(secondRan.get());
+    }
+
+    @Test
+    void syncRethrowsAndReleasesKey() {
+        assertThrows(IllegalArgumentException.class, () -> executor.run(organization, "cloudwatch", "cpu-high", () -> {
+            throw new IllegalArgumentException("boom");
+        }));
+        assertTrue(executor.run(organization, "cloudwatch", "cpu-high", () -> { }));
+    }
+
+    @Test
+    void asyncKeepsArrivalOrderPerKey() throws Exception {
+        StringBuilder order = new StringBuilder();
+        CompletableFuture<Void> last = null;
+        for (int i = 0; i < 20; i++) {
+            int n = i;
+            last = executor.submit(organization, "pagerduty", "inc-2", () -> order.append(n).append(','));
+        }
+        last.get(5, TimeUnit.SECONDS);
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            expected.append(i).append(',');
+        }
+        assertEquals(expected.toString(), order.toString());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
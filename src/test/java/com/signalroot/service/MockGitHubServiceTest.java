@@ -0,0 +1,84 @@
+package com.signalroot.service;
+
+import com.signalroot.dto.GitHubDeployWebhookDTO;
+import com.signalroot.dto.JenkinsDeployWebhookDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class MockGitHubServiceTest {
+
+    private MockGitHubService service;
+    private DeployTimelineIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DeployTimelineIndex();
+        service = new MockGitHubService();
+        ReflectionTestUtils.setField(service, "timelineIndex", index);
+        ReflectionTestUtils.setField(service, "latencyModel", mock(MockLatencyModel.class));
+    }
+
+    @Test
+    void newerJenkinsDeployDoesNotHideTheGitHubDeploy() {
+        service.processGitHubDeploy(gitHubDeploy("gh-1", "payment-service", Instant.now().minus(Duration.ofMinutes(10))));
+        service.processJenkinsDeploy(jenkinsDeploy("payment-build", "42", Instant.now().minus(Duration.ofMinutes(1))));
+
+        MockGitHubService.GitHubDeploy recent = service.getRecentDeploy("payment");
+        assertNotNull(recent);
+        assertEquals("gh-1", recent.id);
+    }
+
+    @Test
+    void gitHubDeployOutsideTheLookbackIsNotRecent() {
+        service.processGitHubDeploy(gitHubDeploy("gh-1", "payment-service", Instant.now().minus(Duration.ofHours(3))));
+
+        assertNull(service.getRecentDeploy("payment"));
+    }
+
+    @Test
+    void mockWritersAndReadersShareOneKey() {
+        service.processGitHubDeploy(gitHubDeploy("gh-1", "Payment-Service", Instant.now().minus(Duration.ofMinutes(5))));
+
+        assertNotNull(index.latest(DeployTimelineIndex.mockKey("payment")));
+        assertEquals(DeployTimelineIndex.mockKey("payment"), DeployTimelineIndex.mockKey("payment-api"));
+    }
+
+    private static GitHubDeployWebhookDTO gitHubDeploy(String id, String repository, Instant createdAt) {
+        GitHubDeployWebhookDTO.Deployment.DeploymentStatus status = new GitHubDeployWebhookDTO.Deployment.DeploymentStatus();
+        status.setState("success");
+        GitHubDeployWebhookDTO.Deployment deployment = new GitHubDeployWebhookDTO.Deployment();
+        deployment.setId(id);
+        deployment.setEnvironment("production");
+        deployment.setSha("abc123");
+        deployment.setStatus(status);
+        deployment.setCreated_at(createdAt);
+        GitHubDeployWebhookDTO.Repository repo = new GitHubDeployWebhookDTO.Repository();
+        repo.setName(repository);
+
+        GitHubDeployWebhookDTO webhook = new GitHubDeployWebhookDTO();
+        webhook.setDeployment(deployment);
+        webhook.setRepository(repo);
+        return webhook;
+    }
+
+    private static JenkinsDeployWebhookDTO jenkinsDeploy(String job, String number, Instant timestamp) {
+        JenkinsDeployWebhookDTO.Build build = new JenkinsDeployWebhookDTO.Build();
+        build.setNumber(number);
+        build.setStatus(JenkinsDeployWebhookDTO.Build.BuildStatus.SUCCESS);
+        build.setTimestamp(timestamp);
+        JenkinsDeployWebhookDTO.Job jobDto = new JenkinsDeployWebhookDTO.Job();
+        jobDto.setName(job);
+
+        JenkinsDeployWebhookDTO webhook = new JenkinsDeployWebhookDTO();
+        webhook.setBuild(build);
+        webhook.setJob(jobDto);
+        return webhook;
+    }
+}
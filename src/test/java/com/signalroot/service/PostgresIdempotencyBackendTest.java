@@ -0,0 +1,92 @@
+package com.signalroot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.and;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class PostgresIdempotencyBackendTest {
+
+    private static final long LEASE_MILLIS = 60_000;
+
+    private PostgresIdempotencyBackend backend;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        backend = new PostgresIdempotencyBackend();
+        ReflectionTestUtils.setField(backend, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    void newKeyIsClaimedByTheInsert() {
+        when(jdbcTemplate.update(contains("DO NOTHING"), any(), any(), any())).thenReturn(1);
+
+        assertEquals(AcquireResult.ACQUIRED, backend.tryAcquire("pagerduty", "PD-1", LEASE_MILLIS));
+
+        verify(jdbcTemplate).update(contains("DO NOTHING"), eq("pagerduty"), eq("PD-1"), eq(LEASE_MILLIS));
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE"), any(), any(), any());
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Integer.class), any(), any());
+        assertEquals(1, backend.getClaims());
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverByTheUpdate() {
+        when(jdbcTemplate.update(contains("DO NOTHING"), any(), any(), any())).thenReturn(0);
+        when(jdbcTemplate.update(startsWith("UPDATE"), any(), any(), any())).thenReturn(1);
+
+        assertEquals(AcquireResult.ACQUIRED, backend.tryAcquire("pagerduty", "PD-1", LEASE_MILLIS));
+
+        // Only a row whose deadline has passed on the database clock may be taken over
+        verify(jdbcTemplate).update(and(startsWith("UPDATE"), contains("expires_at <= now()")),
+                                    eq(LEASE_MILLIS), eq("pagerduty"), eq("PD-1"));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Integer.class), any(), any());
+    }
+
+    @Test
+    void liveCompletedKeyIsADuplicate() {
+        when(jdbcTemplate.update(anyString(), any(), any(), any())).thenReturn(0);
+        when(jdbcTemplate.queryForList(startsWith("SELECT state"), eq(Integer.class), eq("pagerduty"), eq("PD-1")))
+            .thenReturn(List.of(2));
+
+        assertEquals(AcquireResult.DUPLICATE, backend.tryAcquire("pagerduty", "PD-1", LEASE_MILLIS));
+    }
+
+    @Test
+    void liveLeaseIsInFlight() {
+        when(jdbcTemplate.update(anyString(), any(), any(), any())).thenReturn(0);
+        when(jdbcTemplate.queryForList(startsWith("SELECT state"), eq(Integer.class), eq("pagerduty"), eq("PD-1")))
+            .thenReturn(List.of(1));
+
+        assertEquals(AcquireResult.IN_FLIGHT, backend.tryAcquire("pagerduty", "PD-1", LEASE_MILLIS));
+    }
+
+    @Test
+    void rowPurgedBetweenStatementsIsReportedInFlight() {
+        when(jdbcTemplate.update(anyString(), any(), any(), any())).thenReturn(0);
+        when(jdbcTemplate.queryForList(startsWith("SELECT state"), eq(Integer.class), any(), any())).thenReturn(List.of());
+
+        assertEquals(AcquireResult.IN_FLIGHT, backend.tryAcquire("pagerduty", "PD-1", LEASE_MILLIS));
+    }
+
+    @Test
+    void releaseOnlyDeletesInFlightRows() {
+        when(jdbcTemplate.update(startsWith("DELETE"), eq("pagerduty"), eq("PD-1"))).thenReturn(1);
+
+        assertTrue(backend.release("pagerduty", "PD-1"));
+
+        verify(jdbcTemplate).update(and(startsWith("DELETE"), contains("state = 1")), eq("pagerduty"), eq("PD-1"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Organization;
+import com.signalroot.repository.ServiceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ServiceResolverTest {
+
+    private ServiceResolver resolver;
+    private JdbcTemplate jdbcTemplate;
+    private ServiceRepository serviceRepository;
+    private Organization organization;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        serviceRepository = mock(ServiceRepository.class);
+        when(serviceRepository.getReferenceById(any(UUID.class))).thenAnswer(invocation -> {
+            com.signalroot.entity.Service reference = new com.signalroot.entity.Service();
+            reference.setId(invocation.getArgument(0));
+            return reference;
+        });
+
+        resolver = new ServiceResolver();
+        ReflectionTestUtils.setField(resolver, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(resolver, "serviceRepository", serviceRepository);
+        ReflectionTestUtils.setField(resolver, "meterRegistry", new SimpleMeterRegistry());
+        resolver.init();
+
+        organization = new Organization();
+        organization.setId(UUID.randomUUID());
+    }
+
+    @Test
+    void missInsertsOrSelectsOnceThenServesFromCache() {
+        UUID id = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(contains("DO NOTHING"), eq(UUID.class), any(), any(), any(), any(), any()))
+            .thenReturn(List.of(id));
+
+        assertEquals(id, resolver.resolve("checkout", organization).getId());
+        assertEquals(id, resolver.resolve("checkout", organization).getId());
+
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(UUID.class), any(), any(), any(), any(), any());
+        verify(serviceRepository, times(2)).getReferenceById(id);
+        assertEquals(0.5, resolver.hitRatio());
+    }
+
+    @Test
+    void fallsBackToSelectWhenConcurrentInsertIsNotYetVisible() {
+        UUID id = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(contains("DO NOTHING"), eq(UUID.class), any(), any(), any(), any(), any()))
+            .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(startsWith("SELECT"), eq(UUID.class), any(), any())).thenReturn(List.of(id));
+
+        assertEquals(id, resolver.resolve("checkout", organization).getId());
+    }
+
+    @Test
+    void organizationsDoNotShareCachedServices() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(contains("DO NOTHING"), eq(UUID.class), any(), any(), any(), any(), any()))
+            .thenReturn(List.of(first), List.of(second));
+        Organization other = new Organization();
+        other.setId(UUID.randomUUID());
+
+        assertEquals(first, resolver.resolve("checkout", organization).getId());
+        assertEquals(second, resolver.resolve("checkout", other).getId());
+
+        resolver.evictOrganization(organization.getId());
+        assertEquals(1, resolver.size());
+    }
+}
@@ -0,0 +1,161 @@
+package com.signalroot.service;
+
+import com.signalroot.dto.BatchItemResult;
+import com.signalroot.dto.BatchRecord;
+import com.signalroot.dto.CloudWatchAlarmEvent;
+import com.signalroot.dto.PagerDutyAlertEvent;
+import com.signalroot.entity.Alert;
+import com.signalroot.entity.Incident;
+import com.signalroot.entity.Organization;
+import com.signalroot.repository.AlertRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TenantAlertServiceTest {
+
+    private TenantAlertService service;
+    private AlertRepository alertRepository;
+    private IdempotencyService idempotencyService;
+    private AlertStormCoalescer stormCoalescer;
+    private AlertLifecycleService lifecycleService;
+    private IncidentCorrelationService correlation;
+    private Organization organization;
+    private UUID serviceId;
+
+    @BeforeEach
+    void setUp() {
+        alertRepository = mock(AlertRepository.class);
+        idempotencyService = mock(IdempotencyService.class);
+        stormCoalescer = mock(AlertStormCoalescer.class);
+        ServiceResolver serviceResolver = mock(ServiceResolver.class);
+        correlation = mock(IncidentCorrelationService.class);
+        lifecycleService = mock(AlertLifecycleService.class);
+
+        organization = new Organization();
+        organization.setId(UUID.randomUUID());
+        organization.setName("acme");
+
+        when(idempotencyService.tryAcquire(anyString(), anyString())).thenReturn(AcquireResult.ACQUIRED);
+        com.signalroot.entity.Service resolved = new com.signalroot.entity.Service();
+        serviceId = UUID.randomUUID();
+        resolved.setId(serviceId);
+        when(serviceResolver.resolve(anyString(), any(Organization.class))).thenReturn(resolved);
+        Incident incident = new Incident();
+        incident.setId(UUID.randomUUID());
+        when(correlation.openIncident(any(Alert.class), anyString())).thenReturn(incident);
+        // Every call would be absorbed if it reached the coalescer
+        when(stormCoalescer.absorb(any(Organization.class), anyString(), any(UUID.class), anyString())).thenReturn(true);
+
+        service = new TenantAlertService();
+        ReflectionTestUtils.setField(service, "alertRepository", alertRepository);
+        ReflectionTestUtils.setField(service, "idempotencyService", idempotencyService);
+        ReflectionTestUtils.setField(service, "stormCoalescer", stormCoalescer);
+        ReflectionTestUtils.setField(service, "serviceResolver", serviceResolver);
+        ReflectionTestUtils.setField(service, "incidentCorrelationService", correlation);
+        ReflectionTestUtils.setField(service, "pipelineMetrics", mock(PipelineMetrics.class));
+        ReflectionTestUtils.setField(service, "lifecycleService", lifecycleService);
+        ReflectionTestUtils.setField(service, "transactionTemplate", mock(TransactionTemplate.class));
+        ReflectionTestUtils.setField(service, "batchChunkSize", 500);
+    }
+
+    @Test
+    void repeatAlarmFiringIsCoalesced() {
+        service.processCloudWatchAlert(new CloudWatchAlarmEvent("evt-1", "api-latency-high", "ALARM"), organization);
+
+        verify(stormCoalescer).absorb(organization, "cloudwatch", serviceId, "api-latency-high");
+        verify(alertRepository, never()).save(any(Alert.class));
+        verify(idempotencyService).complete("cloudwatch", "evt-1");
+    }
+
+    @Test
+    void stateTransitionsAreNeverCoalesced() {
+        service.processCloudWatchAlert(new CloudWatchAlarmEvent("evt-2", "api-latency-high", "OK"), organization);
+        service.processCloudWatchAlert(new CloudWatchAlarmEvent("evt-3", "api-latency-high", "INSUFFICIENT_DATA"), organization);
+
+        verify(stormCoalescer, never()).absorb(any(Organization.class), anyString(), any(UUID.class), anyString());
+        verify(alertRepository, times(2)).save(any(Alert.class));
+        verify(correlation, times(2)).openIncident(any(Alert.class), eq("api"));
+    }
+
+    @Test
+    void laterPagerDutyEventUpdatesStoredAlertWithoutSaving() {
+        when(idempotencyService.tryAcquire("pagerduty", "inc-1")).thenReturn(AcquireResult.DUPLICATE);
+        when(lifecycleService.apply(any(Organization.class), anyString(), anyString(), any(Alert.AlertStatus.class),
+                                    any(LocalDateTime.class))).thenReturn(AlertLifecycleService.Transition.APPLIED);
+
+        service.processPagerDutyAlert(pagerDuty("inc-1", "resolved"), organization);
+
+        verify(lifecycleService).apply(eq(organization), eq("pagerduty"), eq("inc-1"), eq(Alert.AlertStatus.RESOLVED),
+                                       any(LocalDateTime.class));
+        verify(alertRepository, never()).save(any(Alert.class));
+    }
+
+    @Test
+    void batchReportsEachPreparedOutcome() {
+        when(idempotencyService.tryAcquire("cloudwatch", "dup")).thenReturn(AcquireResult.DUPLICATE);
+        List<BatchRecord<CloudWatchAlarmEvent>> records = List.of(
+            BatchRecord.of(0, new CloudWatchAlarmEvent("dup", "db-cpu", "ALARM")),
+            BatchRecord.of(1, new CloudWatchAlarmEvent("storm", "db-cpu", "ALARM")),
+            BatchRecord.of(2, new CloudWatchAlarmEvent("ok", "db-cpu", "OK")));
+
+        List<BatchItemResult> results = service.processCloudWatchAlerts(records, organization);
+
+        assertEquals(List.of(BatchItemResult.DUPLICATE, BatchItemResult.COALESCED, BatchItemResult.PROCESSED),
+                     results.stream().map(BatchItemResult::status).toList());
+    }
+
+    @Test
+    void repeatFiringInBatchCompletesOnlyAfterItsLeaderIsSaved() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        when(stormCoalescer.absorb(any(Organization.class), anyString(), any(UUID.class), anyString())).thenReturn(false, true);
+
+        List<BatchItemResult> results = service.processCloudWatchAlerts(stormBatch(), organization);
+
+        assertEquals(List.of(BatchItemResult.PROCESSED, BatchItemResult.COALESCED),
+                     results.stream().map(BatchItemResult::status).toList());
+        InOrder inOrder = inOrder(transactionTemplate, idempotencyService);
+        inOrder.verify(transactionTemplate).executeWithoutResult(any());
+        inOrder.verify(idempotencyService).complete("cloudwatch", "repeat");
+    }
+
+    @Test
+    void repeatFiringInBatchFailsWithItsLeader() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doThrow(new IllegalStateException("connection reset")).when(transactionTemplate).executeWithoutResult(any());
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        when(stormCoalescer.absorb(any(Organization.class), anyString(), any(UUID.class), anyString())).thenReturn(false, true);
+
+        List<BatchItemResult> results = service.processCloudWatchAlerts(stormBatch(), organization);
+
+        assertEquals(List.of(BatchItemResult.FAILED, BatchItemResult.FAILED),
+                     results.stream().map(BatchItemResult::status).toList());
+        verify(idempotencyService).fail("cloudwatch", "lead");
+        verify(idempotencyService).fail("cloudwatch", "repeat");
+        verify(idempotencyService, never()).complete(anyString(), anyString());
+    }
+
+    private static List<BatchRecord<CloudWatchAlarmEvent>> stormBatch() {
+        return List.of(
+            BatchRecord.of(0, new CloudWatchAlarmEvent("lead", "db-cpu", "ALARM")),
+            BatchRecord.of(1, new CloudWatchAlarmEvent("repeat", "db-cpu", "ALARM")));
+    }
+
+    private static PagerDutyAlertEvent pagerDuty(String incidentId, String status) {
+        return new PagerDutyAlertEvent("wh-1", incidentId, "Checkout down", "critical", status, "checkout",
+                                       "2024-05-01T12:00:00Z");
+    }
+}
@@ -0,0 +1,152 @@
+package com.signalroot.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.signalroot.dto.BatchRecord;
+import com.signalroot.dto.CloudWatchAlarmEvent;
+import com.signalroot.dto.GitHubDeploymentEvent;
+import com.signalroot.dto.JenkinsBuildEvent;
+import com.signalroot.dto.PagerDutyAlertEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookPayloadExtractorTest {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WebhookPayloadExtractor extractor = new WebhookPayloadExtractor();
+
+    @Test
+    void pagerDutyMatchesMapBinding() throws Exception {
+        byte[] body = json("""
+            {"name": "decoy", "id": "top-level-id",
+             "incident": {"id": "P123", "title": "Checkout 5xx", "severity": "critical", "status": "triggered",
+                          "assignments": [{"id": "A1", "service": {"name": "wrong"}}],
+                          "service": {"id": "S1", "name": "checkout", "teams": [{"name": "payments"}]},
+                          "last_status_change_at": "2024-05-01T11:59:00Z",
+                          "body": {"details": {"incident": {"id": "nested"}}}},
+             "webhookId": "wh-9", "occurredAt": "2024-05-01T12:00:00Z"}
+            """);
+
+        PagerDutyAlertEvent event = extractor.readPagerDuty(body);
+
+        assertEquals(PagerDutyAlertEvent.fromMap(objectMapper.readValue(body, MAP_TYPE)), event);
+        assertEquals("checkout", event.serviceName());
+    }
+
+    @Test
+    void pagerDutyFallsBackToLastStatusChange() throws Exception {
+        byte[] body = json("""
+            {"incident": {"id": "P124", "status": "resolved", "last_status_change_at": "2024-05-01T12:30:00Z"}}
+            """);
+
+        PagerDutyAlertEvent event = extractor.readPagerDuty(body);
+
+        assertEquals(PagerDutyAlertEvent.fromMap(objectMapper.readValue(body, MAP_TYPE)), event);
+        assertEquals("2024-05-01T12:30:00Z", event.occurredAt());
+    }
+
+    @Test
+    void cloudWatchMatchesMapBinding() throws Exception {
+        byte[] body = json("""
+            {"version": "0", "id": "cw-1", "resources": ["arn:aws:cloudwatch:alarm"],
+             "detail": {"alarmName": "api-latency-high", "state": "ALARM",
+                        "previousState": {"value": "OK", "state": "ignored"},
+                        "configuration": {"metrics": [{"id": "m1"}]}}}
+            """);
+
+        assertEquals(CloudWatchAlarmEvent.fromMap(objectMapper.readValue(body, MAP_TYPE)), extractor.readCloudWatch(body));
+    }
+
+    @Test
+    void gitHubMatchesMapBindingWithNumericIds() throws Exception {
+        byte[] body = json("""
+            {"action": "created",
+             "deployment": {"url": "https://api.github.com/x", "id": 1234567890, "environment": "production",
+                            "creator": {"id": 42, "login": "octocat"},
+                            "status": {"state": "success", "creator": {"state": "wrong"}},
+                            "created_at": "2024-01-20T10:15:30Z", "payload": {}},
+             "repository": {"id": 99, "name": "payment-service-api", "owner": {"name": "acme"}},
+             "sender": {"name": "ignored"}}
+            """);
+
+        GitHubDeploymentEvent event = extractor.readGitHub(body);
+
+        assertEquals(GitHubDeploymentEvent.fromMap(objectMapper.readValue(body, MAP_TYPE)), event);
+        assertEquals("1234567890", event.deploymentId());
+    }
+
+    @Test
+    void jenkinsMatchesMapBinding() throws Exception {
+        byte[] body = json("""
+            {"job": {"name": "payments-deploy", "url": "https://jenkins/job/payments-deploy"},
+             "build": {"number": 812, "timestamp": "2024-02-01T09:00:00Z", "status": "SUCCESS",
+                       "artifact": {"version": "1.4.2", "name": "payments.jar"},
+                       "parameters": [{"name": "version", "value": "wrong"}]}}
+            """);
+
+        assertEquals(JenkinsBuildEvent.fromMap(objectMapper.readValue(body, MAP_TYPE)), extractor.readJenkins(body));
+    }
+
+    @Test
+    void nullAndNonObjectValuesAreIgnored() throws Exception {
+        byte[] body = json("""
+            {"deployment": {"id": "d-1", "environment": null, "status": "not-an-object"}, "repository": ["name"]}
+            """);
+
+        GitHubDeploymentEvent event = extractor.readGitHub(body);
+
+        assertEquals("d-1", event.deploymentId());
+        assertNull(event.environment());
+        assertNull(event.state());
+        assertNull(event.repositoryName());
+    }
+
+    @Test
+    void missingRequiredFieldIsRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> extractor.readCloudWatch(json("{\"detail\": {\"id\": \"nested-only\"}}")));
+        assertTrue(e.getMessage().contains("id"));
+        assertThrows(IllegalArgumentException.class, () -> extractor.readCloudWatch(json("[]")));
+        assertThrows(IllegalArgumentException.class, () -> extractor.readCloudWatch(json("{\"id\": ")));
+    }
+
+    @Test
+    void batchReadsArrayAndNdjsonAndFlagsInvalidRecords() throws Exception {
+        String array = "[{\"id\":\"a\",\"detail\":{\"alarmName\":\"x\",\"state\":\"OK\"}},{\"detail\":{}},{\"id\":\"c\"}]";
+        String ndjson = "{\"id\":\"a\"}\n{\"detail\":{}}\n{\"id\":\"c\"}\n";
+
+        for (String body : List.of(array, ndjson)) {
+            List<BatchRecord<CloudWatchAlarmEvent>> records = extractor.readBatch(
+                new ByteArrayInputStream(json(body)), extractor::readCloudWatch, 10);
+
+            assertEquals(3, records.size());
+            assertEquals("a", records.get(0).event().id());
+            assertFalse(records.get(1).isValid());
+            assertEquals("c", records.get(2).event().id());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> extractor.readBatch(
+            new ByteArrayInputStream(json(array)), extractor::readCloudWatch, 2));
+    }
+
+    @Test
+    void pathSetRejectsMoreThanSixtyFourPaths() {
+        String[] paths = new String[65];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = "f" + i;
+        }
+        assertThrows(IllegalArgumentException.class, () -> new WebhookPayloadExtractor.PathSet(paths));
+    }
+
+    private static byte[] json(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,121 @@
+package com.signalroot.service;
+
+import com.signalroot.entity.Organization;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookSignatureVerifierTest {
+
+    private static final byte[] BODY = "{\"id\":\"evt-1\"}".getBytes(StandardCharsets.UTF_8);
+
+    private Organization signed;
+    private Organization unsigned;
+
+    @BeforeEach
+    void setUp() {
+        signed = organization("s3cret");
+        unsigned = organization(null);
+    }
+
+    @Test
+    void acceptsMatchingSignatureAndRejectsOthers() throws Exception {
+        WebhookSignatureVerifier verifier = verifier("configured");
+        String signature = hmac("s3cret", BODY);
+
+        assertTrue(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, "sha256=" + signature, BODY));
+        assertTrue(verifier.verify(WebhookSignatureVerifier.Scheme.GENERIC, signed, "sha256=" + signature.toUpperCase(), BODY));
+        assertFalse(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, "sha256=" + hmac("other", BODY), BODY));
+        assertFalse(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, "sha256=abc", BODY));
+        assertFalse(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, "sha1=" + signature, BODY));
+        assertFalse(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, "sha256=" + signature,
+                                    "{\"id\":\"evt-2\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void pagerDutyAcceptsAnyOfSeveralSignatures() throws Exception {
+        WebhookSignatureVerifier verifier = verifier("configured");
+        String header = "v1=" + hmac("old-secret", BODY) + ", v1=" + hmac("s3cret", BODY);
+
+        assertTrue(verifier.verify(WebhookSignatureVerifier.Scheme.PAGERDUTY, signed, header, BODY));
+        assertFalse(verifier.verify(WebhookSignatureVerifier.Scheme.PAGERDUTY, signed, "v1=" + hmac("old-secret", BODY), BODY));
+    }
+
+    @Test
+    void configuredModeRequiresSignatureOnlyWhereASecretIsSet() {
+        WebhookSignatureVerifier verifier = verifier("configured");
+
+        assertFalse(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, null, BODY));
+        assertFalse(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, " ", BODY));
+        assertTrue(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, unsigned, null, BODY));
+        assertTrue(verifier.requiresSignature(signed));
+        assertFalse(verifier.requiresSignature(unsigned));
+    }
+
+    @Test
+    void requiredModeRejectsEveryUnsignedRequest() {
+        WebhookSignatureVerifier verifier = verifier("required");
+
+        assertFalse(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, null, BODY));
+        assertFalse(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, unsigned, null, BODY));
+        assertFalse(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, unsigned, "sha256=" + "0".repeat(64), BODY));
+    }
+
+    @Test
+    void ifPresentModeLetsUnsignedRequestsThroughButChecksSignedOnes() throws Exception {
+        WebhookSignatureVerifier verifier = verifier("if-present");
+
+        assertTrue(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, null, BODY));
+        assertFalse(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, "sha256=" + hmac("other", BODY), BODY));
+    }
+
+    @Test
+    void offModeSkipsVerification() {
+        assertTrue(verifier("off").verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, "sha256=bad", BODY));
+    }
+
+    @Test
+    void rejectsUnknownMode() {
+        assertThrows(IllegalStateException.class, () -> verifier("sometimes"));
+    }
+
+    @Test
+    void rotatedSecretIsPickedUp() throws Exception {
+        WebhookSignatureVerifier verifier = verifier("configured");
+        assertTrue(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, "sha256=" + hmac("s3cret", BODY), BODY));
+
+        signed.setWebhookSecret("rotated");
+        assertTrue(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, "sha256=" + hmac("rotated", BODY), BODY));
+        assertFalse(verifier.verify(WebhookSignatureVerifier.Scheme.GITHUB, signed, "sha256=" + hmac("s3cret", BODY), BODY));
+    }
+
+    private static WebhookSignatureVerifier verifier(String mode) {
+        WebhookSignatureVerifier verifier = new WebhookSignatureVerifier();
+        ReflectionTestUtils.setField(verifier, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(verifier, "mode", mode);
+        verifier.init();
+        return verifier;
+    }
+
+    private static Organization organization(String secret) {
+        Organization organization = new Organization();
+        organization.setId(UUID.randomUUID());
+        organization.setWebhookSecret(secret);
+        return organization;
+    }
+
+    private static String hmac(String secret, byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+}